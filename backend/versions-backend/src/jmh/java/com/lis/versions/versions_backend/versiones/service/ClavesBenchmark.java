@@ -0,0 +1,170 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.Ids;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formato de clave primaria y de timestamp en una tabla con la forma de {@code evento_auditoria}
+ * (id, FK a versión indexada, timestamp indexado) sobre SQLite en disco:
+ * <ul>
+ *   <li>{@code uuid4-text}: lo que había, UUID aleatorio y timestamp ISO en TEXT.</li>
+ *   <li>{@code uuid7-text}: lo que usa ahora {@link Ids}, mismo esquema.</li>
+ *   <li>{@code uuid7-blob}: UUIDv7 en BLOB de 16 bytes y epoch-millis INTEGER, en tabla WITHOUT ROWID.</li>
+ * </ul>
+ * Mide el lote de inserción sobre una tabla ya cargada y la consulta de un rango de una hora; el tamaño
+ * del archivo (page_count * page_size) se imprime al cerrar cada configuración.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClavesBenchmark {
+
+    static final int PRECARGA = 200_000;
+    static final int LOTE = 1_000;
+    static final int VERSIONES = 500;
+    static final long PASO_MS = 1_000;
+    static final long INICIO_MS = LocalDateTime.of(2024, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    @Param({"uuid4-text", "uuid7-text", "uuid7-blob"})
+    public String esquema;
+
+    Path dir;
+    Connection conn;
+    PreparedStatement insert;
+    PreparedStatement rango;
+    String[] versiones;
+    /** Reloj simulado: cada fila avanza 1 s, así la precarga cubre más de 55 horas. */
+    long reloj = INICIO_MS;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("versiones-claves");
+        conn = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("claves.db"));
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("PRAGMA synchronous=NORMAL");
+            if (blob()) {
+                st.execute("CREATE TABLE evento (id BLOB PRIMARY KEY, version_id BLOB NOT NULL, accion TEXT NOT NULL, ts INTEGER NOT NULL) WITHOUT ROWID");
+            } else {
+                st.execute("CREATE TABLE evento (id TEXT PRIMARY KEY, version_id TEXT NOT NULL, accion TEXT NOT NULL, ts TEXT NOT NULL)");
+            }
+            st.execute("CREATE INDEX ix_evento_version ON evento(version_id)");
+            st.execute("CREATE INDEX ix_evento_ts ON evento(ts)");
+        }
+        versiones = new String[VERSIONES];
+        for (int i = 0; i < VERSIONES; i++) versiones[i] = id();
+        insert = conn.prepareStatement("INSERT INTO evento(id, version_id, accion, ts) VALUES (?,?,?,?)");
+        rango = conn.prepareStatement("SELECT COUNT(*) FROM evento WHERE ts >= ? AND ts < ?");
+        conn.setAutoCommit(false);
+        for (int i = 0; i < PRECARGA / LOTE; i++) insertar();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        conn.setAutoCommit(true);
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            long paginas = escalar(st, "PRAGMA page_count");
+            long pagina = escalar(st, "PRAGMA page_size");
+            long filas = escalar(st, "SELECT COUNT(*) FROM evento");
+            System.out.printf("%n[%s] filas=%d tamaño=%d KiB (%.1f bytes/fila)%n",
+                    esquema, filas, paginas * pagina / 1024, (double) paginas * pagina / filas);
+        }
+        conn.close();
+        try (var s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /** Lote de {@link #LOTE} eventos en una transacción, como los registra la auditoría asíncrona. */
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int insertar() throws SQLException {
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < LOTE; i++) {
+            reloj += PASO_MS;
+            String id = id();
+            String version = versiones[random.nextInt(VERSIONES)];
+            if (blob()) {
+                insert.setBytes(1, bytes(id));
+                insert.setBytes(2, bytes(version));
+                insert.setLong(4, reloj);
+            } else {
+                insert.setString(1, id);
+                insert.setString(2, version);
+                insert.setString(4, iso(reloj));
+            }
+            insert.setString(3, "artefacto_adjuntado");
+            insert.addBatch();
+        }
+        int[] n = insert.executeBatch();
+        conn.commit();
+        return n.length;
+    }
+
+    /** Eventos de una hora al azar dentro de lo ya cargado. */
+    @Benchmark
+    public long rangoUnaHora() throws SQLException {
+        long desde = ThreadLocalRandom.current().nextLong(INICIO_MS, reloj - 3_600_000L);
+        long hasta = desde + 3_600_000L;
+        if (blob()) {
+            rango.setLong(1, desde);
+            rango.setLong(2, hasta);
+        } else {
+            rango.setString(1, iso(desde));
+            rango.setString(2, iso(hasta));
+        }
+        try (ResultSet rs = rango.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            conn.commit();
+        }
+    }
+
+    private boolean blob() {
+        return esquema.equals("uuid7-blob");
+    }
+
+    private String id() {
+        return esquema.equals("uuid4-text") ? UUID.randomUUID().toString() : Ids.nuevo();
+    }
+
+    private static byte[] bytes(String id) {
+        UUID u = UUID.fromString(id);
+        return ByteBuffer.allocate(16).putLong(u.getMostSignificantBits()).putLong(u.getLeastSignificantBits()).array();
+    }
+
+    /** Mismo formato que {@link VersionService#now()}. */
+    private static String iso(long ms) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(ms), ZoneOffset.UTC));
+    }
+
+    private static long escalar(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
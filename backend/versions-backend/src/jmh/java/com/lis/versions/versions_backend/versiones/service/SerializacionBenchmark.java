@@ -0,0 +1,137 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.domain.VersionResumen;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON de la API con el mismo {@link ObjectMapper} que Spring MVC: lectura de los cuerpos de
+ * {@link Dtos.RegistrarVersionRequest} (uno y lote de {@link #LOTE}) y {@link Dtos.AdjuntarArtefactoRequest};
+ * escritura de una {@link Dtos.Pagina} de {@link VersionResumen}, de un {@link Dtos.LoteResultado} y de las
+ * entidades que devuelven registrar, obtener y adjuntar. Además, el formateo de timestamps de
+ * {@link VersionService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacionBenchmark {
+
+    static final int LOTE = 50;
+    static final int PAGINA = 20;
+
+    ObjectMapper mapper;
+    VersionEntity version;
+    ArtefactoEntity artefacto;
+    String registrarJson;
+    String loteJson;
+    String adjuntarJson;
+    Dtos.Pagina<VersionResumen> pagina;
+    Dtos.LoteResultado loteResultado;
+
+    @Setup
+    public void setup() {
+        // Mismo builder que usa Spring MVC para leer peticiones y escribir respuestas.
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        version = new VersionEntity("0b0c5a3e-6f1a-4c55-9b1e-1f0a2f4d8c11", "ACME", "POS", "2.14.0", "20250301",
+                VersionEstado.Ready, "ana", "release/2.14", "data/outbox/release-notes.md",
+                "2025-03-01T10:15:30.123456", "2025-03-01T11:02:01.654321");
+        artefacto = new ArtefactoEntity("5d2a9c7e-3b41-4e8f-8a6d-7c9b0e1f2a34", version.getId(), "bin", "base",
+                "POS_BASE.bin", "POS_2.14.0_BASE.bin", "/srv/versiones/ACME/2.14.0", 268_435_456L,
+                "9e107d9d372bb6826bd81d3542a419d6", null, "2025-03-01T10:20:00.000001");
+
+        var lote = new ArrayList<String>(LOTE);
+        for (int i = 0; i < LOTE; i++) lote.add(registrar("2.14." + i));
+        registrarJson = lote.getFirst();
+        loteJson = "[" + String.join(",", lote) + "]";
+        adjuntarJson = """
+                {"tipo":"bin","rama":"base","nombreOriginal":"POS_BASE.bin","nombreFinal":"POS_2.14.0_BASE.bin",\
+                "rutaDestino":"ACME/2.14.0","sizeBytes":268435456,"md5":"9e107d9d372bb6826bd81d3542a419d6",\
+                "uploadedUrl":"ACME/POS_BASE.bin"}""";
+
+        var resumenes = new ArrayList<VersionResumen>(PAGINA);
+        for (int i = 0; i < PAGINA; i++) {
+            resumenes.add(new VersionResumen(version.getId(), "ACME", "POS", "2.14." + i, "20250301", VersionEstado.Ready,
+                    "ana", "release/2.14", "2025-03-01T10:15:30.123456", "2025-03-01T11:02:01.654321"));
+        }
+        pagina = new Dtos.Pagina<>(resumenes, null, null, PAGINA, null, true, false, "MjAyNS0wMy0wMVQxMDoxNTozMC4xMjM0NTY");
+
+        var items = new ArrayList<Dtos.LoteItem>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            items.add(i % 10 == 9 ? Dtos.LoteItem.error(i, "VERSION_DUPLICADA", "Ya existe la versión 2.14." + i)
+                    : Dtos.LoteItem.ok(i, version.getId()));
+        }
+        loteResultado = Dtos.LoteResultado.of(items);
+    }
+
+    private static String registrar(String numero) {
+        return """
+                {"cliente":"ACME","nombre":"POS","numeroVersion":"%s","buildYyyymmdd":"20250301",\
+                "responsable":"ana","branch":"release/2.14"}""".formatted(numero);
+    }
+
+    @Benchmark
+    public Dtos.RegistrarVersionRequest registrarRequest() throws Exception {
+        return mapper.readValue(registrarJson, Dtos.RegistrarVersionRequest.class);
+    }
+
+    @Benchmark
+    public List<Dtos.RegistrarVersionRequest> loteRequest() throws Exception {
+        return mapper.readValue(loteJson, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public Dtos.AdjuntarArtefactoRequest adjuntarRequest() throws Exception {
+        return mapper.readValue(adjuntarJson, Dtos.AdjuntarArtefactoRequest.class);
+    }
+
+    @Benchmark
+    public String paginaJson() throws Exception {
+        return mapper.writeValueAsString(pagina);
+    }
+
+    @Benchmark
+    public String loteResultadoJson() throws Exception {
+        return mapper.writeValueAsString(loteResultado);
+    }
+
+    @Benchmark
+    public String versionJson() throws Exception {
+        return mapper.writeValueAsString(version);
+    }
+
+    @Benchmark
+    public String artefactoJson() throws Exception {
+        return mapper.writeValueAsString(artefacto);
+    }
+
+    @Benchmark
+    public String now() {
+        return VersionService.now();
+    }
+
+    /** Referencia: mismo texto sin pasar por el formatter. */
+    @Benchmark
+    public String nowToString() {
+        return LocalDateTime.now().toString();
+    }
+
+    @Benchmark
+    public String nowIsoFormatter() {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now());
+    }
+}
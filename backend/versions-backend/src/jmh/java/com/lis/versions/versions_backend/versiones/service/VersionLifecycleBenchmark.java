@@ -0,0 +1,128 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.VersionsBackendApplication;
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ciclo de vida de una versión contra un archivo SQLite temporal, con el contexto Spring real.
+ * {@code sqliteModo} y {@code auditoriaModo} permiten comparar las variantes de configuración.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VersionLifecycleBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Contexto {
+        @Param({"default", "tuned"})
+        public String sqliteModo;
+
+        @Param({"SYNC", "ASYNC"})
+        public String auditoriaModo;
+
+        ConfigurableApplicationContext ctx;
+        VersionService service;
+        String draftId;
+        final AtomicLong seq = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            Path dir = Files.createTempDirectory("versiones-bench");
+            ctx = new SpringApplicationBuilder(VersionsBackendApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:sqlite:" + dir.resolve("bench.db"),
+                            "--versiones.sqlite.modo=" + sqliteModo,
+                            "--versiones.auditoria.modo=" + auditoriaModo,
+                            "--versiones.jobs.enabled=false",
+                            "--logging.level.root=WARN");
+            service = ctx.getBean(VersionService.class);
+            draftId = nuevaVersion().getId();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            ctx.close();
+        }
+
+        com.lis.versions.versions_backend.versiones.domain.VersionEntity nuevaVersion() {
+            var req = new Dtos.RegistrarVersionRequest();
+            req.cliente = "BENCH";
+            req.nombre = "POS";
+            req.numeroVersion = "1.0." + seq.incrementAndGet();
+            req.buildYyyymmdd = "20250101";
+            req.responsable = "jmh";
+            return service.registrar(req);
+        }
+
+        Dtos.AdjuntarArtefactoRequest artefacto(String rama) {
+            var req = new Dtos.AdjuntarArtefactoRequest();
+            req.tipo = "bin";
+            req.rama = rama;
+            req.nombreOriginal = rama + "-" + seq.incrementAndGet() + ".bin";
+            req.nombreFinal = req.nombreOriginal;
+            req.rutaDestino = "out";
+            return req;
+        }
+
+        String versionConArtefactos() {
+            var id = nuevaVersion().getId();
+            service.adjuntarArtefacto(id, artefacto("base"), "jmh");
+            service.adjuntarArtefacto(id, artefacto("aumento"), "jmh");
+            return id;
+        }
+    }
+
+    /** Una versión Draft con bin en base y aumento, recién creada para cada invocación. */
+    @State(Scope.Thread)
+    public static class ParaValidar {
+        String id;
+
+        @Setup(Level.Invocation)
+        public void preparar(Contexto c) {
+            id = c.versionConArtefactos();
+        }
+    }
+
+    /** Una versión Ready, recién creada para cada invocación. */
+    @State(Scope.Thread)
+    public static class ParaPublicar {
+        String id;
+
+        @Setup(Level.Invocation)
+        public void preparar(Contexto c) {
+            id = c.versionConArtefactos();
+            c.service.validar(id, "jmh");
+        }
+    }
+
+    @Benchmark
+    public Object registrar(Contexto c) {
+        return c.nuevaVersion();
+    }
+
+    @Benchmark
+    public Object adjuntarArtefacto(Contexto c) {
+        return c.service.adjuntarArtefacto(c.draftId, c.artefacto("base"), "jmh");
+    }
+
+    @Benchmark
+    public Object validar(Contexto c, ParaValidar v) {
+        return c.service.validar(v.id, "jmh");
+    }
+
+    @Benchmark
+    public Object publicar(Contexto c, ParaPublicar p) {
+        return c.service.publicar(p.id, "jmh");
+    }
+}
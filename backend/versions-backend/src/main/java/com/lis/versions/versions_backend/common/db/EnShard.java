@@ -0,0 +1,26 @@
+package com.lis.versions.versions_backend.common.db;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Método que trabaja sobre el shard de un cliente. Exactamente uno de los dos atributos es una
+ * expresión SpEL sobre los parámetros: {@link #version()} da un id de versión (se busca en el
+ * directorio) y {@link #cliente()} el cliente.
+ * Si la expresión es null o el shard no existe, el método corre sobre el archivo global.
+ *
+ * Sin efecto fuera del modo por cliente o si el hilo ya tiene un shard fijado.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EnShard {
+
+    String version() default "";
+
+    String cliente() default "";
+
+    /** Crea el archivo del cliente si aún no existe (solo para registrar versiones). */
+    boolean crear() default false;
+}
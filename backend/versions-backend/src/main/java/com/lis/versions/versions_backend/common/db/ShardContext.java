@@ -0,0 +1,55 @@
+package com.lis.versions.versions_backend.common.db;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard del hilo actual en el modo por cliente ({@code versiones.sqlite.modo=sharded}); sin valor,
+ * las conexiones van al archivo global. Es heredable: los hilos virtuales que crea una operación
+ * (copia, hash y verificación en paralelo) usan el mismo archivo que ella.
+ *
+ * Debe fijarse antes de abrir la transacción: la conexión se toma al empezar y no cambia aunque
+ * el shard cambie después. {@link ShardRouter} lo hace para los métodos con {@link EnShard}.
+ */
+public final class ShardContext {
+    private static final InheritableThreadLocal<String> ACTUAL = new InheritableThreadLocal<>();
+
+    private ShardContext() {}
+
+    public static String actual() {
+        return ACTUAL.get();
+    }
+
+    /** Fija {@code shard} (null = global) hasta cerrar el resultado, que restaura el anterior. */
+    public static Restaurar fijar(String shard) {
+        String anterior = ACTUAL.get();
+        ACTUAL.set(shard);
+        return () -> {
+            if (anterior == null) ACTUAL.remove();
+            else ACTUAL.set(anterior);
+        };
+    }
+
+    public static <T> T en(String shard, Supplier<T> accion) {
+        Restaurar restaurar = fijar(shard);
+        try {
+            return accion.get();
+        } finally {
+            restaurar.close();
+        }
+    }
+
+    public static void en(String shard, Runnable accion) {
+        Restaurar restaurar = fijar(shard);
+        try {
+            accion.run();
+        } finally {
+            restaurar.close();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Restaurar extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
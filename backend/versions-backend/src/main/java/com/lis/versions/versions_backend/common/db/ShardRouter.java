@@ -0,0 +1,61 @@
+package com.lis.versions.versions_backend.common.db;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fija el shard de los métodos con {@link EnShard} por fuera de la transacción, de modo que la
+ * conexión que ésta toma ya sea la del archivo del cliente.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "versiones.sqlite.modo", havingValue = "sharded")
+public class ShardRouter {
+
+    private final Shards shards;
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer nombres = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expresiones = new ConcurrentHashMap<>();
+
+    public ShardRouter(Shards shards) {
+        this.shards = shards;
+    }
+
+    @Around("@annotation(enShard)")
+    public Object enrutar(ProceedingJoinPoint pjp, EnShard enShard) throws Throwable {
+        if (ShardContext.actual() != null) return pjp.proceed();
+        boolean porVersion = !enShard.version().isEmpty();
+        Object valor = evaluar(pjp, porVersion ? enShard.version() : enShard.cliente());
+        String shard = porVersion
+                ? shards.deVersion((String) valor)
+                : shards.deCliente((String) valor, enShard.crear());
+        if (shard == null) return pjp.proceed();
+        ShardContext.Restaurar restaurar = ShardContext.fijar(shard);
+        try {
+            return pjp.proceed();
+        } finally {
+            restaurar.close();
+        }
+    }
+
+    private Object evaluar(ProceedingJoinPoint pjp, String expresion) {
+        var method = ((MethodSignature) pjp.getSignature()).getMethod();
+        var ctx = new MethodBasedEvaluationContext(null, method, pjp.getArgs(), nombres);
+        return expresiones.computeIfAbsent(expresion, parser::parseExpression).getValue(ctx);
+    }
+}
@@ -0,0 +1,146 @@
+package com.lis.versions.versions_backend.common.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link DataSource} del modo por cliente: cada conexión sale del archivo del shard de
+ * {@link ShardContext#actual()} ({@code <dir>/<shard>.db}) o, sin shard, del archivo global
+ * ({@code spring.datasource.url}). Cada archivo tiene sus propios pools y su propio lock de
+ * escritura, así las escrituras de clientes distintos no se esperan entre sí.
+ *
+ * Los shards se abren al arrancar (los {@code *.db} del directorio) o la primera vez que se
+ * registra una versión del cliente; al abrirlos se les aplican las migraciones de Flyway.
+ */
+public class ShardedDataSource extends AbstractDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ShardedDataSource.class);
+    private static final int NOMBRE_MAX = 64;
+
+    private final DataSource global;
+    private final Path dir;
+    private final Function<Path, DataSource> pools;
+    private final Consumer<DataSource> migrar;
+    private final Map<String, DataSource> shards = new ConcurrentHashMap<>();
+
+    private ShardedDataSource(DataSource global, Path dir, Function<Path, DataSource> pools, Consumer<DataSource> migrar) {
+        this.global = global;
+        this.dir = dir;
+        this.pools = pools;
+        this.migrar = migrar;
+    }
+
+    /** Crea el directorio y abre (y migra) los {@code *.db} que ya contiene. */
+    public static ShardedDataSource abrir(DataSource global, Path dir, Function<Path, DataSource> pools, Consumer<DataSource> migrar) {
+        var ds = new ShardedDataSource(global, dir, pools, migrar);
+        ds.abrirExistentes();
+        return ds;
+    }
+
+    private void abrirExistentes() {
+        try {
+            Files.createDirectories(dir);
+            try (var archivos = Files.list(dir)) {
+                for (Path p : archivos.filter(f -> f.getFileName().toString().endsWith(".db")).toList()) {
+                    String n = p.getFileName().toString();
+                    shard(n.substring(0, n.length() - 3));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Nombres de archivo posibles para el shard de un cliente, en orden de preferencia: {@link #nombre}
+     * y luego ese nombre con 8 y con 64 dígitos hex del SHA-256 del cliente, para cuando el anterior
+     * ya está asignado a otro cliente ({@code shard_cliente}).
+     */
+    public static List<String> candidatos(String cliente) {
+        String base = nombre(cliente);
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(cliente.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        return List.of(base, base + "-" + hash.substring(0, 8), base + "-" + hash);
+    }
+
+    /**
+     * Nombre de archivo legible del shard de un cliente: minúsculas, solo {@code [a-z0-9_-]}. Varios
+     * clientes pueden dar el mismo; la asignación real es la de {@code shard_cliente}.
+     */
+    public static String nombre(String cliente) {
+        var sb = new StringBuilder(Math.min(cliente.length(), NOMBRE_MAX));
+        for (char c : cliente.strip().toLowerCase(Locale.ROOT).toCharArray()) {
+            if (sb.length() == NOMBRE_MAX) break;
+            sb.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' ? c : '_');
+        }
+        return sb.isEmpty() ? "_" : sb.toString();
+    }
+
+    public DataSource global() {
+        return global;
+    }
+
+    public boolean existe(String shard) {
+        return shards.containsKey(shard);
+    }
+
+    /** Shards abiertos, en orden de nombre. */
+    public List<String> nombres() {
+        var n = new ArrayList<>(shards.keySet());
+        n.sort(null);
+        return n;
+    }
+
+    /** Pools del shard; lo crea y migra si no existía. */
+    public DataSource shard(String nombre) {
+        DataSource ds = shards.get(nombre);
+        if (ds != null) return ds;
+        synchronized (shards) {
+            return shards.computeIfAbsent(nombre, n -> {
+                long t0 = System.nanoTime();
+                DataSource nuevo = pools.apply(dir.resolve(n + ".db"));
+                migrar.accept(nuevo);
+                log.info("Shard {} abierto en {} ms", n, (System.nanoTime() - t0) / 1_000_000);
+                return nuevo;
+            });
+        }
+    }
+
+    private DataSource destino() {
+        String shard = ShardContext.actual();
+        return shard == null ? global : shard(shard);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return destino().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return destino().getConnection(username, password);
+    }
+}
@@ -0,0 +1,77 @@
+package com.lis.versions.versions_backend.common.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * Modo SQLite por cliente ({@code versiones.sqlite.modo=sharded}): un archivo por {@code cliente}
+ * en {@code versiones.shards.dir}, con los pools y PRAGMA del modo afinado cada uno. El archivo
+ * global ({@code spring.datasource.url}) guarda el directorio versión → shard
+ * ({@code shard_directorio}), la asignación cliente → shard ({@code shard_cliente}), la
+ * idempotencia y las versiones anteriores al cambio de modo.
+ *
+ * Flyway de Spring Boot migra el archivo global; {@link ShardedDataSource} migra cada shard al abrirlo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "versiones.sqlite.modo", havingValue = "sharded")
+public class ShardedDataSourceConfig {
+
+    private final SqliteBusyMetrics busyMetrics;
+    private final MeterRegistry meterRegistry;
+
+    public ShardedDataSourceConfig(SqliteBusyMetrics busyMetrics, MeterRegistry meterRegistry) {
+        this.busyMetrics = busyMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String[] flywayLocations;
+
+    @Value("${versiones.shards.dir:data/shards}")
+    private String dir;
+
+    @Value("${versiones.sqlite.writer-pool-size:2}")
+    private int writerPoolSize;
+
+    @Value("${versiones.sqlite.reader-pool-size:8}")
+    private int readerPoolSize;
+
+    @Value("${versiones.sqlite.cache-size-kib:65536}")
+    private int cacheSizeKib;
+
+    @Value("${versiones.sqlite.mmap-size-bytes:268435456}")
+    private long mmapSizeBytes;
+
+    @Value("${versiones.sqlite.busy-timeout-ms:10000}")
+    private int busyTimeoutMs;
+
+    @Bean
+    @Primary
+    public ShardedDataSource dataSource() {
+        var pools = new SqlitePools(busyMetrics, meterRegistry,
+                new SqlitePools.Ajustes(writerPoolSize, readerPoolSize, cacheSizeKib, mmapSizeBytes, busyTimeoutMs));
+        return ShardedDataSource.abrir(pools.lecturaEscritura("sqlite", url), Path.of(dir).toAbsolutePath(),
+                archivo -> pools.lecturaEscritura("sqlite-" + nombreArchivo(archivo), "jdbc:sqlite:" + archivo),
+                this::migrar);
+    }
+
+    private void migrar(DataSource shard) {
+        Flyway.configure().dataSource(shard).locations(flywayLocations).load().migrate();
+    }
+
+    private static String nombreArchivo(Path archivo) {
+        String n = archivo.getFileName().toString();
+        return n.substring(0, n.length() - 3);
+    }
+}
@@ -0,0 +1,232 @@
+package com.lis.versions.versions_backend.common.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Recorrido de shards y directorio versión → shard. Fuera del modo por cliente hay un único
+ * "shard", el archivo global (clave null), y todos los métodos se reducen a ejecutar la acción.
+ *
+ * <ul>
+ *   <li>{@link #enCada}: tareas de fondo (jobs, barridos, backfills), un shard tras otro.</li>
+ *   <li>{@link #unir} y {@link #sumar}: lecturas sin cliente desde una petición; se consultan todos
+ *   los shards en paralelo, cada uno en su transacción de solo lectura, y se mezclan los resultados.
+ *   Con un shard fijado consultan solo ése.</li>
+ * </ul>
+ *
+ * El directorio ({@code shard_directorio}) y la asignación cliente → shard ({@code shard_cliente})
+ * viven en el archivo global y se usan con su propio {@link JdbcTemplate}, nunca con la conexión de
+ * la transacción del shard.
+ */
+@Component
+public class Shards {
+    private static final Logger log = LoggerFactory.getLogger(Shards.class);
+    private static final List<String> SOLO_GLOBAL = Collections.singletonList(null);
+
+    private final ShardedDataSource sharded;
+    private final JdbcTemplate directorio;
+    private final Cache<String, String> cache;
+    private final Cache<String, String> clientes;
+    private final TransactionTemplate lectura;
+    private final TransactionTemplate escritura;
+
+    public Shards(ObjectProvider<ShardedDataSource> sharded,
+                  PlatformTransactionManager txManager,
+                  @Value("${versiones.shards.directorio-max:100000}") int directorioMax) {
+        this.sharded = sharded.getIfAvailable();
+        this.directorio = this.sharded == null ? null : new JdbcTemplate(this.sharded.global());
+        this.cache = Caffeine.newBuilder().maximumSize(directorioMax).build();
+        this.clientes = Caffeine.newBuilder().maximumSize(directorioMax).build();
+        this.lectura = new TransactionTemplate(txManager);
+        this.lectura.setReadOnly(true);
+        this.escritura = new TransactionTemplate(txManager);
+    }
+
+    public boolean activo() {
+        return sharded != null;
+    }
+
+    /** Claves a recorrer: el archivo global (null) y los shards abiertos. */
+    public List<String> claves() {
+        if (sharded == null) return SOLO_GLOBAL;
+        var claves = new ArrayList<String>();
+        claves.add(null);
+        claves.addAll(sharded.nombres());
+        return claves;
+    }
+
+    /**
+     * Shard del cliente según {@code shard_cliente}; si no tiene y {@code crear} es true se le asigna
+     * uno y se abre. Null si no tiene o no está abierto y {@code crear} es false.
+     */
+    public String deCliente(String cliente, boolean crear) {
+        if (sharded == null || cliente == null || cliente.isBlank()) return null;
+        String shard = asignado(cliente);
+        if (shard == null) {
+            heredar(ShardedDataSource.nombre(cliente));
+            shard = asignado(cliente);
+        }
+        if (shard == null && crear) shard = asignar(cliente);
+        if (shard == null) return null;
+        if (crear) {
+            sharded.shard(shard);
+            return shard;
+        }
+        return sharded.existe(shard) ? shard : null;
+    }
+
+    private String asignado(String cliente) {
+        String shard = clientes.getIfPresent(cliente);
+        if (shard != null) return shard;
+        var filas = directorio.queryForList("SELECT shard FROM shard_cliente WHERE cliente = ?", String.class, cliente);
+        if (filas.isEmpty()) return null;
+        clientes.put(cliente, filas.get(0));
+        return filas.get(0);
+    }
+
+    /**
+     * Primer candidato libre de {@link ShardedDataSource#candidatos}. La comprobación y el INSERT son
+     * una sola sentencia, así dos procesos no pueden dar el mismo archivo a clientes distintos.
+     */
+    private String asignar(String cliente) {
+        String ts = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        for (String candidato : ShardedDataSource.candidatos(cliente)) {
+            directorio.update("INSERT INTO shard_cliente (cliente, shard, creado_en) SELECT ?, ?, ? " +
+                            "WHERE NOT EXISTS (SELECT 1 FROM shard_cliente WHERE shard = ?) ON CONFLICT(cliente) DO NOTHING",
+                    cliente, candidato, ts, candidato);
+            String shard = asignado(cliente);
+            if (shard != null) return shard;
+        }
+        throw new IllegalStateException("No hay nombre de shard libre para el cliente " + cliente);
+    }
+
+    /**
+     * Adopta un shard abierto antes de {@code shard_cliente}: asigna a ese archivo los clientes cuyas
+     * versiones contiene, para que otro cliente con el mismo nombre no vaya a parar a él.
+     */
+    private void heredar(String shard) {
+        if (!sharded.existe(shard)) return;
+        if (!directorio.queryForList("SELECT 1 FROM shard_cliente WHERE shard = ? LIMIT 1", Integer.class, shard).isEmpty()) return;
+        String ts = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        var contenidos = new JdbcTemplate(sharded.shard(shard)).queryForList("SELECT DISTINCT cliente FROM version", String.class);
+        directorio.batchUpdate("INSERT INTO shard_cliente (cliente, shard, creado_en) VALUES (?,?,?) ON CONFLICT(cliente) DO NOTHING",
+                contenidos.stream().map(c -> new Object[]{c, shard, ts}).toList());
+        if (!contenidos.isEmpty()) log.info("Shard {} adoptado con {} clientes", shard, contenidos.size());
+    }
+
+    /** Shard de la versión según el directorio; null si no figura (versiones del archivo global). */
+    public String deVersion(String versionId) {
+        if (sharded == null || versionId == null) return null;
+        String shard = cache.getIfPresent(versionId);
+        if (shard != null) return shard;
+        var filas = directorio.queryForList("SELECT shard FROM shard_directorio WHERE version_id = ?", String.class, versionId);
+        if (filas.isEmpty()) return null;
+        cache.put(versionId, filas.get(0));
+        return filas.get(0);
+    }
+
+    /**
+     * Anota en el directorio las versiones creadas en el shard actual. Se escribe antes de confirmar
+     * la transacción del shard: si ésta falla queda una entrada que apunta a una versión inexistente,
+     * que se resuelve igual que un id desconocido.
+     */
+    public void registrar(Collection<String> versionIds) {
+        String shard = ShardContext.actual();
+        if (sharded == null || shard == null || versionIds.isEmpty()) return;
+        String ts = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        directorio.batchUpdate("INSERT INTO shard_directorio (version_id, shard, creado_en) VALUES (?,?,?)",
+                versionIds.stream().map(id -> new Object[]{id, shard, ts}).toList());
+        for (String id : versionIds) cache.put(id, shard);
+    }
+
+    /** True si una lectura debe recorrer todos los shards: modo por cliente y ningún shard fijado. */
+    public boolean repartir() {
+        return sharded != null && ShardContext.actual() == null;
+    }
+
+    /**
+     * Ejecuta {@code accion} en una transacción propia sobre {@code shard} (null: el archivo global).
+     * Para operaciones que reparten su trabajo entre varios clientes, una transacción por shard.
+     */
+    public <T> T escribir(String shard, Supplier<T> accion) {
+        return ShardContext.en(shard, () -> escritura.execute(s -> accion.get()));
+    }
+
+    public void escribir(String shard, Runnable accion) {
+        ShardContext.en(shard, () -> escritura.executeWithoutResult(s -> accion.run()));
+    }
+
+    /** Ejecuta {@code accion} en cada shard, en orden; el fallo de uno no impide los demás. */
+    public <T> List<T> enCada(Supplier<T> accion) {
+        if (!repartir()) return Collections.singletonList(accion.get());
+        var resultados = new ArrayList<T>();
+        for (String clave : claves()) {
+            try {
+                resultados.add(ShardContext.en(clave, accion));
+            } catch (RuntimeException e) {
+                log.warn("Error en shard {}: {}", clave == null ? "global" : clave, e.getMessage());
+            }
+        }
+        return resultados;
+    }
+
+    /** Primeros {@code limite} según {@code orden} de la unión de la consulta en cada shard. */
+    public <T> List<T> unir(Supplier<List<T>> consulta, Comparator<? super T> orden, int limite) {
+        if (!repartir()) return consulta.get();
+        var todos = new ArrayList<T>();
+        for (List<T> parcial : enParalelo(consulta)) todos.addAll(parcial);
+        todos.sort(orden);
+        return todos.size() <= limite ? todos : new ArrayList<>(todos.subList(0, limite));
+    }
+
+    public long sumar(LongSupplier consulta) {
+        if (!repartir()) return consulta.getAsLong();
+        long total = 0;
+        for (long parcial : enParalelo(consulta::getAsLong)) total += parcial;
+        return total;
+    }
+
+    private <T> List<T> enParalelo(Supplier<T> consulta) {
+        var claves = claves();
+        var futures = new ArrayList<Future<T>>(claves.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String clave : claves) {
+                futures.add(executor.submit(() -> ShardContext.en(clave, () -> lectura.execute(s -> consulta.get()))));
+            }
+        }
+        var resultados = new ArrayList<T>(futures.size());
+        for (var f : futures) {
+            try {
+                resultados.add(f.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return resultados;
+    }
+}
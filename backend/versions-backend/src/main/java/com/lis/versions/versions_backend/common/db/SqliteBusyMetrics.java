@@ -0,0 +1,107 @@
+package com.lis.versions.versions_backend.common.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.sqlite.BusyHandler;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteDataSource;
+
+import java.sql.SQLException;
+
+/**
+ * Cuenta los reintentos por SQLITE_BUSY. Reemplaza el {@code busy_timeout} de cada conexión por un
+ * busy handler equivalente (misma espera máxima, pausas de 1 a 10 ms) que registra
+ * {@code versiones.sqlite.busy.retries} por cada pausa y {@code versiones.sqlite.busy.timeouts}
+ * cuando se agota la espera y la sentencia falla con SQLITE_BUSY.
+ *
+ * En modo por defecto se instala dando al pool de Hikari autoconfigurado un {@link SQLiteDataSource}
+ * propio; el modo afinado lo usa al construir sus pools ({@link SqliteTunedDataSourceConfig}).
+ */
+@Component
+public class SqliteBusyMetrics implements BeanPostProcessor {
+    private static final int PAUSA_MAX_MS = 10;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Counter retries;
+    private volatile Counter timeouts;
+
+    public SqliteBusyMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** {@link SQLiteDataSource} cuyas conexiones nuevas llevan el busy handler instrumentado. */
+    public SQLiteDataSource dataSource(SQLiteConfig config, String url) {
+        var ds = new SQLiteDataSource(config) {
+            @Override
+            public SQLiteConnection getConnection(String username, String password) throws SQLException {
+                SQLiteConnection conn = super.getConnection(username, password);
+                BusyHandler.setHandler(conn, new Reintentos(conn.getBusyTimeout()));
+                return conn;
+            }
+        };
+        ds.setUrl(url);
+        return ds;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari && hikari.getDataSource() == null
+                && hikari.getJdbcUrl() != null && hikari.getJdbcUrl().startsWith("jdbc:sqlite:")) {
+            hikari.setDataSource(dataSource(new SQLiteConfig(), hikari.getJdbcUrl()));
+        }
+        return bean;
+    }
+
+    // Espera acumulada antes del intento n con pausas 1, 2, ..., 10, 10, ... ms.
+    static long esperaAcumuladaMs(int intentos) {
+        int crecientes = Math.min(intentos, PAUSA_MAX_MS);
+        return (long) crecientes * (crecientes + 1) / 2 + (long) (intentos - crecientes) * PAUSA_MAX_MS;
+    }
+
+    private Counter retries() {
+        if (retries == null) {
+            retries = Counter.builder("versiones.sqlite.busy.retries")
+                    .description("Reintentos por base de datos bloqueada (SQLITE_BUSY)")
+                    .register(meterRegistry.getObject());
+        }
+        return retries;
+    }
+
+    private Counter timeouts() {
+        if (timeouts == null) {
+            timeouts = Counter.builder("versiones.sqlite.busy.timeouts")
+                    .description("Sentencias que agotaron el busy timeout")
+                    .register(meterRegistry.getObject());
+        }
+        return timeouts;
+    }
+
+    private final class Reintentos extends BusyHandler {
+        private final int timeoutMs;
+
+        Reintentos(int timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        protected int callback(int previos) {
+            if (esperaAcumuladaMs(previos) >= timeoutMs) {
+                timeouts().increment();
+                return 0;
+            }
+            retries().increment();
+            try {
+                Thread.sleep(Math.min(previos + 1, PAUSA_MAX_MS));
+                return 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+    }
+}
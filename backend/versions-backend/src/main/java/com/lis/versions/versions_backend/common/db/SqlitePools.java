@@ -0,0 +1,80 @@
+package com.lis.versions.versions_backend.common.db;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Pools de escritura y de solo lectura sobre un archivo SQLite con los PRAGMA del modo afinado
+ * (ver {@link SqliteTunedDataSourceConfig}); el modo por cliente ({@link ShardedDataSourceConfig})
+ * arma un par por archivo.
+ */
+final class SqlitePools {
+
+    enum Ruta { WRITE, READ }
+
+    record Ajustes(int writerPoolSize, int readerPoolSize, int cacheSizeKib, long mmapSizeBytes, int busyTimeoutMs) {}
+
+    private final SqliteBusyMetrics busyMetrics;
+    private final MeterRegistry meterRegistry;
+    private final Ajustes ajustes;
+
+    SqlitePools(SqliteBusyMetrics busyMetrics, MeterRegistry meterRegistry, Ajustes ajustes) {
+        this.busyMetrics = busyMetrics;
+        this.meterRegistry = meterRegistry;
+        this.ajustes = ajustes;
+    }
+
+    /** Pools {@code <nombre>-writer} y {@code <nombre>-reader} elegidos según la transacción sea {@code readOnly}. */
+    DataSource lecturaEscritura(String nombre, String url) {
+        var routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Ruta.READ : Ruta.WRITE;
+            }
+        };
+        DataSource writer = pool(nombre + "-writer", url, ajustes.writerPoolSize(), false);
+        DataSource reader = pool(nombre + "-reader", url, ajustes.readerPoolSize(), true);
+        routing.setTargetDataSources(Map.of(Ruta.WRITE, writer, Ruta.READ, reader));
+        routing.setDefaultTargetDataSource(writer);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private SQLiteConfig sqliteConfig(boolean readOnly) {
+        var c = new SQLiteConfig();
+        c.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        c.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        c.setCacheSize(-ajustes.cacheSizeKib());
+        c.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(ajustes.mmapSizeBytes()));
+        c.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        c.setBusyTimeout(ajustes.busyTimeoutMs());
+        if (readOnly) {
+            c.setReadOnly(true);
+        } else {
+            c.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        }
+        return c;
+    }
+
+    private HikariDataSource pool(String name, String url, int size, boolean readOnly) {
+        var sqlite = busyMetrics.dataSource(sqliteConfig(readOnly), url);
+        var hc = new HikariConfig();
+        hc.setPoolName(name);
+        hc.setDataSource(sqlite);
+        hc.setMaximumPoolSize(size);
+        hc.setMinimumIdle(1);
+        hc.setReadOnly(readOnly);
+        // Los pools no son beans: sin esto no aparecerían en las métricas hikaricp.*
+        hc.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(hc);
+    }
+}
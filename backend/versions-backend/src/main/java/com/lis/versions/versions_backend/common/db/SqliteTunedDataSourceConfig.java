@@ -0,0 +1,73 @@
+package com.lis.versions.versions_backend.common.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Modo SQLite afinado ({@code versiones.sqlite.modo=tuned}).
+ *
+ * <ul>
+ *   <li>WAL + {@code synchronous=NORMAL}: los lectores no bloquean al escritor ni viceversa.</li>
+ *   <li>Pool de escritura mínimo con transacciones {@code BEGIN IMMEDIATE}: el lock de escritura se
+ *   toma al inicio y la espera la resuelve {@code busy_timeout}, en vez de fallar con SQLITE_BUSY al
+ *   promover una transacción de lectura a escritura.</li>
+ *   <li>Pool de solo lectura aparte para las transacciones {@code readOnly}.</li>
+ * </ul>
+ *
+ * El enrutamiento se decide por {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()};
+ * el {@link LazyConnectionDataSourceProxy} retrasa la obtención de la conexión hasta que ese flag ya
+ * está establecido. Lo que corre fuera de transacción (Flyway, jobs, writer de auditoría) va al pool
+ * de escritura.
+ *
+ * Las conexiones llevan el busy handler de {@link SqliteBusyMetrics}.
+ *
+ * El pool de escritura tiene 2 conexiones por defecto: la serialización la dan {@link SqliteWriteGate}
+ * y el lock de SQLite, y la segunda conexión deja que los writers de fondo (volcado del outbox de
+ * {@code AuditoriaWriter}, jobs) esperen el lock sin quedarse sin conexión mientras la primera sigue asignada.
+ */
+@Configuration
+@ConditionalOnProperty(name = "versiones.sqlite.modo", havingValue = "tuned")
+public class SqliteTunedDataSourceConfig {
+
+    private final SqliteBusyMetrics busyMetrics;
+    private final MeterRegistry meterRegistry;
+
+    public SqliteTunedDataSourceConfig(SqliteBusyMetrics busyMetrics, MeterRegistry meterRegistry) {
+        this.busyMetrics = busyMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${versiones.sqlite.writer-pool-size:2}")
+    private int writerPoolSize;
+
+    @Value("${versiones.sqlite.reader-pool-size:8}")
+    private int readerPoolSize;
+
+    @Value("${versiones.sqlite.cache-size-kib:65536}")
+    private int cacheSizeKib;
+
+    @Value("${versiones.sqlite.mmap-size-bytes:268435456}")
+    private long mmapSizeBytes;
+
+    @Value("${versiones.sqlite.busy-timeout-ms:10000}")
+    private int busyTimeoutMs;
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        var pools = new SqlitePools(busyMetrics, meterRegistry,
+                new SqlitePools.Ajustes(writerPoolSize, readerPoolSize, cacheSizeKib, mmapSizeBytes, busyTimeoutMs));
+        return pools.lecturaEscritura("sqlite", url);
+    }
+}
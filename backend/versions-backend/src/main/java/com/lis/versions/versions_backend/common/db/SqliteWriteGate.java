@@ -0,0 +1,52 @@
+package com.lis.versions.versions_backend.common.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola única de escritura del modo afinado: las transacciones de escritura de {@code VersionService}
+ * se ejecutan de a una y en orden de llegada (lock justo). Se aplica por fuera de la transacción,
+ * así los hilos esperan en la JVM sin retener una conexión ni girar en el busy handler de SQLite.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "versiones.sqlite.modo", havingValue = "tuned")
+public class SqliteWriteGate {
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Timer espera;
+
+    public SqliteWriteGate(MeterRegistry meterRegistry) {
+        this.espera = Timer.builder("versiones.sqlite.write.wait")
+                .description("Espera en la cola de escritura")
+                .register(meterRegistry);
+    }
+
+    @Around("within(com.lis.versions.versions_backend.versiones.service.VersionService) "
+            + "&& @annotation(org.springframework.transaction.annotation.Transactional)")
+    public Object serialize(ProceedingJoinPoint pjp) throws Throwable {
+        var tx = ((MethodSignature) pjp.getSignature()).getMethod().getAnnotation(Transactional.class);
+        if (tx.readOnly() || lock.isHeldByCurrentThread()) return pjp.proceed();
+        long t0 = System.nanoTime();
+        lock.lock();
+        try {
+            espera.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+            return pjp.proceed();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
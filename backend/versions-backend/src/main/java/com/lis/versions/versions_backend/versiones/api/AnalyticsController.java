@@ -0,0 +1,28 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos.Analytics;
+import com.lis.versions.versions_backend.versiones.service.AnalyticsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService service;
+
+    public AnalyticsController(AnalyticsService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public ResponseEntity<Analytics> resumen(@RequestParam(required = false) String cliente) {
+        return ResponseEntity.ok(service.resumen(cliente));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Analytics> reconstruir() {
+        service.reconstruir();
+        return ResponseEntity.ok(service.resumen(null));
+    }
+}
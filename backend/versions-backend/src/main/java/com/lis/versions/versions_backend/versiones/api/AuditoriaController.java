@@ -0,0 +1,60 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.repo.AuditoriaFiltro;
+import com.lis.versions.versions_backend.versiones.service.AuditoriaExporter;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Exportación de auditoría en NDJSON ({@code formato=ndjson}, por defecto) o CSV. La respuesta se
+ * escribe a medida que se leen las filas, sin cargar los eventos en memoria.
+ */
+@RestController
+@RequestMapping("/api")
+public class AuditoriaController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final VersionService service;
+    private final AuditoriaExporter exporter;
+
+    public AuditoriaController(VersionService service, AuditoriaExporter exporter) {
+        this.service = service;
+        this.exporter = exporter;
+    }
+
+    @GetMapping("/versiones/{id}/auditoria")
+    public ResponseEntity<StreamingResponseBody> deVersion(@PathVariable("id") String id,
+                                                           @RequestParam(required = false) String actor,
+                                                           @RequestParam(required = false) String accion,
+                                                           @RequestParam(required = false) String desde,
+                                                           @RequestParam(required = false) String hasta,
+                                                           @RequestParam(required = false) String formato) {
+        return exportar(service.filtroAuditoria(id, actor, accion, desde, hasta), formato);
+    }
+
+    @GetMapping("/auditoria")
+    public ResponseEntity<StreamingResponseBody> buscar(@RequestParam(required = false) String versionId,
+                                                        @RequestParam(required = false) String actor,
+                                                        @RequestParam(required = false) String accion,
+                                                        @RequestParam(required = false) String desde,
+                                                        @RequestParam(required = false) String hasta,
+                                                        @RequestParam(required = false) String formato) {
+        return exportar(service.filtroAuditoria(versionId, actor, accion, desde, hasta), formato);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportar(AuditoriaFiltro filtro, String formato) {
+        if (formato == null || formato.isBlank() || "ndjson".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok().contentType(NDJSON).body(out -> exporter.ndjson(filtro, out));
+        }
+        if ("csv".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok().contentType(CSV)
+                    .header("Content-Disposition", "attachment; filename=\"auditoria.csv\"")
+                    .body(out -> exporter.csv(filtro, out));
+        }
+        throw new VersionService.ServiceException(422, "FORMATO_INVALIDO", "formato debe ser ndjson o csv");
+    }
+}
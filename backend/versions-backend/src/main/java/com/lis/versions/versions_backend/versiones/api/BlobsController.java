@@ -0,0 +1,22 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.repo.BlobStats;
+import com.lis.versions.versions_backend.versiones.service.BlobStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/blobs")
+public class BlobsController {
+
+    private final BlobStore blobStore;
+
+    public BlobsController(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<BlobStats> stats() {
+        return ResponseEntity.ok(blobStore.stats());
+    }
+}
@@ -1,8 +1,13 @@
 package com.lis.versions.versions_backend.versiones.api;
 
+import com.lis.versions.versions_backend.versiones.repo.RollupArtefacto;
+import com.lis.versions.versions_backend.versiones.repo.RollupPublicacion;
+import com.lis.versions.versions_backend.versiones.repo.RollupVersion;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
+import java.util.List;
+
 public class Dtos {
     public static class RegistrarVersionRequest {
         @NotBlank public String cliente;
@@ -24,5 +29,33 @@ public class Dtos {
         public String uploadedUrl;
     }
 
+    /** Resultado de un elemento de un lote; {@code index} es su posición en el arreglo recibido. */
+    public record LoteItem(int index, String status, String id, String code, String message) {
+        public static LoteItem ok(int index, String id) { return new LoteItem(index, "CREATED", id, null, null); }
+        public static LoteItem error(int index, String code, String message) { return new LoteItem(index, "ERROR", null, code, message); }
+    }
+
+    public record LoteResultado(int total, int creados, int fallidos, List<LoteItem> items) {
+        public static LoteResultado of(List<LoteItem> items) {
+            int creados = (int) items.stream().filter(i -> "CREATED".equals(i.status())).count();
+            return new LoteResultado(items.size(), creados, items.size() - creados, items);
+        }
+    }
+
+    /**
+     * Página de resultados con la forma que espera el frontend. En modo keyset no se cuentan
+     * totales ({@code totalElements}/{@code totalPages} nulos) y se pide la siguiente con {@code nextCursor}.
+     */
+    public record Pagina<T>(List<T> content, Long totalElements, Integer totalPages, int size, Integer number,
+                            boolean first, boolean last, String nextCursor) {}
+
+    public record JobView(String id, String type, String status, String priority, Integer attempt,
+                          Long bytesDone, Long bytesTotal, Double percent,
+                          String outputJson, String errorMsg, String createdAt, String updatedAt) {}
+
     public record ApiError(String code, String message) {}
+
+    /** Agregados para los tableros: versiones por cliente/estado/mes, artefactos por tipo/rama y tiempos de publicación. */
+    public record Analytics(List<RollupVersion> versiones, List<RollupArtefacto> artefactos,
+                            List<RollupPublicacion> publicacion) {}
 }
@@ -0,0 +1,35 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.service.EventosHub;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Stream SSE de cambios de estado de versiones ({@code event: version}) y de jobs
+ * ({@code event: job}), opcionalmente filtrado por versión o cliente.
+ */
+@RestController
+@RequestMapping("/api/versiones")
+public class EventosController {
+
+    private final VersionService service;
+    private final EventosHub hub;
+
+    public EventosController(VersionService service, EventosHub hub) {
+        this.service = service;
+        this.hub = hub;
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(@RequestParam(required = false) String versionId,
+                              @RequestParam(required = false) String cliente) {
+        if (versionId != null && !versionId.isBlank()) service.obtener(versionId);
+        return hub.suscribir(blankToNull(versionId), blankToNull(cliente));
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+}
@@ -1,6 +1,8 @@
 package com.lis.versions.versions_backend.versiones.api;
 
 import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,7 +11,9 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import static com.lis.versions.versions_backend.versiones.api.Dtos.*;
 
-@ControllerAdvice
+// Antes que el handler genérico de common.api, que si no respondería 500 a toda ServiceException.
+@ControllerAdvice(name = "versionesExceptionHandler", basePackageClasses = VersionesController.class)
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
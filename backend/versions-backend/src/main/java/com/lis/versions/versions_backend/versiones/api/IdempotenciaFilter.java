@@ -0,0 +1,179 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lis.versions.versions_backend.versiones.api.Dtos.ApiError;
+import com.lis.versions.versions_backend.versiones.service.IdempotenciaService;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Aplica {@code Idempotency-Key} a todos los POST de {@code /api}: un reintento con la misma clave
+ * y la misma petición recibe la respuesta original (con {@code Idempotent-Replayed: true}) sin
+ * llegar al controlador. Ver {@link IdempotenciaService}.
+ *
+ * La huella incluye el SHA-256 del cuerpo, que se lee entero en memoria: con clave, un cuerpo de más
+ * de {@code versiones.idempotencia.cuerpo-max-bytes} se rechaza con 413 antes de leerlo completo.
+ */
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+
+    private final IdempotenciaService service;
+    private final ObjectMapper objectMapper;
+    private final int cuerpoMax;
+
+    public IdempotenciaFilter(IdempotenciaService service, ObjectMapper objectMapper,
+                              @Value("${versiones.idempotencia.cuerpo-max-bytes:1048576}") int cuerpoMax) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.cuerpoMax = Math.clamp(cuerpoMax, 0, Integer.MAX_VALUE - 8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clave = request.getHeader(HEADER);
+        byte[] cuerpo = request.getContentLengthLong() > cuerpoMax ? null
+                : request.getInputStream().readNBytes(cuerpoMax + 1);
+        if (cuerpo == null || cuerpo.length > cuerpoMax) {
+            error(response, new VersionService.ServiceException(413, "CUERPO_DEMASIADO_GRANDE",
+                    "Con " + HEADER + " el cuerpo no puede superar " + cuerpoMax + " bytes"));
+            return;
+        }
+        String huella = huella(request, cuerpo);
+        try {
+            var guardada = service.iniciar(clave, huella);
+            if (guardada.isPresent()) {
+                var r = guardada.get();
+                response.setStatus(r.status());
+                if (r.contentType() != null) response.setContentType(r.contentType());
+                response.setHeader("Idempotent-Replayed", "true");
+                if (r.cuerpo() != null) response.getOutputStream().write(r.cuerpo());
+                return;
+            }
+        } catch (VersionService.ServiceException e) {
+            error(response, e);
+            return;
+        }
+
+        var capturada = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new CuerpoLeido(request, cuerpo), capturada);
+        } catch (IOException | ServletException | RuntimeException e) {
+            service.abandonar(clave);
+            throw e;
+        }
+        service.completar(clave, huella, capturada.getStatus(), capturada.getContentType(),
+                capturada.getContentAsByteArray());
+        capturada.copyBodyToResponse();
+    }
+
+    private void error(HttpServletResponse response, VersionService.ServiceException e) throws IOException {
+        response.setStatus(e.http);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiError(e.code, e.getMessage()));
+    }
+
+    private static String huella(HttpServletRequest request, byte[] cuerpo) {
+        try {
+            var sha = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            String query = request.getQueryString();
+            return request.getMethod() + " " + request.getRequestURI() + (query != null ? "?" + query : "")
+                    + " " + HexFormat.of().formatHex(sha);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Request con el cuerpo ya leído para calcular la huella. */
+    private static final class CuerpoLeido extends HttpServletRequestWrapper {
+        private final byte[] cuerpo;
+
+        CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var in = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // El cuerpo ya está en memoria: todo está disponible de inmediato
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        if (isFinished()) listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            var encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos.AdjuntarArtefactoRequest;
+import com.lis.versions.versions_backend.versiones.repo.Subida;
+import com.lis.versions.versions_backend.versiones.service.SubidaService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Subida reanudable del binario de un artefacto ({@link SubidaService}):
+ * {@code POST} crea la subida con los metadatos y {@code sizeBytes}, cada {@code PUT} envía bytes
+ * en {@code application/octet-stream} desde {@code Upload-Offset}, y {@code GET} devuelve el offset
+ * confirmado para reanudar tras un corte. El último PUT crea el artefacto y responde 201.
+ */
+@RestController
+@RequestMapping("/api/versiones/{id}/subidas")
+public class SubidasController {
+    public static final String OFFSET = "Upload-Offset";
+
+    private final SubidaService service;
+
+    public SubidasController(SubidaService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public ResponseEntity<Subida> crear(@PathVariable("id") String id,
+                                        @Valid @RequestBody AdjuntarArtefactoRequest req,
+                                        @RequestHeader(value = "X-Actor", required = false) String actor) {
+        var s = service.crear(id, req, actor != null ? actor : "system");
+        return ResponseEntity.created(URI.create("/api/versiones/" + id + "/subidas/" + s.id()))
+                .header(OFFSET, "0")
+                .body(s);
+    }
+
+    @GetMapping("/{subidaId}")
+    public ResponseEntity<Subida> obtener(@PathVariable("id") String id, @PathVariable("subidaId") String subidaId) {
+        var s = service.obtener(id, subidaId);
+        return ResponseEntity.ok().header(OFFSET, String.valueOf(s.offsetConfirmado())).body(s);
+    }
+
+    @PutMapping(path = "/{subidaId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Subida> escribir(@PathVariable("id") String id,
+                                           @PathVariable("subidaId") String subidaId,
+                                           @RequestHeader(OFFSET) long offset,
+                                           HttpServletRequest request) throws IOException {
+        var s = service.escribir(id, subidaId, offset, request.getInputStream());
+        return ResponseEntity.status(s.completa() ? HttpStatus.CREATED : HttpStatus.OK)
+                .header(OFFSET, String.valueOf(s.offsetConfirmado()))
+                .body(s);
+    }
+}
@@ -1,31 +1,104 @@
 package com.lis.versions.versions_backend.versiones.api;
 
 import com.lis.versions.versions_backend.versiones.api.Dtos.AdjuntarArtefactoRequest;
+import com.lis.versions.versions_backend.versiones.api.Dtos.JobView;
+import com.lis.versions.versions_backend.versiones.api.Dtos.LoteResultado;
+import com.lis.versions.versions_backend.versiones.api.Dtos.Pagina;
 import com.lis.versions.versions_backend.versiones.api.Dtos.RegistrarVersionRequest;
 import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
 import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionResumen;
+import com.lis.versions.versions_backend.versiones.repo.ResultadoBusqueda;
+import com.lis.versions.versions_backend.versiones.repo.VersionSemver;
+import com.lis.versions.versions_backend.versiones.service.SelloService;
 import com.lis.versions.versions_backend.versiones.service.VersionService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/versiones")
 public class VersionesController {
 
     private final VersionService service;
+    private final SelloService selloService;
 
-    public VersionesController(VersionService service) {
+    public VersionesController(VersionService service, SelloService selloService) {
         this.service = service;
+        this.selloService = selloService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Pagina<VersionResumen>> listar(@RequestParam(required = false) String cliente,
+                                                         @RequestParam(required = false) String estado,
+                                                         @RequestParam(required = false) String responsable,
+                                                         @RequestParam(required = false) String fechaDesde,
+                                                         @RequestParam(required = false) String fechaHasta,
+                                                         @RequestParam(required = false) Integer page,
+                                                         @RequestParam(required = false) Integer size,
+                                                         @RequestParam(required = false) String sort,
+                                                         @RequestParam(required = false) String direction,
+                                                         @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(service.listar(cliente, estado, responsable, fechaDesde, fechaHasta,
+                page, size, sort, direction, cursor));
+    }
+
+    @GetMapping("/buscar")
+    public ResponseEntity<List<ResultadoBusqueda>> buscar(@RequestParam String q,
+                                                          @RequestParam(required = false) String cliente,
+                                                          @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.buscarTexto(q, cliente, limit));
+    }
+
+    @GetMapping("/semver/ultimas")
+    public ResponseEntity<List<VersionSemver>> ultimas(@RequestParam String cliente,
+                                                       @RequestParam String nombre,
+                                                       @RequestParam(required = false) String estado,
+                                                       @RequestParam(required = false) Integer n) {
+        return ResponseEntity.ok(service.ultimasVersiones(cliente, nombre, estado, n));
+    }
+
+    @GetMapping("/semver/rango")
+    public ResponseEntity<List<VersionSemver>> rango(@RequestParam String cliente,
+                                                     @RequestParam String nombre,
+                                                     @RequestParam String rango,
+                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.rangoVersiones(cliente, nombre, rango, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<VersionEntity> obtener(@PathVariable("id") String id) {
+        return ResponseEntity.ok(service.obtener(id));
+    }
+
+    @GetMapping("/{id}/anterior-publicada")
+    public ResponseEntity<VersionSemver> anteriorPublicada(@PathVariable("id") String id) {
+        return ResponseEntity.ok(service.anteriorPublicada(id));
+    }
+
+    @GetMapping("/{id}/artefactos")
+    public ResponseEntity<List<ArtefactoEntity>> artefactos(@PathVariable("id") String id) {
+        return ResponseEntity.ok(service.listarArtefactos(id));
     }
 
     @PostMapping
-    public ResponseEntity<VersionEntity> registrar(@Valid @RequestBody RegistrarVersionRequest req) {
-        var v = service.registrar(req);
+    public ResponseEntity<VersionEntity> registrar(@Valid @RequestBody RegistrarVersionRequest req,
+                                                   @RequestHeader(value = IdempotenciaFilter.HEADER, required = false) String idempotencyKey,
+                                                   @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
+        var v = service.registrar(req, idempotencyKey, correlationId);
         return ResponseEntity.status(HttpStatus.CREATED).body(v);
     }
 
+    @PostMapping("/lote")
+    public ResponseEntity<LoteResultado> registrarLote(@RequestBody List<RegistrarVersionRequest> reqs) {
+        var r = service.registrarLote(reqs);
+        return ResponseEntity.status(estadoLote(r)).body(r);
+    }
+
     @PostMapping("/{id}/artefactos")
     public ResponseEntity<ArtefactoEntity> adjuntar(@PathVariable("id") String id,
                                                     @Valid @RequestBody AdjuntarArtefactoRequest req,
@@ -34,6 +107,14 @@ public class VersionesController {
         return ResponseEntity.status(HttpStatus.CREATED).body(a);
     }
 
+    @PostMapping("/{id}/artefactos/lote")
+    public ResponseEntity<LoteResultado> adjuntarLote(@PathVariable("id") String id,
+                                                      @RequestBody List<AdjuntarArtefactoRequest> reqs,
+                                                      @RequestHeader(value = "X-Actor", required = false) String actor) {
+        var r = service.adjuntarArtefactosLote(id, reqs, actor != null ? actor : "system");
+        return ResponseEntity.status(estadoLote(r)).body(r);
+    }
+
     @PostMapping("/{id}/validar")
     public ResponseEntity<VersionEntity> validar(@PathVariable("id") String id,
                                                  @RequestHeader(value = "X-Actor", required = false) String actor) {
@@ -47,4 +128,36 @@ public class VersionesController {
         var v = service.publicar(id, actor != null ? actor : "system");
         return ResponseEntity.ok(v);
     }
+
+    @PostMapping("/{id}/sellar")
+    public ResponseEntity<VersionEntity> sellar(@PathVariable("id") String id,
+                                                @RequestHeader(value = "X-Actor", required = false) String actor)
+            throws IOException, InterruptedException {
+        var v = selloService.sellar(id, actor != null ? actor : "system");
+        return ResponseEntity.ok(v);
+    }
+
+    @GetMapping("/{id}/sello")
+    public ResponseEntity<SelloService.Manifiesto> sello(@PathVariable("id") String id) {
+        return ResponseEntity.ok(selloService.manifiesto(id));
+    }
+
+    @PostMapping("/{id}/sello/verificar")
+    public ResponseEntity<SelloService.Verificacion> verificarSello(@PathVariable("id") String id,
+                                                                    @RequestParam(defaultValue = "INCREMENTAL") SelloService.Modo modo,
+                                                                    @RequestParam(defaultValue = "false") boolean detener)
+            throws IOException, InterruptedException {
+        return ResponseEntity.ok(selloService.verificar(id, modo, detener));
+    }
+
+    @GetMapping("/{id}/jobs")
+    public ResponseEntity<List<JobView>> jobs(@PathVariable("id") String id) {
+        return ResponseEntity.ok(service.listarJobs(id));
+    }
+
+    // 201 si se creó todo, 207 si hubo fallos parciales, 422 si no se creó nada.
+    private static HttpStatus estadoLote(LoteResultado r) {
+        if (r.fallidos() == 0) return HttpStatus.CREATED;
+        return r.creados() > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.UNPROCESSABLE_ENTITY;
+    }
 }
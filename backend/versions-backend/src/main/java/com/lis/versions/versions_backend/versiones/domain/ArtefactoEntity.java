@@ -26,7 +26,7 @@ public class ArtefactoEntity {
     @Column(name = "ruta_destino")
     private String rutaDestino;
 
-    @Column(name = "size_bytes")
+    @Column(name = "size_bytes", columnDefinition = "INTEGER")
     private Long sizeBytes;
 
     @Column
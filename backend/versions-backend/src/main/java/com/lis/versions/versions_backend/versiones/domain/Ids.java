@@ -0,0 +1,41 @@
+package com.lis.versions.versions_backend.versiones.domain;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids de fila UUIDv7 (RFC 9562): los 48 bits altos son el epoch en milisegundos, así los ids nuevos
+ * caen al final de los índices de {@code id} y de las FK en lugar de repartirse por todo el B-tree
+ * como un UUIDv4. Se guardan como el mismo texto de 36 caracteres, compatibles con los ids v4 ya
+ * existentes y con la API.
+ *
+ * Dentro del proceso son monótonos: en un mismo milisegundo los 12 bits de {@code rand_a} hacen de
+ * contador (y si se agota se toma el milisegundo siguiente), de modo que el orden del texto
+ * coincide con el de creación.
+ */
+public final class Ids {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    /** Último {@code ms << 12 | contador} emitido. */
+    private static final AtomicLong ULTIMO = new AtomicLong();
+
+    private Ids() { }
+
+    public static String nuevo() {
+        return uuid7(System.currentTimeMillis()).toString();
+    }
+
+    static UUID uuid7(long ahoraMs) {
+        long base = ahoraMs << 12;
+        long t = ULTIMO.updateAndGet(prev -> Math.max(prev + 1, base));
+        long msb = (t >>> 12) << 16 | 0x7000L | (t & 0xFFFL);
+        long lsb = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /** Milisegundos embebidos en un id v7; {@code -1} si el id no es v7. */
+    public static long epochMs(String id) {
+        UUID u = UUID.fromString(id);
+        return u.version() == 7 ? u.getMostSignificantBits() >>> 16 : -1;
+    }
+}
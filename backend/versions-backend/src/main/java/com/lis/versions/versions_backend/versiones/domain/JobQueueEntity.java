@@ -41,6 +41,18 @@ public class JobQueueEntity {
     @Column(name = "updated_at", nullable = false)
     private String updatedAt;
 
+    @Column(name = "owner_node")
+    private String ownerNode;
+
+    @Column(name = "lease_until")
+    private String leaseUntil;
+
+    @Column(name = "heartbeat_at")
+    private String heartbeatAt;
+
+    @Column(name = "next_attempt_at")
+    private String nextAttemptAt;
+
     public JobQueueEntity() {}
 
     public JobQueueEntity(String id, String versionId, String type, String jobKey, String payloadJson, String status, String priority, Integer attempt, String outputJson, String errorMsg, String createdAt, String updatedAt) {
@@ -82,4 +94,12 @@ public class JobQueueEntity {
     public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
     public String getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+    public String getOwnerNode() { return ownerNode; }
+    public void setOwnerNode(String ownerNode) { this.ownerNode = ownerNode; }
+    public String getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(String leaseUntil) { this.leaseUntil = leaseUntil; }
+    public String getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(String heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+    public String getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(String nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
 }
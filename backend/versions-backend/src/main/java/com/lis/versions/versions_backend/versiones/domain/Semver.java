@@ -0,0 +1,83 @@
+package com.lis.versions.versions_backend.versiones.domain;
+
+import java.util.regex.Pattern;
+
+/**
+ * Clave de orden para {@code numero_version}: un texto que, comparado byte a byte (la colación
+ * BINARY de SQLite), respeta la precedencia de Semantic Versioning 2.0.
+ *
+ * Cada número va precedido de su cantidad de dígitos ({@code 10} → {@code "210"}), así 1.10.0 queda
+ * después de 1.9.0. Una pre-release ({@code -} + identificadores) ordena antes que la release
+ * ({@code ~}); los identificadores numéricos ({@code 0}…) antes que los alfanuméricos ({@code 1}…).
+ * Se aceptan una {@code v} inicial y menor/parche omitidos (1.4 = 1.4.0); el build ({@code +...})
+ * no participa. Lo que no sea semver no tiene clave.
+ */
+public final class Semver {
+    private static final String NUM = "(0|[1-9]\\d{0,8})";
+    private static final String IDS = "[0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*";
+    private static final Pattern SEMVER = Pattern.compile(
+            "[vV]?" + NUM + "(?:\\." + NUM + ")?(?:\\." + NUM + ")?(?:-(" + IDS + "))?(?:\\+" + IDS + ")?");
+    private static final Pattern NUMERICO = Pattern.compile("0|[1-9]\\d{0,8}");
+
+    private Semver() { }
+
+    /** Clave de orden, o {@code null} si {@code numeroVersion} no es semver. */
+    public static String clave(String numeroVersion) {
+        if (numeroVersion == null) return null;
+        var m = SEMVER.matcher(numeroVersion.strip());
+        if (!m.matches()) return null;
+        var sb = new StringBuilder(24);
+        numero(sb, m.group(1));
+        sb.append('.');
+        numero(sb, m.group(2) != null ? m.group(2) : "0");
+        sb.append('.');
+        numero(sb, m.group(3) != null ? m.group(3) : "0");
+        if (m.group(4) == null) return sb.append('~').toString();
+        sb.append('-');
+        String[] ids = m.group(4).split("\\.");
+        for (int i = 0; i < ids.length; i++) {
+            // ' ' ordena antes que cualquier carácter de un identificador: 1.0.0-a < 1.0.0-a.b
+            if (i > 0) sb.append(' ');
+            if (NUMERICO.matcher(ids[i]).matches()) {
+                sb.append('0');
+                numero(sb, ids[i]);
+            } else {
+                sb.append('1').append(ids[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void numero(StringBuilder sb, String digitos) {
+        sb.append((char) ('0' + digitos.length())).append(digitos);
+    }
+
+    /** Intervalo de claves; un extremo nulo no acota. */
+    public record Rango(String desde, boolean desdeIncluido, String hasta, boolean hastaIncluido) {}
+
+    /**
+     * Interpreta comparadores separados por espacios ({@code >=1.4 <2.0}, {@code =1.2.3},
+     * {@code 1.2.3}). Devuelve {@code null} si alguno no es válido.
+     */
+    public static Rango rango(String expresion) {
+        if (expresion == null || expresion.isBlank()) return null;
+        String desde = null, hasta = null;
+        boolean desdeIncl = false, hastaIncl = false;
+        for (String c : expresion.strip().split("\\s+")) {
+            String op;
+            if (c.startsWith(">=") || c.startsWith("<=")) op = c.substring(0, 2);
+            else if (c.startsWith(">") || c.startsWith("<") || c.startsWith("=")) op = c.substring(0, 1);
+            else op = "";
+            String clave = clave(c.substring(op.length()));
+            if (clave == null) return null;
+            switch (op) {
+                case ">=" -> { desde = clave; desdeIncl = true; }
+                case ">" -> { desde = clave; desdeIncl = false; }
+                case "<=" -> { hasta = clave; hastaIncl = true; }
+                case "<" -> { hasta = clave; hastaIncl = false; }
+                default -> { desde = clave; hasta = clave; desdeIncl = true; hastaIncl = true; }
+            }
+        }
+        return new Rango(desde, desdeIncl, hasta, hastaIncl);
+    }
+}
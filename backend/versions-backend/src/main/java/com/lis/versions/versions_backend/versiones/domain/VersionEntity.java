@@ -20,6 +20,10 @@ public class VersionEntity {
     @Column(name = "build_yyyymmdd", nullable = false)
     private String buildYyyymmdd;
 
+    // Ver Semver; se deriva de numeroVersion al insertar
+    @Column(name = "semver_key")
+    private String semverKey;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private VersionEstado estado;
@@ -27,6 +31,12 @@ public class VersionEntity {
     @Column(nullable = false)
     private String responsable;
 
+    @Column(name = "correlation_id")
+    private String correlationId;
+
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
     private String branch;
 
     @Column(name = "release_notes_path")
@@ -56,6 +66,11 @@ public class VersionEntity {
         this.actualizadoEn = actualizadoEn;
     }
 
+    @PrePersist
+    void calcularSemverKey() {
+        this.semverKey = Semver.clave(numeroVersion);
+    }
+
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -67,10 +82,16 @@ public class VersionEntity {
     public void setNumeroVersion(String numeroVersion) { this.numeroVersion = numeroVersion; }
     public String getBuildYyyymmdd() { return buildYyyymmdd; }
     public void setBuildYyyymmdd(String buildYyyymmdd) { this.buildYyyymmdd = buildYyyymmdd; }
+    public String getSemverKey() { return semverKey; }
+    public void setSemverKey(String semverKey) { this.semverKey = semverKey; }
     public VersionEstado getEstado() { return estado; }
     public void setEstado(VersionEstado estado) { this.estado = estado; }
     public String getResponsable() { return responsable; }
     public void setResponsable(String responsable) { this.responsable = responsable; }
+    public String getCorrelationId() { return correlationId; }
+    public void setCorrelationId(String correlationId) { this.correlationId = correlationId; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
     public String getBranch() { return branch; }
     public void setBranch(String branch) { this.branch = branch; }
     public String getReleaseNotesPath() { return releaseNotesPath; }
@@ -0,0 +1,6 @@
+package com.lis.versions.versions_backend.versiones.domain;
+
+/** Proyección liviana de {@code version} para listados. */
+public record VersionResumen(String id, String cliente, String nombre, String numeroVersion, String buildYyyymmdd,
+                             VersionEstado estado, String responsable, String branch,
+                             String creadoEn, String actualizadoEn) {}
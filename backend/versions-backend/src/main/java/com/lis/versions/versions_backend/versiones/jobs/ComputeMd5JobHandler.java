@@ -0,0 +1,80 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.lis.versions.versions_backend.versiones.repo.JobQueueRepository;
+import com.lis.versions.versions_backend.versiones.service.ArtefactoFiles;
+import com.lis.versions.versions_backend.versiones.service.ArtefactoHashService;
+import com.lis.versions.versions_backend.versiones.service.ArtefactoHashService.HashResult;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Corre después de COPY_ARTIFACTS: los artefactos cuyo MD5 ya calculó la copia en su misma pasada
+ * (y verificó contra el declarado) se toman de la salida de esa dependencia sin volver a leerlos.
+ */
+@Component
+public class ComputeMd5JobHandler implements JobHandler {
+
+    private final ArtefactoHashService hashService;
+    private final JobQueueRepository jobQueueRepository;
+    private final ObjectMapper objectMapper;
+
+    public ComputeMd5JobHandler(ArtefactoHashService hashService, JobQueueRepository jobQueueRepository,
+                                ObjectMapper objectMapper) {
+        this.hashService = hashService;
+        this.jobQueueRepository = jobQueueRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String type() {
+        return "COMPUTE_MD5";
+    }
+
+    @Override
+    public Map<String, Object> handle(JobQueueEntity job) throws Exception {
+        long t0 = System.nanoTime();
+        Set<String> deLaCopia = md5DeLaCopia(job);
+        List<HashResult> results = hashService.hashVersion(job.getVersionId(), deLaCopia);
+        long nanos = System.nanoTime() - t0;
+
+        var mismatches = results.stream().filter(r -> !r.coincide()).map(HashResult::artefactoId).toList();
+        if (!mismatches.isEmpty()) {
+            throw new VersionService.ServiceException(422, "MD5_NO_COINCIDE",
+                    "MD5 declarado no coincide con el archivo en artefactos " + mismatches);
+        }
+
+        long totalBytes = results.stream().mapToLong(HashResult::sizeBytes).sum();
+        var out = new LinkedHashMap<String, Object>();
+        out.put("artefactos", results.stream().map(r -> Map.of(
+                "id", r.artefactoId(),
+                "md5", r.md5(),
+                "sizeBytes", r.sizeBytes(),
+                "mbPorSegundo", r.mbPorSegundo())).toList());
+        out.put("deLaCopia", deLaCopia.size());
+        out.put("totalBytes", totalBytes);
+        out.put("millis", nanos / 1_000_000);
+        out.put("mbPorSegundo", ArtefactoFiles.mbPorSegundo(totalBytes, nanos));
+        return out;
+    }
+
+    private Set<String> md5DeLaCopia(JobQueueEntity job) throws IOException {
+        Set<String> ids = new HashSet<>();
+        for (JobQueueEntity padre : jobQueueRepository.dependencias(job.getId())) {
+            if (!"COPY_ARTIFACTS".equals(padre.getType()) || padre.getOutputJson() == null) continue;
+            for (JsonNode a : objectMapper.readTree(padre.getOutputJson()).path("artefactos")) {
+                if (a.hasNonNull("md5")) ids.add(a.get("id").asText());
+            }
+        }
+        return ids;
+    }
+}
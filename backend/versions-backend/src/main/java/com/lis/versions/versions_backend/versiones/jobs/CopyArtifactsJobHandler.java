@@ -0,0 +1,68 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.lis.versions.versions_backend.versiones.service.ArtefactoCopyService;
+import com.lis.versions.versions_backend.versiones.service.ArtefactoCopyService.CopyResult;
+import com.lis.versions.versions_backend.versiones.service.ArtefactoFiles;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class CopyArtifactsJobHandler implements JobHandler {
+
+    private final ArtefactoCopyService copyService;
+    private final JobProgress progress;
+
+    public CopyArtifactsJobHandler(ArtefactoCopyService copyService, JobProgress progress) {
+        this.copyService = copyService;
+        this.progress = progress;
+    }
+
+    @Override
+    public String type() {
+        return "COPY_ARTIFACTS";
+    }
+
+    @Override
+    public Map<String, Object> handle(JobQueueEntity job) throws Exception {
+        long t0 = System.nanoTime();
+        var plan = copyService.plan(job.getVersionId());
+        progress.start(job.getId(), plan.totalBytes());
+        List<CopyResult> results;
+        try {
+            results = copyService.copy(plan, n -> progress.advance(job.getId(), n));
+        } finally {
+            progress.finish(job.getId());
+        }
+        long nanos = System.nanoTime() - t0;
+
+        var mismatches = results.stream().filter(r -> !r.coincide()).map(CopyResult::artefactoId).toList();
+        if (!mismatches.isEmpty()) {
+            throw new VersionService.ServiceException(422, "MD5_NO_COINCIDE",
+                    "MD5 declarado no coincide con el archivo copiado en artefactos " + mismatches);
+        }
+
+        var out = new LinkedHashMap<String, Object>();
+        out.put("artefactos", results.stream().map(r -> {
+            var m = new LinkedHashMap<String, Object>();
+            m.put("id", r.artefactoId());
+            m.put("destino", r.destino().toString());
+            m.put("bytes", r.bytes());
+            m.put("md5", r.md5());
+            if (r.blob() != null) {
+                m.put("blob", r.blob());
+                m.put("reutilizado", r.reutilizado());
+            }
+            m.put("mbPorSegundo", r.mbPorSegundo());
+            return m;
+        }).toList());
+        out.put("totalBytes", plan.totalBytes());
+        out.put("millis", nanos / 1_000_000);
+        out.put("mbPorSegundo", ArtefactoFiles.mbPorSegundo(plan.totalBytes(), nanos));
+        return out;
+    }
+}
@@ -0,0 +1,70 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.lis.versions.versions_backend.versiones.repo.BusquedaRepository;
+import com.lis.versions.versions_backend.versiones.service.OutboxRenderer;
+import com.lis.versions.versions_backend.versiones.service.OutboxWriter;
+import com.lis.versions.versions_backend.versiones.service.VersionCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Escribe {@code pub_<id>.eml} y {@code release-notes_<id>.md} en {@code versiones.outbox.dir} e
+ * indexa las release notes. Lo encola {@code publicar} en su transacción, así los archivos se
+ * generan siempre y solo después del commit.
+ */
+@Component
+public class GenOutboxJobHandler implements JobHandler {
+
+    private final VersionCache cache;
+    private final OutboxRenderer renderer;
+    private final OutboxWriter writer;
+    private final BusquedaRepository busquedaRepository;
+    private final Path outbox;
+
+    public GenOutboxJobHandler(VersionCache cache,
+                               OutboxRenderer renderer,
+                               OutboxWriter writer,
+                               BusquedaRepository busquedaRepository,
+                               @Value("${versiones.outbox.dir:data/outbox}") String outbox) {
+        this.cache = cache;
+        this.renderer = renderer;
+        this.writer = writer;
+        this.busquedaRepository = busquedaRepository;
+        this.outbox = Path.of(outbox);
+    }
+
+    @Override
+    public String type() {
+        return "GEN_OUTBOX";
+    }
+
+    @Override
+    public Map<String, Object> handle(JobQueueEntity job) throws Exception {
+        long t0 = System.nanoTime();
+        var v = cache.version(job.getVersionId())
+                .orElseThrow(() -> new IllegalStateException("Versión no encontrada: " + job.getVersionId()));
+        var r = renderer.render("outbox", v);
+        Path eml = outbox.resolve("pub_" + v.getId() + ".eml");
+        Path md = outbox.resolve("release-notes_" + v.getId() + ".md");
+        long bytes;
+        try {
+            bytes = writer.escribir(Map.of(eml, r.eml(), md, r.releaseNotes())).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        busquedaRepository.indexarReleaseNotes(v.getId(), r.releaseNotes());
+
+        var out = new LinkedHashMap<String, Object>();
+        out.put("eml", eml.toString());
+        out.put("releaseNotes", md.toString());
+        out.put("bytes", bytes);
+        out.put("millis", (System.nanoTime() - t0) / 1_000_000);
+        return out;
+    }
+}
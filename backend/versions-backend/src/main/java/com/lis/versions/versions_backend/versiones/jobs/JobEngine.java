@@ -0,0 +1,371 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lis.versions.versions_backend.common.db.ShardContext;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.lis.versions.versions_backend.versiones.repo.JobQueueRepository;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de ejecución de {@code job_queue}: N workers en hilos virtuales que reclaman filas
+ * PENDING con {@link JobQueueRepository#claimNext}, las ejecutan con el {@link JobHandler}
+ * de su tipo y registran OK/ERROR. Los tipos sin handler quedan PENDING. Un handler que falla se
+ * reintenta con el backoff de los leases vencidos hasta {@code max-intentos}.
+ *
+ * Métricas: {@code versiones.jobs.queue.latency} (encolado → inicio),
+ * {@code versiones.jobs.execution} (por tipo y resultado; su tasa es el throughput)
+ * y el gauge {@code versiones.jobs.pending}. Cada cambio de estado se publica como
+ * {@link JobStatusEvent}.
+ *
+ * Varios nodos pueden compartir la base: cada job reclamado queda a nombre de
+ * {@code versiones.jobs.nodo} con un lease de {@code lease-ms} que el nodo renueva cada
+ * {@code heartbeat-ms}. Cada nodo revisa además los leases vencidos de cualquier nodo: el job
+ * vuelve a PENDING con backoff exponencial según {@code attempt}, o pasa a DEAD al llegar a
+ * {@code max-intentos}. Un nodo que perdió el lease no puede registrar el resultado.
+ *
+ * Un job con dependencias ({@code job_dependencia}) solo se reclama cuando todas terminaron OK; al
+ * terminar un job se despierta a los workers para tomar sus dependientes sin esperar al sondeo, y
+ * si falla de forma definitiva sus dependientes pasan a ERROR. {@code versiones.jobs.pipeline} mide
+ * la publicación completa de una versión.
+ *
+ * Con un archivo por cliente cada shard tiene su {@code job_queue}: los workers recorren los shards
+ * empezando cada vez por uno distinto y ejecutan el job con su shard fijado; el heartbeat y el
+ * reaper pasan por todos.
+ */
+@Component
+public class JobEngine implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(JobEngine.class);
+    private static final int ERROR_MSG_MAX = 1000;
+
+    private final JobQueueRepository jobQueueRepository;
+    private final Shards shards;
+    private final Map<String, JobHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final int workers;
+    private final long pollIntervalMs;
+    private final String nodo;
+    private final Duration lease;
+    private final long heartbeatMs;
+    private final int maxIntentos;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger turno = new AtomicInteger();
+    private final Counter leasesVencidos;
+    private final Timer pipeline;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public JobEngine(JobQueueRepository jobQueueRepository,
+                     Shards shards,
+                     List<JobHandler> handlers,
+                     ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry,
+                     ApplicationEventPublisher events,
+                     @Value("${versiones.jobs.enabled:true}") boolean enabled,
+                     @Value("${versiones.jobs.workers:4}") int workers,
+                     @Value("${versiones.jobs.poll-interval-ms:500}") long pollIntervalMs,
+                     @Value("${versiones.jobs.nodo:}") String nodo,
+                     @Value("${versiones.jobs.lease-ms:60000}") long leaseMs,
+                     @Value("${versiones.jobs.heartbeat-ms:15000}") long heartbeatMs,
+                     @Value("${versiones.jobs.max-intentos:5}") int maxIntentos,
+                     @Value("${versiones.jobs.backoff-base-ms:1000}") long backoffBaseMs,
+                     @Value("${versiones.jobs.backoff-max-ms:300000}") long backoffMaxMs) {
+        this.jobQueueRepository = jobQueueRepository;
+        this.shards = shards;
+        this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::type, Function.identity()));
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.events = events;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.pollIntervalMs = pollIntervalMs;
+        this.nodo = nodo.isBlank() ? nodoPorDefecto() : nodo;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.heartbeatMs = heartbeatMs;
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.leasesVencidos = Counter.builder("versiones.jobs.leases.vencidos")
+                .description("Jobs liberados por lease vencido")
+                .register(meterRegistry);
+        this.pipeline = Timer.builder("versiones.jobs.pipeline")
+                .description("Desde el primer job encolado de una versión hasta que terminan todos OK")
+                .register(meterRegistry);
+        Gauge.builder("versiones.jobs.pending", jobQueueRepository, r -> shards.sumar(() -> r.countByStatus("PENDING")))
+                .description("Jobs en estado PENDING")
+                .register(meterRegistry);
+    }
+
+    private static String now() {
+        return ts(LocalDateTime.now());
+    }
+
+    private static String ts(LocalDateTime t) {
+        return t.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    // host:pid no sobrevive a un reinicio; para recuperar al arrancar los jobs propios, fijar versiones.jobs.nodo
+    private static String nodoPorDefecto() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+
+    public String nodo() {
+        return nodo;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) return;
+        int recovered = shards.enCada(() -> jobQueueRepository.requeueRunning(nodo, now())).stream().mapToInt(Integer::intValue).sum();
+        if (recovered > 0) log.warn("{} jobs RUNNING de una ejecución anterior devueltos a PENDING", recovered);
+        running = true;
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-worker-", 0).factory());
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::workerLoop);
+        }
+        executor.submit(this::leaseLoop);
+        log.info("Motor de jobs iniciado: nodo={}, workers={}, tipos={}", nodo, workers, handlers.keySet());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        wakeUp.release(workers);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobsEnqueued(JobsEnqueuedEvent event) {
+        if (wakeUp.availablePermits() < workers) wakeUp.release(workers);
+    }
+
+    private void workerLoop() {
+        while (running) {
+            try {
+                Optional<Reclamado> job = claim();
+                if (job.isPresent()) {
+                    ShardContext.en(job.get().shard(), () -> execute(job.get().job()));
+                } else {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Error en worker de jobs: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Heartbeat de los jobs propios y reaper de leases vencidos, cada {@code heartbeat-ms}. */
+    private void leaseLoop() {
+        while (running) {
+            try {
+                Thread.sleep(heartbeatMs);
+                if (enCurso.get() > 0) {
+                    var ahora = LocalDateTime.now();
+                    shards.enCada(() -> jobQueueRepository.renewLeases(nodo, ts(ahora.plus(lease)), ts(ahora)));
+                }
+                liberarVencidos();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Error renovando o revisando leases: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Devuelve a PENDING (con backoff) o pasa a DEAD los jobs con el lease vencido. */
+    int liberarVencidos() {
+        int liberados = shards.enCada(this::liberarVencidosShard).stream().mapToInt(Integer::intValue).sum();
+        if (liberados > 0) wakeUp.release(workers);
+        return liberados;
+    }
+
+    private int liberarVencidosShard() {
+        var ahora = LocalDateTime.now();
+        int liberados = 0;
+        for (JobQueueEntity j : jobQueueRepository.expiredLeases(ts(ahora), 100)) {
+            int intento = j.getAttempt() == null ? 0 : j.getAttempt();
+            String siguiente = intento >= maxIntentos ? null : ts(ahora.plus(backoff(intento)));
+            String motivo = "Lease vencido del nodo " + j.getOwnerNode() + " en intento " + intento;
+            if (!jobQueueRepository.releaseExpired(j.getId(), siguiente, motivo, ts(ahora))) continue;
+            liberados++;
+            leasesVencidos.increment();
+            log.warn("{}: job {} ({}) {}", motivo, j.getId(), j.getType(), siguiente == null ? "pasa a DEAD" : "reintento desde " + siguiente);
+            publicar(j, siguiente == null ? "DEAD" : "PENDING", ts(ahora));
+            if (siguiente == null) cancelarDependientes(j, ts(ahora));
+        }
+        return liberados;
+    }
+
+    /** {@code backoff-base-ms * 2^(intento-1)}, hasta {@code backoff-max-ms}. */
+    Duration backoff(int intento) {
+        long ms = backoffBaseMs << Math.min(Math.max(intento - 1, 0), 30);
+        return Duration.ofMillis(ms <= 0 ? backoffMaxMs : Math.min(ms, backoffMaxMs));
+    }
+
+    private record Reclamado(String shard, JobQueueEntity job) {}
+
+    private Optional<Reclamado> claim() {
+        var claves = shards.claves();
+        int inicio = Math.floorMod(turno.getAndIncrement(), claves.size());
+        for (int i = 0; i < claves.size(); i++) {
+            String shard = claves.get((inicio + i) % claves.size());
+            var ahora = LocalDateTime.now();
+            var job = ShardContext.en(shard, () -> jobQueueRepository.claimNext(handlers.keySet(), ts(ahora), nodo, ts(ahora.plus(lease))));
+            if (job.isPresent()) {
+                publicar(job.get(), "RUNNING", job.get().getUpdatedAt());
+                return Optional.of(new Reclamado(shard, job.get()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void publicar(JobQueueEntity job, String status, String ts) {
+        events.publishEvent(new JobStatusEvent(job.getId(), job.getVersionId(), job.getType(), status, job.getAttempt(), ts));
+    }
+
+    private void execute(JobQueueEntity job) {
+        LocalDateTime started = LocalDateTime.now();
+        Timer.builder("versiones.jobs.queue.latency")
+                .tag("type", job.getType())
+                .register(meterRegistry)
+                .record(Duration.between(LocalDateTime.parse(job.getCreatedAt()), started));
+
+        String outcome = "OK";
+        long t0 = System.nanoTime();
+        enCurso.incrementAndGet();
+        try {
+            Map<String, Object> output = handlers.get(job.getType()).handle(job);
+            String ts = now();
+            if (jobQueueRepository.complete(job.getId(), nodo, "OK", objectMapper.writeValueAsString(output), null, ts)) {
+                publicar(job, "OK", ts);
+                liberarDependientes(job);
+            } else {
+                outcome = "LEASE_PERDIDO";
+                log.warn("Job {} ({}) terminó sin lease; el resultado se descarta", job.getId(), job.getType());
+            }
+        } catch (Exception e) {
+            outcome = "ERROR";
+            fallo(job, e);
+        } finally {
+            enCurso.decrementAndGet();
+            Timer.builder("versiones.jobs.execution")
+                    .tag("type", job.getType())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Un fallo del handler se reintenta con el mismo backoff que un lease vencido mientras
+     * {@code attempt} no llegue a {@code max-intentos}; después el job queda en ERROR y sus
+     * dependientes se cancelan. Una {@link VersionService.ServiceException} 4xx (ruta inválida, MD5 que
+     * no coincide con el declarado) no cambia al reintentar y va directo a ERROR.
+     */
+    private void fallo(JobQueueEntity job, Exception e) {
+        int intento = job.getAttempt() == null ? 0 : job.getAttempt();
+        String msg = truncate(String.valueOf(e.getMessage()));
+        var ahora = LocalDateTime.now();
+        String ts = ts(ahora);
+        boolean definitivo = intento >= maxIntentos
+                || e instanceof VersionService.ServiceException se && se.http >= 400 && se.http < 500;
+        if (!definitivo) {
+            String siguiente = ts(ahora.plus(backoff(intento)));
+            log.warn("Job {} ({}) falló en intento {}; reintento desde {}: {}", job.getId(), job.getType(), intento, siguiente, msg);
+            if (jobQueueRepository.reintentar(job.getId(), nodo, siguiente, msg, ts)) publicar(job, "PENDING", ts);
+            return;
+        }
+        log.warn("Job {} ({}) falló en intento {}: {}", job.getId(), job.getType(), intento, msg);
+        if (jobQueueRepository.complete(job.getId(), nodo, "ERROR", null, msg, ts)) {
+            publicar(job, "ERROR", ts);
+            cancelarDependientes(job, ts);
+        }
+    }
+
+    /**
+     * Los dependientes que quedaron listos se reclaman ya: se despierta a los workers sin esperar
+     * al sondeo. Si era el último job de la versión se registra la duración total del pipeline.
+     */
+    private void liberarDependientes(JobQueueEntity job) {
+        int dependientes = jobQueueRepository.contarDependientes(job.getId());
+        if (dependientes > 0) {
+            wakeUp.release(Math.min(dependientes, workers));
+            return;
+        }
+        jobQueueRepository.inicioSiTerminada(job.getVersionId()).ifPresent(inicio -> pipeline
+                .record(Duration.between(LocalDateTime.parse(inicio), LocalDateTime.now())));
+    }
+
+    private void cancelarDependientes(JobQueueEntity job, String ts) {
+        for (JobQueueEntity d : jobQueueRepository.cancelarDependientes(job.getId(),
+                "Dependencia " + job.getType() + " (" + job.getId() + ") no terminó OK", ts)) {
+            publicar(d, "ERROR", ts);
+        }
+    }
+
+    private static String truncate(String msg) {
+        return msg.length() <= ERROR_MSG_MAX ? msg : msg.substring(0, ERROR_MSG_MAX);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+
+import java.util.Map;
+
+/**
+ * Implementación de un tipo de job de {@code job_queue}. Lo devuelto se serializa en
+ * {@code output_json}; una excepción devuelve el job a PENDING con backoff, o lo deja en ERROR con su
+ * mensaje al llegar a {@code versiones.jobs.max-intentos} (ver {@link JobEngine}).
+ */
+public interface JobHandler {
+
+    /** Valor de {@code job_queue.type} que atiende (COPY_ARTIFACTS, COMPUTE_MD5, ...). */
+    String type();
+
+    Map<String, Object> handle(JobQueueEntity job) throws Exception;
+}
@@ -0,0 +1,45 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Avance en vivo (bytes hechos / total) de los jobs RUNNING de este proceso. */
+@Component
+public class JobProgress {
+
+    public record Snapshot(long done, long total) {
+        public double percent() {
+            return total <= 0 ? 0 : Math.round(done * 10000.0 / total) / 100.0;
+        }
+    }
+
+    private static final class Counter {
+        final AtomicLong done = new AtomicLong();
+        final AtomicLong total = new AtomicLong();
+    }
+
+    private final Map<String, Counter> jobs = new ConcurrentHashMap<>();
+
+    public void start(String jobId, long total) {
+        var c = new Counter();
+        c.total.set(total);
+        jobs.put(jobId, c);
+    }
+
+    public void advance(String jobId, long bytes) {
+        var c = jobs.get(jobId);
+        if (c != null) c.done.addAndGet(bytes);
+    }
+
+    public void finish(String jobId) {
+        jobs.remove(jobId);
+    }
+
+    public Optional<Snapshot> get(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(c -> new Snapshot(c.done.get(), c.total.get()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.repo.JobConteo;
+import com.lis.versions.versions_backend.versiones.repo.JobQueueRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gauge {@code versiones.jobs.queue.depth} con la cantidad de filas de {@code job_queue} por
+ * {@code status} y {@code type}. Se recalcula con un único GROUP BY (por shard, sumados) cada
+ * {@code versiones.jobs.metrics-refresh-ms}, no en cada scrape.
+ */
+@Component
+public class JobQueueMetrics {
+
+    private final JobQueueRepository jobQueueRepository;
+    private final Shards shards;
+    private final MultiGauge depth;
+
+    public JobQueueMetrics(JobQueueRepository jobQueueRepository, Shards shards, MeterRegistry meterRegistry) {
+        this.jobQueueRepository = jobQueueRepository;
+        this.shards = shards;
+        this.depth = MultiGauge.builder("versiones.jobs.queue.depth")
+                .description("Jobs en job_queue por status y type")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${versiones.jobs.metrics-refresh-ms:15000}")
+    public void refresh() {
+        Map<List<String>, Long> total = new LinkedHashMap<>();
+        for (List<JobConteo> conteos : shards.enCada(jobQueueRepository::contarPorStatusYTipo)) {
+            for (JobConteo c : conteos) total.merge(List.of(c.status(), c.type()), c.cantidad(), Long::sum);
+        }
+        depth.register(total.entrySet().stream()
+                .map(e -> MultiGauge.Row.of(Tags.of("status", e.getKey().get(0), "type", e.getKey().get(1)), e.getValue()))
+                .toList(), true);
+    }
+}
@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+/** Cambio de estado de un job (PENDING al encolar, RUNNING al reclamarlo, OK/ERROR al terminar). */
+public record JobStatusEvent(String jobId, String versionId, String type, String status, Integer attempt, String ts) {}
@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+/** Publicado al encolar jobs; tras el commit despierta a los workers sin esperar al siguiente sondeo. */
+public record JobsEnqueuedEvent(String versionId) {}
@@ -0,0 +1,53 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.lis.versions.versions_backend.versiones.repo.BorradorRepository;
+import com.lis.versions.versions_backend.versiones.service.EvidenciaPackager;
+import com.lis.versions.versions_backend.versiones.service.EvidenciaPackager.Resultado;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Genera el ZIP de evidencia y lo asocia a los borradores de la versión ({@code evidence_zip_path}). */
+@Component
+public class PackageEvidenceJobHandler implements JobHandler {
+
+    private final EvidenciaPackager packager;
+    private final BorradorRepository borradorRepository;
+    private final JobProgress progress;
+
+    public PackageEvidenceJobHandler(EvidenciaPackager packager, BorradorRepository borradorRepository, JobProgress progress) {
+        this.packager = packager;
+        this.borradorRepository = borradorRepository;
+        this.progress = progress;
+    }
+
+    @Override
+    public String type() {
+        return "PACKAGE_EVIDENCE";
+    }
+
+    @Override
+    public Map<String, Object> handle(JobQueueEntity job) throws Exception {
+        var plan = packager.plan(job.getVersionId());
+        progress.start(job.getId(), plan.totalBytes());
+        Resultado r;
+        try {
+            r = packager.empaquetar(plan, n -> progress.advance(job.getId(), n));
+        } finally {
+            progress.finish(job.getId());
+        }
+        int borradores = borradorRepository.updateEvidenceZipPath(job.getVersionId(), r.zip().toString());
+
+        var out = new LinkedHashMap<String, Object>();
+        out.put("zip", r.zip().toString());
+        out.put("entradas", r.entradas());
+        out.put("eventosAuditoria", r.eventosAuditoria());
+        out.put("bytesZip", r.bytesZip());
+        out.put("borradores", borradores);
+        out.put("millis", r.nanos() / 1_000_000);
+        out.put("mbPorSegundo", r.mbPorSegundo());
+        return out;
+    }
+}
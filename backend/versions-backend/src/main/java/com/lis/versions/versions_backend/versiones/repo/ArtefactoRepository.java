@@ -5,6 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
-public interface ArtefactoRepository extends JpaRepository<ArtefactoEntity, String> {
+public interface ArtefactoRepository extends JpaRepository<ArtefactoEntity, String>, ArtefactoRepositoryCustom {
     List<ArtefactoEntity> findByVersionId(String versionId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ArtefactoRepositoryCustom {
+
+    /**
+     * Guarda {@code md5} y {@code size_bytes} calculados y ajusta {@code rollup_artefacto.bytes}
+     * con la diferencia contra el tamaño anterior, en la misma transacción.
+     */
+    @Transactional
+    int actualizarMd5YTamano(String id, String md5, long sizeBytes);
+}
@@ -0,0 +1,21 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ArtefactoRepositoryImpl implements ArtefactoRepositoryCustom {
+
+    private final JdbcTemplate jdbc;
+
+    ArtefactoRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public int actualizarMd5YTamano(String id, String md5, long sizeBytes) {
+        // Primero el rollup: necesita el size_bytes anterior.
+        jdbc.update("UPDATE rollup_artefacto SET bytes = bytes + ? - " +
+                "(SELECT COALESCE(a.size_bytes, 0) FROM artefacto a WHERE a.id = ?) " +
+                "WHERE (tipo, rama) = (SELECT a.tipo, a.rama FROM artefacto a WHERE a.id = ?)", sizeBytes, id, id);
+        return jdbc.update("UPDATE artefacto SET md5 = ?, size_bytes = ? WHERE id = ?", md5, sizeBytes, id);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/**
+ * Filtros de la exportación de auditoría; los nulos no filtran. {@code desde} es inclusivo y
+ * {@code hasta} exclusivo, comparados como texto ISO contra {@code timestamp}.
+ */
+public record AuditoriaFiltro(String versionId, String actor, String accion, String desde, String hasta) {
+
+    public static AuditoriaFiltro deVersion(String versionId) {
+        return new AuditoriaFiltro(versionId, null, null, null, null);
+    }
+}
@@ -0,0 +1,52 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/** Tabla {@code blob} y referencia {@code artefacto.blob_sha256} (V12); {@code refs} la mantienen triggers. */
+@Repository
+public class BlobRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public BlobRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public boolean existeMd5(String md5, long sizeBytes) {
+        return !jdbc.queryForList("SELECT 1 FROM blob WHERE md5 = ? AND size_bytes = ? LIMIT 1", md5, sizeBytes).isEmpty();
+    }
+
+    /** Da de alta el blob, o renueva {@code liberado_en} si ya existía para alejarlo de la GC. */
+    public void registrar(String sha256, String md5, long sizeBytes, String ahora) {
+        jdbc.update("INSERT INTO blob (sha256, md5, size_bytes, creado_en, liberado_en) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (sha256) DO UPDATE SET liberado_en = excluded.liberado_en, " +
+                "md5 = COALESCE(blob.md5, excluded.md5)", sha256, md5, sizeBytes, ahora, ahora);
+    }
+
+    public void asignar(String artefactoId, String sha256) {
+        jdbc.update("UPDATE artefacto SET blob_sha256 = ? WHERE id = ?", sha256, artefactoId);
+    }
+
+    public BlobStats stats() {
+        return jdbc.queryForObject("SELECT count(*) FILTER (WHERE refs > 0), " +
+                        "COALESCE(sum(refs), 0), " +
+                        "COALESCE(sum(size_bytes) FILTER (WHERE refs > 0), 0), " +
+                        "COALESCE(sum(size_bytes * refs), 0), " +
+                        "count(*) FILTER (WHERE refs = 0) FROM blob",
+                (rs, i) -> new BlobStats(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)));
+    }
+
+    public List<String> huerfanos(String liberadoAntesDe, int limit) {
+        return jdbc.queryForList("SELECT sha256 FROM blob WHERE refs = 0 AND liberado_en < ? LIMIT ?",
+                String.class, liberadoAntesDe, limit);
+    }
+
+    /** Borra la fila si sigue sin referencias y vencida; devuelve {@code false} si se volvió a usar. */
+    public boolean eliminar(String sha256, String liberadoAntesDe) {
+        return jdbc.update("DELETE FROM blob WHERE sha256 = ? AND refs = 0 AND liberado_en < ?",
+                sha256, liberadoAntesDe) == 1;
+    }
+}
@@ -0,0 +1,17 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/**
+ * Ahorro del almacén por contenido: {@code bytesLogicos} es lo que ocuparían los artefactos con
+ * una copia cada uno, {@code bytesFisicos} lo que ocupan los blobs referenciados.
+ */
+public record BlobStats(long blobs, long referencias, long bytesFisicos, long bytesLogicos, long huerfanos) {
+
+    public long ahorroBytes() {
+        return bytesLogicos - bytesFisicos;
+    }
+
+    /** Bytes lógicos por byte físico (1 = sin deduplicación). */
+    public double ratio() {
+        return bytesFisicos == 0 ? 1 : Math.round(bytesLogicos * 100.0 / bytesFisicos) / 100.0;
+    }
+}
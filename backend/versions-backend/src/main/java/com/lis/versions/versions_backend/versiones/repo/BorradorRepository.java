@@ -2,6 +2,15 @@ package com.lis.versions.versions_backend.versiones.repo;
 
 import com.lis.versions.versions_backend.versiones.domain.BorradorEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface BorradorRepository extends JpaRepository<BorradorEntity, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update BorradorEntity b set b.evidenceZipPath = :path where b.versionId = :versionId")
+    int updateEvidenceZipPath(@Param("versionId") String versionId, @Param("path") String path);
 }
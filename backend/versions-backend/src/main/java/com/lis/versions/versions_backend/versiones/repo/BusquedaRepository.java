@@ -0,0 +1,48 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Índice FTS5 {@code busqueda} (V10). */
+@Repository
+public class BusquedaRepository {
+
+    // Pesos bm25 por columna: cliente, nombre, numero_version, branch, texto
+    private static final String RANK = "bm25(busqueda, 10.0, 5.0, 5.0, 2.0, 1.0)";
+    private static final String FRAGMENTO = "snippet(busqueda, -1, '<mark>', '</mark>', '…', 12)";
+
+    private final JdbcTemplate jdbc;
+
+    public BusquedaRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** {@code match} es una expresión FTS5 ya saneada. */
+    public List<ResultadoBusqueda> buscar(String match, String cliente, int limit) {
+        var sql = new StringBuilder("SELECT d.version_id, d.tipo, v.cliente, v.nombre, v.numero_version, " +
+                "v.build_yyyymmdd, v.estado, " + FRAGMENTO + ", " + RANK + " AS rank " +
+                "FROM busqueda JOIN busqueda_doc d ON d.doc_id = busqueda.rowid JOIN version v ON v.id = d.version_id " +
+                "WHERE busqueda MATCH ?");
+        var args = new ArrayList<Object>();
+        args.add(match);
+        if (cliente != null) { sql.append(" AND v.cliente = ?"); args.add(cliente); }
+        sql.append(" ORDER BY rank LIMIT ?");
+        args.add(limit);
+        return jdbc.query(sql.toString(), (rs, i) -> new ResultadoBusqueda(rs.getString(1), rs.getString(2),
+                rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7),
+                rs.getString(8), rs.getDouble(9)), args.toArray());
+    }
+
+    /** Indexa (o reemplaza) el texto de las release notes de una versión. */
+    public void indexarReleaseNotes(String versionId, String texto) {
+        String ref = "rn:" + versionId;
+        jdbc.update("INSERT INTO busqueda_doc (ref, version_id, tipo) VALUES (?, ?, 'release_notes') " +
+                "ON CONFLICT (ref) DO NOTHING", ref, versionId);
+        Long docId = jdbc.queryForObject("SELECT doc_id FROM busqueda_doc WHERE ref = ?", Long.class, ref);
+        jdbc.update("DELETE FROM busqueda WHERE rowid = ?", docId);
+        jdbc.update("INSERT INTO busqueda (rowid, texto) VALUES (?, ?)", docId, texto);
+    }
+}
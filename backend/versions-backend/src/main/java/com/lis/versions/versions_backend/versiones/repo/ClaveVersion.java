@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Columnas que identifican una versión: (cliente, nombre, numero_version, build_yyyymmdd). */
+public record ClaveVersion(String cliente, String nombre, String numeroVersion, String buildYyyymmdd) {}
@@ -5,6 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
-public interface EventoAuditoriaRepository extends JpaRepository<EventoAuditoriaEntity, String> {
+public interface EventoAuditoriaRepository extends JpaRepository<EventoAuditoriaEntity, String>, EventoAuditoriaRepositoryCustom {
     List<EventoAuditoriaEntity> findByVersionIdOrderByTimestampAsc(String versionId);
 }
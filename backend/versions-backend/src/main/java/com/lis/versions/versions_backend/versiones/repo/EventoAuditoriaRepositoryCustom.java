@@ -0,0 +1,14 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.EventoAuditoriaEntity;
+
+import java.util.function.Consumer;
+
+public interface EventoAuditoriaRepositoryCustom {
+
+    /**
+     * Entrega los eventos que cumplen el filtro en orden de (timestamp, id), fila a fila desde el
+     * cursor JDBC, sin armar la lista en memoria. Devuelve la cantidad de eventos.
+     */
+    long recorrer(AuditoriaFiltro filtro, Consumer<EventoAuditoriaEntity> consumer);
+}
@@ -0,0 +1,61 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.EventoAuditoriaEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+class EventoAuditoriaRepositoryImpl implements EventoAuditoriaRepositoryCustom {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final RowMapper<EventoAuditoriaEntity> ROW_MAPPER = (rs, i) -> new EventoAuditoriaEntity(
+            rs.getString("id"),
+            rs.getString("version_id"),
+            rs.getString("accion"),
+            rs.getString("actor"),
+            rs.getString("ip_host"),
+            rs.getString("detalles"),
+            rs.getString("timestamp")
+    );
+
+    private final JdbcTemplate jdbc;
+
+    EventoAuditoriaRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public long recorrer(AuditoriaFiltro filtro, Consumer<EventoAuditoriaEntity> consumer) {
+        var sql = new StringBuilder("SELECT * FROM evento_auditoria");
+        var args = new ArrayList<Object>();
+        where(filtro, sql, args);
+        sql.append(" ORDER BY timestamp, id");
+        long[] n = {0};
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(sql.toString());
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            return ps;
+        }, rs -> {
+            consumer.accept(ROW_MAPPER.mapRow(rs, (int) n[0]));
+            n[0]++;
+        });
+        return n[0];
+    }
+
+    // Igual que en el listado de versiones: solo los predicados presentes, para que SQLite use
+    // idx_evento_version_ts / idx_evento_actor_ts / idx_evento_ts.
+    private static void where(AuditoriaFiltro f, StringBuilder sql, List<Object> args) {
+        var preds = new ArrayList<String>();
+        if (f.versionId() != null) { preds.add("version_id = ?"); args.add(f.versionId()); }
+        if (f.actor() != null) { preds.add("actor = ?"); args.add(f.actor()); }
+        if (f.accion() != null) { preds.add("accion = ?"); args.add(f.accion()); }
+        if (f.desde() != null) { preds.add("timestamp >= ?"); args.add(f.desde()); }
+        if (f.hasta() != null) { preds.add("timestamp < ?"); args.add(f.hasta()); }
+        if (!preds.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", preds));
+    }
+}
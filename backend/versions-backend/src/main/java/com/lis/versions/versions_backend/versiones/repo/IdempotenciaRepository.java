@@ -0,0 +1,49 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/** Tabla {@code idempotencia} (V9). */
+@Repository
+public class IdempotenciaRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public IdempotenciaRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<RespuestaIdempotente> buscar(String clave) {
+        return jdbc.query("SELECT clave, huella, status, content_type, cuerpo FROM idempotencia WHERE clave = ?",
+                (rs, i) -> new RespuestaIdempotente(rs.getString(1), rs.getString(2), rs.getObject(3, Integer.class),
+                        rs.getString(4), rs.getBytes(5)), clave).stream().findFirst();
+    }
+
+    /**
+     * Reserva la clave para una petición en curso. También toma una reserva abandonada (en curso
+     * desde antes de {@code vencidaAntesDe}, p. ej. tras una caída). Devuelve {@code false} si la
+     * clave ya tiene respuesta o la reservó otra petición viva.
+     */
+    public boolean reservar(String clave, String huella, String ahora, String vencidaAntesDe) {
+        return jdbc.update("INSERT INTO idempotencia (clave, huella, creado_en) VALUES (?, ?, ?) " +
+                "ON CONFLICT (clave) DO UPDATE SET huella = excluded.huella, creado_en = excluded.creado_en " +
+                "WHERE idempotencia.status IS NULL AND idempotencia.creado_en < ?",
+                clave, huella, ahora, vencidaAntesDe) == 1;
+    }
+
+    public void guardar(String clave, int status, String contentType, byte[] cuerpo) {
+        jdbc.update("UPDATE idempotencia SET status = ?, content_type = ?, cuerpo = ? WHERE clave = ?",
+                status, contentType, cuerpo, clave);
+    }
+
+    /** Libera una reserva sin respuesta (la petición falló con 5xx) para permitir el reintento. */
+    public void liberar(String clave) {
+        jdbc.update("DELETE FROM idempotencia WHERE clave = ? AND status IS NULL", clave);
+    }
+
+    public int purgar(String antesDe) {
+        return jdbc.update("DELETE FROM idempotencia WHERE creado_en < ?", antesDe);
+    }
+}
@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Cantidad de jobs por (status, type) en {@code job_queue}. */
+public record JobConteo(String status, String type, long cantidad) {}
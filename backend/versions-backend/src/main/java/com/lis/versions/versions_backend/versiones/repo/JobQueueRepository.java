@@ -2,7 +2,21 @@ package com.lis.versions.versions_backend.versiones.repo;
 
 import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface JobQueueRepository extends JpaRepository<JobQueueEntity, String> {
+import java.util.List;
+import java.util.Optional;
+
+public interface JobQueueRepository extends JpaRepository<JobQueueEntity, String>, JobQueueRepositoryCustom {
     boolean existsByJobKey(String jobKey);
+
+    Optional<JobQueueEntity> findByJobKey(String jobKey);
+
+    long countByStatus(String status);
+
+    @Query("select new com.lis.versions.versions_backend.versiones.repo.JobConteo(j.status, j.type, count(j)) " +
+            "from JobQueueEntity j group by j.status, j.type")
+    List<JobConteo> contarPorStatusYTipo();
+
+    List<JobQueueEntity> findByVersionIdOrderByCreatedAtAsc(String versionId);
 }
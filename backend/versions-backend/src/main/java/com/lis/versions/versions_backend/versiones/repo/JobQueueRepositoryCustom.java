@@ -0,0 +1,80 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface JobQueueRepositoryCustom {
+
+    /** {@link #claimNext(Collection, String, String, String)} sin lease (un solo nodo). */
+    default Optional<JobQueueEntity> claimNext(Collection<String> types, String now) {
+        return claimNext(types, now, null, null);
+    }
+
+    /**
+     * Reclama atómicamente el siguiente job PENDING (HIGH > NORMAL > LOW, luego FIFO)
+     * de los tipos indicados cuyo {@code next_attempt_at} ya pasó y cuyas dependencias están todas
+     * OK: un único UPDATE ... RETURNING,
+     * así dos workers (de este u otro nodo) nunca obtienen la misma fila. El job queda a nombre
+     * de {@code node} hasta {@code leaseUntil}.
+     */
+    Optional<JobQueueEntity> claimNext(Collection<String> types, String now, String node, String leaseUntil);
+
+    void complete(String id, String status, String outputJson, String errorMsg, String now);
+
+    /**
+     * Como {@link #complete(String, String, String, String, String)}, solo si el job sigue RUNNING
+     * a nombre de {@code node}; {@code false} si el lease se perdió y otro nodo lo reintentó.
+     */
+    boolean complete(String id, String node, String status, String outputJson, String errorMsg, String now);
+
+    /**
+     * Devuelve a PENDING, no reclamable antes de {@code nextAttemptAt}, un job cuyo handler falló.
+     * Como {@link #complete(String, String, String, String, String, String)}, solo si sigue RUNNING a
+     * nombre de {@code node}.
+     */
+    boolean reintentar(String id, String node, String nextAttemptAt, String errorMsg, String now);
+
+    /** Heartbeat: extiende el lease de los jobs RUNNING de {@code node}. */
+    int renewLeases(String node, String leaseUntil, String now);
+
+    /** Jobs RUNNING con el lease vencido (el nodo dueño dejó de enviar heartbeats). */
+    List<JobQueueEntity> expiredLeases(String now, int limit);
+
+    /**
+     * Libera un lease vencido: PENDING con {@code nextAttemptAt}, o DEAD si {@code nextAttemptAt}
+     * es null. Condicionado a que siga vencido, así varios reapers no lo procesan dos veces.
+     */
+    boolean releaseExpired(String id, String nextAttemptAt, String errorMsg, String now);
+
+    /**
+     * Devuelve a PENDING los jobs que quedaron RUNNING a nombre de {@code node} (o sin dueño,
+     * de antes de los leases) tras una caída del proceso.
+     */
+    int requeueRunning(String node, String now);
+
+    /**
+     * Inserta el job salvo que ya exista uno con su {@code job_key}: un único
+     * INSERT ... ON CONFLICT(job_key) DO NOTHING RETURNING, sin carrera entre dos encolados
+     * concurrentes. {@code false} si ya existía.
+     */
+    boolean encolar(JobQueueEntity job);
+
+    /** El job no se reclama hasta que todos los de {@code dependeDe} estén OK. */
+    void agregarDependencias(String jobId, Collection<String> dependeDe);
+
+    List<JobQueueEntity> dependencias(String jobId);
+
+    int contarDependientes(String jobId);
+
+    /**
+     * Pasa a ERROR los dependientes PENDING (directos y transitivos) de un job que falló de forma
+     * definitiva, que si no quedarían bloqueados para siempre. Devuelve los afectados.
+     */
+    List<JobQueueEntity> cancelarDependientes(String jobId, String errorMsg, String now);
+
+    /** {@code created_at} del primer job de la versión si todos sus jobs terminaron OK; vacío si no. */
+    Optional<String> inicioSiTerminada(String versionId);
+}
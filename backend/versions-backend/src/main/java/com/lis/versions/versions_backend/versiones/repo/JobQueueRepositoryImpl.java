@@ -0,0 +1,159 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+class JobQueueRepositoryImpl implements JobQueueRepositoryCustom {
+
+    private static final RowMapper<JobQueueEntity> ROW_MAPPER = (rs, i) -> {
+        var j = new JobQueueEntity(
+                rs.getString("id"),
+                rs.getString("version_id"),
+                rs.getString("type"),
+                rs.getString("job_key"),
+                rs.getString("payload_json"),
+                rs.getString("status"),
+                rs.getString("priority"),
+                rs.getInt("attempt"),
+                rs.getString("output_json"),
+                rs.getString("error_msg"),
+                rs.getString("created_at"),
+                rs.getString("updated_at")
+        );
+        j.setOwnerNode(rs.getString("owner_node"));
+        j.setLeaseUntil(rs.getString("lease_until"));
+        j.setHeartbeatAt(rs.getString("heartbeat_at"));
+        j.setNextAttemptAt(rs.getString("next_attempt_at"));
+        return j;
+    };
+
+    private final JdbcTemplate jdbc;
+
+    JobQueueRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Optional<JobQueueEntity> claimNext(Collection<String> types, String now, String node, String leaseUntil) {
+        if (types.isEmpty()) return Optional.empty();
+        String placeholders = String.join(",", Collections.nCopies(types.size(), "?"));
+        String sql = "UPDATE job_queue SET status = 'RUNNING', attempt = COALESCE(attempt, 0) + 1, updated_at = ?, " +
+                "owner_node = ?, lease_until = ?, heartbeat_at = ?, next_attempt_at = NULL " +
+                "WHERE status = 'PENDING' AND id = (" +
+                "  SELECT c.id FROM job_queue c WHERE c.status = 'PENDING' AND c.type IN (" + placeholders + ")" +
+                "  AND (c.next_attempt_at IS NULL OR c.next_attempt_at <= ?)" +
+                "  AND NOT EXISTS (SELECT 1 FROM job_dependencia d JOIN job_queue p ON p.id = d.depende_de" +
+                "                  WHERE d.job_id = c.id AND p.status <> 'OK')" +
+                "  ORDER BY CASE c.priority WHEN 'HIGH' THEN 0 WHEN 'NORMAL' THEN 1 ELSE 2 END, c.created_at" +
+                "  LIMIT 1" +
+                ") RETURNING *";
+        List<Object> args = new ArrayList<>(types.size() + 5);
+        args.add(now);
+        args.add(node);
+        args.add(leaseUntil);
+        args.add(node == null ? null : now);
+        args.addAll(types);
+        args.add(now);
+        return jdbc.query(sql, ROW_MAPPER, args.toArray()).stream().findFirst();
+    }
+
+    @Override
+    public void complete(String id, String status, String outputJson, String errorMsg, String now) {
+        jdbc.update("UPDATE job_queue SET status = ?, output_json = ?, error_msg = ?, updated_at = ? WHERE id = ?",
+                status, outputJson, errorMsg, now, id);
+    }
+
+    @Override
+    public boolean complete(String id, String node, String status, String outputJson, String errorMsg, String now) {
+        return jdbc.update("UPDATE job_queue SET status = ?, output_json = ?, error_msg = ?, updated_at = ?, " +
+                        "lease_until = NULL WHERE id = ? AND status = 'RUNNING' AND owner_node IS ?",
+                status, outputJson, errorMsg, now, id, node) == 1;
+    }
+
+    @Override
+    public boolean reintentar(String id, String node, String nextAttemptAt, String errorMsg, String now) {
+        return jdbc.update("UPDATE job_queue SET status = 'PENDING', next_attempt_at = ?, error_msg = ?, updated_at = ?, " +
+                        "owner_node = NULL, lease_until = NULL WHERE id = ? AND status = 'RUNNING' AND owner_node IS ?",
+                nextAttemptAt, errorMsg, now, id, node) == 1;
+    }
+
+    @Override
+    public int renewLeases(String node, String leaseUntil, String now) {
+        return jdbc.update("UPDATE job_queue SET lease_until = ?, heartbeat_at = ? " +
+                "WHERE status = 'RUNNING' AND owner_node = ?", leaseUntil, now, node);
+    }
+
+    @Override
+    public List<JobQueueEntity> expiredLeases(String now, int limit) {
+        return jdbc.query("SELECT * FROM job_queue WHERE status = 'RUNNING' AND lease_until < ? " +
+                "ORDER BY lease_until LIMIT ?", ROW_MAPPER, now, limit);
+    }
+
+    @Override
+    public boolean releaseExpired(String id, String nextAttemptAt, String errorMsg, String now) {
+        return jdbc.update("UPDATE job_queue SET status = CASE WHEN ? IS NULL THEN 'DEAD' ELSE 'PENDING' END, " +
+                        "next_attempt_at = ?, error_msg = ?, owner_node = NULL, lease_until = NULL, updated_at = ? " +
+                        "WHERE id = ? AND status = 'RUNNING' AND lease_until < ?",
+                nextAttemptAt, nextAttemptAt, errorMsg, now, id, now) == 1;
+    }
+
+    @Override
+    public int requeueRunning(String node, String now) {
+        return jdbc.update("UPDATE job_queue SET status = 'PENDING', owner_node = NULL, lease_until = NULL, updated_at = ? " +
+                "WHERE status = 'RUNNING' AND (owner_node = ? OR owner_node IS NULL)", now, node);
+    }
+
+    @Override
+    public boolean encolar(JobQueueEntity j) {
+        return !jdbc.queryForList("INSERT INTO job_queue (id, version_id, type, job_key, payload_json, status, priority, " +
+                        "attempt, output_json, error_msg, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                        "ON CONFLICT(job_key) DO NOTHING RETURNING id", String.class,
+                j.getId(), j.getVersionId(), j.getType(), j.getJobKey(), j.getPayloadJson(), j.getStatus(), j.getPriority(),
+                j.getAttempt(), j.getOutputJson(), j.getErrorMsg(), j.getCreatedAt(), j.getUpdatedAt()).isEmpty();
+    }
+
+    @Override
+    public void agregarDependencias(String jobId, Collection<String> dependeDe) {
+        jdbc.batchUpdate("INSERT OR IGNORE INTO job_dependencia (job_id, depende_de) VALUES (?, ?)",
+                List.copyOf(dependeDe), dependeDe.size(), (ps, padre) -> {
+                    ps.setString(1, jobId);
+                    ps.setString(2, padre);
+                });
+    }
+
+    @Override
+    public List<JobQueueEntity> dependencias(String jobId) {
+        return jdbc.query("SELECT p.* FROM job_dependencia d JOIN job_queue p ON p.id = d.depende_de WHERE d.job_id = ?",
+                ROW_MAPPER, jobId);
+    }
+
+    @Override
+    public int contarDependientes(String jobId) {
+        Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM job_dependencia WHERE depende_de = ?", Integer.class, jobId);
+        return n == null ? 0 : n;
+    }
+
+    @Override
+    public List<JobQueueEntity> cancelarDependientes(String jobId, String errorMsg, String now) {
+        return jdbc.query("WITH RECURSIVE hijos(id) AS (" +
+                        "  SELECT job_id FROM job_dependencia WHERE depende_de = ?" +
+                        "  UNION SELECT d.job_id FROM job_dependencia d JOIN hijos h ON d.depende_de = h.id" +
+                        ") UPDATE job_queue SET status = 'ERROR', error_msg = ?, updated_at = ? " +
+                        "WHERE status = 'PENDING' AND id IN (SELECT id FROM hijos) RETURNING *",
+                ROW_MAPPER, jobId, errorMsg, now);
+    }
+
+    @Override
+    public Optional<String> inicioSiTerminada(String versionId) {
+        return jdbc.queryForList("SELECT MIN(created_at) FROM job_queue WHERE version_id = ? " +
+                        "HAVING SUM(status IN ('PENDING', 'RUNNING')) = 0 AND SUM(status = 'OK') = COUNT(*)",
+                String.class, versionId).stream().findFirst();
+    }
+}
@@ -0,0 +1,9 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Fila de {@code idempotencia}; {@code status} es nulo mientras la petición original está en curso. */
+public record RespuestaIdempotente(String clave, String huella, Integer status, String contentType, byte[] cuerpo) {
+
+    public boolean enCurso() {
+        return status == null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/**
+ * Coincidencia de búsqueda. {@code tipo} es {@code version}, {@code borrador} o
+ * {@code release_notes}; {@code fragmento} trae los términos entre {@code <mark>}.
+ * Menor {@code rank} = más relevante (bm25).
+ */
+public record ResultadoBusqueda(String versionId, String tipo, String cliente, String nombre, String numeroVersion,
+                                String buildYyyymmdd, String estado, String fragmento, double rank) {}
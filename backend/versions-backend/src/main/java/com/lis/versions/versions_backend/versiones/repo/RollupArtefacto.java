@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Artefactos y bytes por (tipo, rama); en escrituras, {@code cantidad} y {@code bytes} son deltas. */
+public record RollupArtefacto(String tipo, String rama, long cantidad, long bytes) {}
@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Versiones publicadas por cliente y tiempo medio Draft → Published. */
+public record RollupPublicacion(String cliente, long publicadas, double segundosPromedio) {}
@@ -0,0 +1,99 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tablas {@code rollup_*} (V8). Las sumas son upserts con delta, así cada cambio toca una fila
+ * por grupo; deben llamarse dentro de la transacción del cambio que agregan.
+ */
+@Repository
+public class RollupRepository {
+
+    // Meses de build: yyyymmdd → yyyy-MM
+    private static final String BUILD_MES = "substr(build_yyyymmdd, 1, 4) || '-' || substr(build_yyyymmdd, 5, 2)";
+    private static final String SEGUNDOS = "(julianday(e.timestamp) - julianday(v.creado_en)) * 86400.0";
+
+    private final JdbcTemplate jdbc;
+
+    public RollupRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void sumarVersiones(List<RollupVersion> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO rollup_version (cliente, estado, build_mes, cantidad) VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT (cliente, estado, build_mes) DO UPDATE SET cantidad = cantidad + excluded.cantidad",
+                deltas, deltas.size(), (ps, d) -> {
+                    ps.setString(1, d.cliente());
+                    ps.setString(2, d.estado());
+                    ps.setString(3, d.buildMes());
+                    ps.setLong(4, d.cantidad());
+                });
+    }
+
+    public void sumarArtefactos(List<RollupArtefacto> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO rollup_artefacto (tipo, rama, cantidad, bytes) VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT (tipo, rama) DO UPDATE SET cantidad = cantidad + excluded.cantidad, " +
+                        "bytes = bytes + excluded.bytes",
+                deltas, deltas.size(), (ps, d) -> {
+                    ps.setString(1, d.tipo());
+                    ps.setString(2, d.rama());
+                    ps.setLong(3, d.cantidad());
+                    ps.setLong(4, d.bytes());
+                });
+    }
+
+    public void sumarPublicacion(String cliente, double segundos) {
+        jdbc.update("INSERT INTO rollup_publicacion (cliente, publicadas, segundos_total) VALUES (?, 1, ?) " +
+                "ON CONFLICT (cliente) DO UPDATE SET publicadas = publicadas + 1, " +
+                "segundos_total = segundos_total + excluded.segundos_total", cliente, segundos);
+    }
+
+    public List<RollupVersion> versiones(String cliente) {
+        var sql = new StringBuilder("SELECT cliente, estado, build_mes, cantidad FROM rollup_version WHERE cantidad <> 0");
+        var args = new ArrayList<Object>();
+        if (cliente != null) { sql.append(" AND cliente = ?"); args.add(cliente); }
+        sql.append(" ORDER BY cliente, build_mes, estado");
+        return jdbc.query(sql.toString(), (rs, i) -> new RollupVersion(rs.getString(1), rs.getString(2),
+                rs.getString(3), rs.getLong(4)), args.toArray());
+    }
+
+    public List<RollupArtefacto> artefactos() {
+        return jdbc.query("SELECT tipo, rama, cantidad, bytes FROM rollup_artefacto WHERE cantidad <> 0 ORDER BY tipo, rama",
+                (rs, i) -> new RollupArtefacto(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+    }
+
+    public List<RollupPublicacion> publicacion(String cliente) {
+        var sql = new StringBuilder("SELECT cliente, publicadas, segundos_total / publicadas FROM rollup_publicacion " +
+                "WHERE publicadas > 0");
+        var args = new ArrayList<Object>();
+        if (cliente != null) { sql.append(" AND cliente = ?"); args.add(cliente); }
+        sql.append(" ORDER BY cliente");
+        return jdbc.query(sql.toString(), (rs, i) -> new RollupPublicacion(rs.getString(1), rs.getLong(2),
+                rs.getDouble(3)), args.toArray());
+    }
+
+    /**
+     * Recalcula todo desde las tablas base en una transacción. El tiempo de publicación sale del
+     * evento de auditoría {@code version_publicada}, igual que el incremental.
+     */
+    @Transactional
+    public void reconstruir() {
+        jdbc.update("DELETE FROM rollup_version");
+        jdbc.update("DELETE FROM rollup_artefacto");
+        jdbc.update("DELETE FROM rollup_publicacion");
+        jdbc.update("INSERT INTO rollup_version (cliente, estado, build_mes, cantidad) " +
+                "SELECT cliente, estado, " + BUILD_MES + ", count(*) FROM version GROUP BY 1, 2, 3");
+        jdbc.update("INSERT INTO rollup_artefacto (tipo, rama, cantidad, bytes) " +
+                "SELECT tipo, rama, count(*), COALESCE(sum(size_bytes), 0) FROM artefacto GROUP BY tipo, rama");
+        jdbc.update("INSERT INTO rollup_publicacion (cliente, publicadas, segundos_total) " +
+                "SELECT v.cliente, count(*), sum(" + SEGUNDOS + ") FROM evento_auditoria e " +
+                "JOIN version v ON v.id = e.version_id WHERE e.accion = 'version_publicada' GROUP BY v.cliente");
+    }
+}
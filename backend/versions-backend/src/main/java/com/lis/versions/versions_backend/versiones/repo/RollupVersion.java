@@ -0,0 +1,4 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Versiones por (cliente, estado, mes de build {@code yyyy-MM}); en escrituras, {@code cantidad} es un delta. */
+public record RollupVersion(String cliente, String estado, String buildMes, long cantidad) {}
@@ -0,0 +1,5 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Fila de {@code sello}; {@code resultado} y {@code verificadoEn} son del último barrido o verificación. */
+public record Sello(String versionId, String raiz, int chunkBytes, int archivos, String selladoEn, String actor,
+                    String verificadoEn, String resultado) {}
@@ -0,0 +1,12 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/** Fila de {@code sello_archivo}: raíz Merkle del artefacto y sus hojas (32 bytes por chunk). */
+public record SelloArchivo(String versionId, String artefactoId, String ruta, long sizeBytes, long mtimeMs,
+                           String raiz, @JsonIgnore byte[] hojas) {
+
+    public int chunks() {
+        return hojas.length / 32;
+    }
+}
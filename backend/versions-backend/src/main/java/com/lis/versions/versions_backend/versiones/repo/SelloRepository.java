@@ -0,0 +1,79 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Tablas {@code sello} y {@code sello_archivo} (V15). */
+@Repository
+public class SelloRepository {
+
+    private static final RowMapper<Sello> SELLO = (rs, i) -> new Sello(
+            rs.getString("version_id"),
+            rs.getString("raiz"),
+            rs.getInt("chunk_bytes"),
+            rs.getInt("archivos"),
+            rs.getString("sellado_en"),
+            rs.getString("actor"),
+            rs.getString("verificado_en"),
+            rs.getString("resultado")
+    );
+
+    private static final RowMapper<SelloArchivo> ARCHIVO = (rs, i) -> new SelloArchivo(
+            rs.getString("version_id"),
+            rs.getString("artefacto_id"),
+            rs.getString("ruta"),
+            rs.getLong("size_bytes"),
+            rs.getLong("mtime_ms"),
+            rs.getString("raiz"),
+            rs.getBytes("hojas")
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public SelloRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void guardar(Sello s, List<SelloArchivo> archivos) {
+        jdbc.update("INSERT INTO sello (version_id, raiz, chunk_bytes, archivos, sellado_en, actor) VALUES (?, ?, ?, ?, ?, ?)",
+                s.versionId(), s.raiz(), s.chunkBytes(), s.archivos(), s.selladoEn(), s.actor());
+        jdbc.batchUpdate("INSERT INTO sello_archivo (version_id, artefacto_id, ruta, size_bytes, mtime_ms, raiz, hojas) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", archivos, 500, (ps, a) -> {
+                    ps.setString(1, a.versionId());
+                    ps.setString(2, a.artefactoId());
+                    ps.setString(3, a.ruta());
+                    ps.setLong(4, a.sizeBytes());
+                    ps.setLong(5, a.mtimeMs());
+                    ps.setString(6, a.raiz());
+                    ps.setBytes(7, a.hojas());
+                });
+    }
+
+    public Optional<Sello> buscar(String versionId) {
+        return jdbc.query("SELECT * FROM sello WHERE version_id = ?", SELLO, versionId).stream().findFirst();
+    }
+
+    public List<SelloArchivo> archivos(String versionId) {
+        return jdbc.query("SELECT * FROM sello_archivo WHERE version_id = ? ORDER BY artefacto_id", ARCHIVO, versionId);
+    }
+
+    /** Archivo tocado pero con el mismo contenido: se registra el mtime nuevo para omitirlo en el próximo barrido. */
+    public void actualizarMtime(String versionId, String artefactoId, long mtimeMs) {
+        jdbc.update("UPDATE sello_archivo SET mtime_ms = ? WHERE version_id = ? AND artefacto_id = ?",
+                mtimeMs, versionId, artefactoId);
+    }
+
+    public void registrarVerificacion(String versionId, String resultado, String ahora) {
+        jdbc.update("UPDATE sello SET verificado_en = ?, resultado = ? WHERE version_id = ?", ahora, resultado, versionId);
+    }
+
+    /** Sellos para el barrido, los nunca verificados o verificados hace más tiempo primero. */
+    public List<String> pendientesDeVerificar(String verificadosAntesDe, int limit) {
+        return jdbc.queryForList("SELECT version_id FROM sello WHERE verificado_en IS NULL OR verificado_en < ? " +
+                "ORDER BY verificado_en IS NOT NULL, verificado_en LIMIT ?", String.class, verificadosAntesDe, limit);
+    }
+}
@@ -0,0 +1,11 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+/** Fila de {@code subida}; {@code offsetConfirmado} son los bytes del parcial ya sincronizados a disco. */
+public record Subida(String id, String versionId, String tipo, String rama, String nombreOriginal,
+                     String nombreFinal, String rutaDestino, long sizeBytes, String md5Declarado,
+                     long offsetConfirmado, String estado, String artefactoId, String actor) {
+
+    public boolean completa() {
+        return "COMPLETA".equals(estado);
+    }
+}
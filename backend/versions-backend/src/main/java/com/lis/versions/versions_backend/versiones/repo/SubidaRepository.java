@@ -0,0 +1,69 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Tabla {@code subida} (V14). */
+@Repository
+public class SubidaRepository {
+
+    private static final RowMapper<Subida> ROW_MAPPER = (rs, i) -> new Subida(
+            rs.getString("id"),
+            rs.getString("version_id"),
+            rs.getString("tipo"),
+            rs.getString("rama"),
+            rs.getString("nombre_original"),
+            rs.getString("nombre_final"),
+            rs.getString("ruta_destino"),
+            rs.getLong("size_bytes"),
+            rs.getString("md5_declarado"),
+            rs.getLong("offset_confirmado"),
+            rs.getString("estado"),
+            rs.getString("artefacto_id"),
+            rs.getString("actor")
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public SubidaRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void crear(Subida s, String ahora) {
+        jdbc.update("INSERT INTO subida (id, version_id, tipo, rama, nombre_original, nombre_final, ruta_destino, " +
+                        "size_bytes, md5_declarado, offset_confirmado, estado, actor, creado_en, actualizado_en) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 'EN_CURSO', ?, ?, ?)",
+                s.id(), s.versionId(), s.tipo(), s.rama(), s.nombreOriginal(), s.nombreFinal(), s.rutaDestino(),
+                s.sizeBytes(), s.md5Declarado(), s.actor(), ahora, ahora);
+    }
+
+    public Optional<Subida> buscar(String id) {
+        return jdbc.query("SELECT * FROM subida WHERE id = ?", ROW_MAPPER, id).stream().findFirst();
+    }
+
+    public void confirmarOffset(String id, long offset, String ahora) {
+        jdbc.update("UPDATE subida SET offset_confirmado = ?, actualizado_en = ? WHERE id = ? AND estado = 'EN_CURSO'",
+                offset, ahora, id);
+    }
+
+    public void completar(String id, String artefactoId, String ahora) {
+        jdbc.update("UPDATE subida SET estado = 'COMPLETA', artefacto_id = ?, actualizado_en = ? WHERE id = ?",
+                artefactoId, ahora, id);
+    }
+
+    /** Subidas {@code EN_CURSO} sin actividad desde antes de {@code actualizadoAntesDe}. */
+    public List<String> abandonadas(String actualizadoAntesDe, int limit) {
+        return jdbc.queryForList("SELECT id FROM subida WHERE estado = 'EN_CURSO' AND actualizado_en < ? LIMIT ?",
+                String.class, actualizadoAntesDe, limit);
+    }
+
+    /** Borra la fila si sigue en curso y vencida; devuelve {@code false} si recibió datos entretanto. */
+    public boolean eliminarAbandonada(String id, String actualizadoAntesDe) {
+        return jdbc.update("DELETE FROM subida WHERE id = ? AND estado = 'EN_CURSO' AND actualizado_en < ?",
+                id, actualizadoAntesDe) == 1;
+    }
+}
@@ -0,0 +1,10 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+
+/**
+ * Filtros del listado de versiones. {@code creadoDesde} es inclusivo y {@code creadoHasta}
+ * exclusivo, ambos comparados como texto ISO contra {@code creado_en}.
+ */
+public record VersionFiltro(String cliente, VersionEstado estado, String responsable,
+                            String creadoDesde, String creadoHasta) {}
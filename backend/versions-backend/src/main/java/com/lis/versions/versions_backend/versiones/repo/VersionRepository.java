@@ -1,11 +1,32 @@
 package com.lis.versions.versions_backend.versiones.repo;
 
 import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface VersionRepository extends JpaRepository<VersionEntity, String> {
+public interface VersionRepository extends JpaRepository<VersionEntity, String>, VersionRepositoryCustom {
     boolean existsByClienteAndNombreAndNumeroVersionAndBuildYyyymmdd(String cliente, String nombre, String numeroVersion, String buildYyyymmdd);
     Optional<VersionEntity> findByClienteAndNombreAndNumeroVersionAndBuildYyyymmdd(String cliente, String nombre, String numeroVersion, String buildYyyymmdd);
+    Optional<VersionEntity> findByIdempotencyKey(String idempotencyKey);
+
+    /** Claves ya registradas entre los clientes/nombres de un lote, para validar duplicados con una sola consulta. */
+    @Query("select new com.lis.versions.versions_backend.versiones.repo.ClaveVersion(v.cliente, v.nombre, v.numeroVersion, v.buildYyyymmdd) " +
+            "from VersionEntity v where v.cliente in :clientes and v.nombre in :nombres")
+    List<ClaveVersion> findClaves(@Param("clientes") Collection<String> clientes, @Param("nombres") Collection<String> nombres);
+
+    /**
+     * Cambia el estado solo si la versión sigue en {@code esperado}; devuelve 0 si otra transacción
+     * la movió antes. Permite validar la transición sobre una lectura cacheada sin SELECT previo.
+     */
+    @Modifying
+    @Query("update VersionEntity v set v.estado = :nuevo, v.actualizadoEn = :ts where v.id = :id and v.estado = :esperado")
+    int transicionar(@Param("id") String id, @Param("esperado") VersionEstado esperado,
+                     @Param("nuevo") VersionEstado nuevo, @Param("ts") String ts);
 }
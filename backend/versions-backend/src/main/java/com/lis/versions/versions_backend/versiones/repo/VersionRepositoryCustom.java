@@ -0,0 +1,34 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.Semver;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.domain.VersionResumen;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VersionRepositoryCustom {
+
+    /** Posición de una fila en el orden (creado_en, id); la página siguiente empieza después de ella. */
+    record Cursor(String creadoEn, String id) {}
+
+    /** Página por keyset: filas estrictamente después de {@code after} (o desde el inicio si es null). */
+    List<VersionResumen> listarDespues(VersionFiltro filtro, Cursor after, boolean desc, int limit);
+
+    /** Página por offset; solo para páginas pequeñas, el costo crece con {@code offset}. */
+    List<VersionResumen> listarOffset(VersionFiltro filtro, boolean desc, int offset, int limit);
+
+    long contar(VersionFiltro filtro);
+
+    /** Las {@code limit} versiones más altas por semver (a igual versión, el build más reciente primero). */
+    List<VersionSemver> ultimasSemver(String cliente, String nombre, VersionEstado estado, int limit);
+
+    /** Versiones dentro de {@code rango}, en orden semver ascendente. */
+    List<VersionSemver> rangoSemver(String cliente, String nombre, Semver.Rango rango, int limit);
+
+    /** Publicada (o sellada) inmediatamente anterior a ({@code semverKey}, {@code build}). */
+    Optional<VersionSemver> anteriorPublicada(String cliente, String nombre, String semverKey, String build);
+
+    /** Calcula {@code semver_key} de las filas que no la tienen. Devuelve cuántas quedaron con clave. */
+    int completarSemver();
+}
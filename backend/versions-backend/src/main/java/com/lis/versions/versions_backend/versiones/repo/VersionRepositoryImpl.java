@@ -0,0 +1,142 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.Semver;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.domain.VersionResumen;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+class VersionRepositoryImpl implements VersionRepositoryCustom {
+
+    private static final String COLUMNS =
+            "id, cliente, nombre, numero_version, build_yyyymmdd, estado, responsable, branch, creado_en, actualizado_en";
+
+    private static final RowMapper<VersionResumen> ROW_MAPPER = (rs, i) -> new VersionResumen(
+            rs.getString("id"),
+            rs.getString("cliente"),
+            rs.getString("nombre"),
+            rs.getString("numero_version"),
+            rs.getString("build_yyyymmdd"),
+            VersionEstado.valueOf(rs.getString("estado")),
+            rs.getString("responsable"),
+            rs.getString("branch"),
+            rs.getString("creado_en"),
+            rs.getString("actualizado_en")
+    );
+
+    private static final String SEMVER_COLUMNS = "SELECT id, numero_version, build_yyyymmdd, estado FROM version";
+    private static final RowMapper<VersionSemver> SEMVER_MAPPER = (rs, i) -> new VersionSemver(
+            rs.getString(1), rs.getString(2), rs.getString(3), VersionEstado.valueOf(rs.getString(4)));
+
+    private final JdbcTemplate jdbc;
+
+    VersionRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public List<VersionResumen> listarDespues(VersionFiltro filtro, Cursor after, boolean desc, int limit) {
+        var sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM version");
+        var args = new ArrayList<Object>();
+        where(filtro, sql, args);
+        if (after != null) {
+            sql.append(args.isEmpty() ? " WHERE " : " AND ")
+                    .append("(creado_en, id) ").append(desc ? "<" : ">").append(" (?, ?)");
+            args.add(after.creadoEn());
+            args.add(after.id());
+        }
+        orderBy(sql, desc);
+        sql.append(" LIMIT ?");
+        args.add(limit);
+        return jdbc.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public List<VersionResumen> listarOffset(VersionFiltro filtro, boolean desc, int offset, int limit) {
+        var sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM version");
+        var args = new ArrayList<Object>();
+        where(filtro, sql, args);
+        orderBy(sql, desc);
+        sql.append(" LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(offset);
+        return jdbc.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public long contar(VersionFiltro filtro) {
+        var sql = new StringBuilder("SELECT count(*) FROM version");
+        var args = new ArrayList<Object>();
+        where(filtro, sql, args);
+        Long n = jdbc.queryForObject(sql.toString(), Long.class, args.toArray());
+        return n != null ? n : 0;
+    }
+
+    @Override
+    public List<VersionSemver> ultimasSemver(String cliente, String nombre, VersionEstado estado, int limit) {
+        var sql = new StringBuilder(SEMVER_COLUMNS)
+                .append(" WHERE cliente = ? AND nombre = ? AND semver_key IS NOT NULL");
+        var args = new ArrayList<Object>(List.of(cliente, nombre));
+        if (estado != null) { sql.append(" AND estado = ?"); args.add(estado.name()); }
+        sql.append(" ORDER BY semver_key DESC, build_yyyymmdd DESC LIMIT ?");
+        args.add(limit);
+        return jdbc.query(sql.toString(), SEMVER_MAPPER, args.toArray());
+    }
+
+    @Override
+    public List<VersionSemver> rangoSemver(String cliente, String nombre, Semver.Rango rango, int limit) {
+        var sql = new StringBuilder(SEMVER_COLUMNS)
+                .append(" WHERE cliente = ? AND nombre = ? AND semver_key IS NOT NULL");
+        var args = new ArrayList<Object>(List.of(cliente, nombre));
+        if (rango.desde() != null) {
+            sql.append(" AND semver_key ").append(rango.desdeIncluido() ? ">=" : ">").append(" ?");
+            args.add(rango.desde());
+        }
+        if (rango.hasta() != null) {
+            sql.append(" AND semver_key ").append(rango.hastaIncluido() ? "<=" : "<").append(" ?");
+            args.add(rango.hasta());
+        }
+        sql.append(" ORDER BY semver_key, build_yyyymmdd LIMIT ?");
+        args.add(limit);
+        return jdbc.query(sql.toString(), SEMVER_MAPPER, args.toArray());
+    }
+
+    @Override
+    public Optional<VersionSemver> anteriorPublicada(String cliente, String nombre, String semverKey, String build) {
+        return jdbc.query(SEMVER_COLUMNS + " WHERE cliente = ? AND nombre = ? AND (semver_key, build_yyyymmdd) < (?, ?) " +
+                        "AND estado IN ('Published', 'Sealed') ORDER BY semver_key DESC, build_yyyymmdd DESC LIMIT 1",
+                SEMVER_MAPPER, cliente, nombre, semverKey, build).stream().findFirst();
+    }
+
+    @Override
+    public int completarSemver() {
+        var claves = new ArrayList<Object[]>();
+        jdbc.query("SELECT id, numero_version FROM version WHERE semver_key IS NULL", rs -> {
+            String clave = Semver.clave(rs.getString(2));
+            if (clave != null) claves.add(new Object[]{clave, rs.getString(1)});
+        });
+        if (claves.isEmpty()) return 0;
+        jdbc.batchUpdate("UPDATE version SET semver_key = ? WHERE id = ?", claves);
+        return claves.size();
+    }
+
+    // Solo se agregan los predicados presentes: un "? IS NULL OR col = ?" impediría a SQLite usar los índices.
+    private static void where(VersionFiltro f, StringBuilder sql, List<Object> args) {
+        var preds = new ArrayList<String>();
+        if (f.cliente() != null) { preds.add("cliente = ?"); args.add(f.cliente()); }
+        if (f.estado() != null) { preds.add("estado = ?"); args.add(f.estado().name()); }
+        if (f.responsable() != null) { preds.add("responsable = ?"); args.add(f.responsable()); }
+        if (f.creadoDesde() != null) { preds.add("creado_en >= ?"); args.add(f.creadoDesde()); }
+        if (f.creadoHasta() != null) { preds.add("creado_en < ?"); args.add(f.creadoHasta()); }
+        if (!preds.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", preds));
+    }
+
+    private static void orderBy(StringBuilder sql, boolean desc) {
+        String dir = desc ? " DESC" : " ASC";
+        sql.append(" ORDER BY creado_en").append(dir).append(", id").append(dir);
+    }
+}
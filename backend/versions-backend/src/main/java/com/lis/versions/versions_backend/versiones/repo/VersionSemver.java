@@ -0,0 +1,6 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+
+/** Proyección de las consultas por semver; se lee completa desde {@code idx_version_semver}. */
+public record VersionSemver(String id, String numeroVersion, String buildYyyymmdd, VersionEstado estado) {}
@@ -0,0 +1,102 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.common.db.EnShard;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.repo.RollupArtefacto;
+import com.lis.versions.versions_backend.versiones.repo.RollupRepository;
+import com.lis.versions.versions_backend.versiones.repo.RollupVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Agregados de analytics. {@link VersionService} avisa cada alta, transición y artefacto adjuntado
+ * dentro de su transacción y los rollups se actualizan con deltas; las consultas leen solo los grupos.
+ *
+ * Para backfills: {@code POST /api/analytics/rebuild} o arrancar con {@code --rebuild-rollups}.
+ */
+@Service
+public class AnalyticsService implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private final RollupRepository rollups;
+    private final Shards shards;
+
+    public AnalyticsService(RollupRepository rollups, Shards shards) {
+        this.rollups = rollups;
+        this.shards = shards;
+    }
+
+    void registradas(Collection<VersionEntity> versiones) {
+        var cantidad = new LinkedHashMap<List<String>, Long>();
+        for (var v : versiones) {
+            cantidad.merge(List.of(v.getCliente(), v.getEstado().name(), buildMes(v)), 1L, Long::sum);
+        }
+        rollups.sumarVersiones(cantidad.entrySet().stream()
+                .map(e -> new RollupVersion(e.getKey().get(0), e.getKey().get(1), e.getKey().get(2), e.getValue()))
+                .toList());
+    }
+
+    void transicion(VersionEntity v, VersionEstado desde, VersionEstado hacia, String ts) {
+        rollups.sumarVersiones(List.of(delta(v, desde, -1), delta(v, hacia, 1)));
+        if (hacia == VersionEstado.Published) {
+            var segundos = Duration.between(LocalDateTime.parse(v.getCreadoEn()), LocalDateTime.parse(ts)).toMillis() / 1000.0;
+            rollups.sumarPublicacion(v.getCliente(), segundos);
+        }
+    }
+
+    void adjuntados(Collection<ArtefactoEntity> artefactos) {
+        var cantidad = new LinkedHashMap<List<String>, long[]>();
+        for (var a : artefactos) {
+            long[] c = cantidad.computeIfAbsent(List.of(a.getTipo(), a.getRama()), k -> new long[2]);
+            c[0]++;
+            c[1] += a.getSizeBytes() != null ? a.getSizeBytes() : 0;
+        }
+        rollups.sumarArtefactos(cantidad.entrySet().stream()
+                .map(e -> new RollupArtefacto(e.getKey().get(0), e.getKey().get(1), e.getValue()[0], e.getValue()[1]))
+                .toList());
+    }
+
+    @EnShard(cliente = "#cliente")
+    @Transactional(readOnly = true)
+    public Dtos.Analytics resumen(String cliente) {
+        String c = cliente == null || cliente.isBlank() ? null : cliente;
+        return new Dtos.Analytics(rollups.versiones(c), rollups.artefactos(), rollups.publicacion(c));
+    }
+
+    public void reconstruir() {
+        long t0 = System.nanoTime();
+        shards.enCada(() -> {
+            rollups.reconstruir();
+            return null;
+        });
+        log.info("Rollups de analytics reconstruidos en {} ms", (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-rollups")) reconstruir();
+    }
+
+    private static RollupVersion delta(VersionEntity v, VersionEstado estado, long cantidad) {
+        return new RollupVersion(v.getCliente(), estado.name(), buildMes(v), cantidad);
+    }
+
+    private static String buildMes(VersionEntity v) {
+        String b = v.getBuildYyyymmdd();
+        return b.substring(0, 4) + "-" + b.substring(4, 6);
+    }
+}
@@ -0,0 +1,231 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Copia los artefactos de una versión a su destino ({@link ArtefactoFiles#destino}). Origen y destino
+ * se resuelven siempre dentro de {@code versiones.copy.staging-dir} y {@code versiones.copy.destino-dir}.
+ * Cada archivo se escribe en un temporal del mismo directorio y se renombra de forma atómica; si el
+ * MD5 calculado no es el declarado el temporal se borra y el destino existente no se toca.
+ *
+ * Con {@code versiones.copy.compute-md5=false} usa {@link FileChannel#transferTo} (zero-copy del
+ * kernel cuando está disponible); con {@code true} lee con un buffer del {@link BufferPool} y calcula
+ * el MD5 en la misma pasada, evitando volver a leer el archivo después.
+ *
+ * Con {@code versiones.blobs.enabled=true} (por defecto) la copia pasa por el {@link BlobStore}:
+ * el destino queda como hard link al blob del contenido y los duplicados no se vuelven a escribir.
+ */
+@Service
+public class ArtefactoCopyService {
+    private static final long TRANSFER_BYTES = 64L * 1024 * 1024;
+
+    private final ArtefactoRepository artefactoRepository;
+    private final VersionCache cache;
+    private final BlobStore blobStore;
+    private final BufferPool buffers;
+    private final Path staging;
+    private final Path destinos;
+    private final boolean computeMd5;
+    private final Semaphore permits;
+
+    public ArtefactoCopyService(ArtefactoRepository artefactoRepository,
+                                VersionCache cache,
+                                BlobStore blobStore,
+                                BufferPool buffers,
+                                @Value("${versiones.copy.staging-dir:data/staging}") String staging,
+                                @Value("${versiones.copy.destino-dir:data/publicado}") String destinos,
+                                @Value("${versiones.copy.compute-md5:true}") boolean computeMd5,
+                                @Value("${versiones.copy.parallelism:4}") int parallelism) {
+        this.artefactoRepository = artefactoRepository;
+        this.cache = cache;
+        this.blobStore = blobStore;
+        this.buffers = buffers;
+        this.staging = Path.of(staging);
+        this.destinos = Path.of(destinos);
+        this.computeMd5 = computeMd5;
+        this.permits = new Semaphore(Math.max(1, parallelism));
+    }
+
+    /** {@code blob} y {@code reutilizado} solo se informan si la copia pasó por el {@link BlobStore}. */
+    public record CopyResult(String artefactoId, Path origen, Path destino, long bytes, String md5,
+                             String md5Declarado, long nanos, String blob, boolean reutilizado) {
+        public boolean coincide() {
+            return md5 == null || md5Declarado == null || md5Declarado.equalsIgnoreCase(md5);
+        }
+
+        public double mbPorSegundo() {
+            return ArtefactoFiles.mbPorSegundo(bytes, nanos);
+        }
+    }
+
+    public record Plan(List<ArtefactoEntity> artefactos, long totalBytes) {}
+
+    /** Artefactos a copiar y bytes totales, para poder informar avance desde el inicio. */
+    public Plan plan(String versionId) throws IOException {
+        var arts = artefactoRepository.findByVersionId(versionId);
+        long total = 0;
+        for (ArtefactoEntity a : arts) total += Files.size(ArtefactoFiles.origen(a, staging));
+        return new Plan(arts, total);
+    }
+
+    /**
+     * Copia en paralelo (acotado por {@code versiones.copy.parallelism}) y notifica a
+     * {@code progress} cada bloque de bytes escrito.
+     */
+    public List<CopyResult> copy(Plan plan, LongConsumer progress) throws IOException, InterruptedException {
+        List<Future<CopyResult>> futures = new ArrayList<>(plan.artefactos().size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ArtefactoEntity a : plan.artefactos()) {
+                futures.add(executor.submit(() -> copyAndStore(a, progress)));
+            }
+        }
+        List<CopyResult> results = new ArrayList<>(futures.size());
+        for (Future<CopyResult> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof UncheckedIOException uio) throw uio.getCause();
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private CopyResult copyAndStore(ArtefactoEntity a, LongConsumer progress) throws IOException, InterruptedException {
+        permits.acquire();
+        try {
+            Path origen = ArtefactoFiles.origen(a, staging);
+            Path destino = ArtefactoFiles.destino(a, destinos);
+            long t0 = System.nanoTime();
+            if (blobStore.enabled()) return copyToBlob(a, origen, destino, progress, t0);
+            var md5 = new String[1];
+            long bytes;
+            if (computeMd5) {
+                MessageDigest digest = ArtefactoHashService.md5();
+                ByteBuffer buffer = buffers.tomar();
+                try {
+                    bytes = copyAtomically(origen, destino, progress, () -> {
+                        md5[0] = ArtefactoFiles.hex(digest.digest());
+                        return a.getMd5() == null || a.getMd5().equalsIgnoreCase(md5[0]);
+                    }, buffer, digest);
+                } finally {
+                    buffers.devolver(buffer);
+                }
+            } else {
+                bytes = copyAtomically(origen, destino, progress);
+            }
+            var result = new CopyResult(a.getId(), origen, destino, bytes, md5[0], a.getMd5(), System.nanoTime() - t0,
+                    null, false);
+            if (result.md5() != null && result.coincide()) {
+                artefactoRepository.actualizarMd5YTamano(a.getId(), result.md5(), bytes);
+                cache.evictArtefactos(a.getVersionId());
+            }
+            return result;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private CopyResult copyToBlob(ArtefactoEntity a, Path origen, Path destino, LongConsumer progress, long t0) throws IOException {
+        var ingesta = blobStore.ingerir(origen, destino, a.getMd5(), progress);
+        var result = new CopyResult(a.getId(), origen, destino, ingesta.bytes(), ingesta.md5(), a.getMd5(),
+                System.nanoTime() - t0, ingesta.sha256(), ingesta.reutilizado());
+        // Solo se referencia el blob si el contenido es el declarado; si no, el job falla
+        if (result.coincide()) {
+            blobStore.asignar(a.getId(), ingesta.sha256());
+            artefactoRepository.actualizarMd5YTamano(a.getId(), ingesta.md5(), ingesta.bytes());
+            cache.evictArtefactos(a.getVersionId());
+        }
+        return result;
+    }
+
+    /** Copia con {@code transferTo}, sin pasar el contenido por la JVM. */
+    static long copyAtomically(Path origen, Path destino, LongConsumer progress) throws IOException {
+        return copyAtomically(origen, destino, progress, () -> true, null);
+    }
+
+    /** Lee con {@code buffer} y actualiza los {@code digests} en la misma pasada. */
+    static long copyAtomically(Path origen, Path destino, LongConsumer progress, ByteBuffer buffer,
+                               MessageDigest... digests) throws IOException {
+        return copyAtomically(origen, destino, progress, () -> true, buffer, digests);
+    }
+
+    /**
+     * Como {@link #copyAtomically(Path, Path, LongConsumer, ByteBuffer, MessageDigest...)}, pero
+     * {@code publicar} se consulta con los digests ya completos y el contenido todavía en el temporal:
+     * si devuelve {@code false} el temporal se borra y {@code destino} queda como estaba. Sin
+     * {@code buffer} copia con {@code transferTo}.
+     */
+    static long copyAtomically(Path origen, Path destino, LongConsumer progress, BooleanSupplier publicar,
+                               ByteBuffer buffer, MessageDigest... digests) throws IOException {
+        Path dir = destino.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve("." + destino.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            long copied;
+            try (FileChannel in = FileChannel.open(origen, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                copied = buffer == null ? transfer(in, out, progress) : copyAndDigest(in, out, buffer, digests, progress);
+                out.force(true);
+            }
+            if (publicar.getAsBoolean()) {
+                Files.move(tmp, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return copied;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static long transfer(FileChannel in, FileChannel out, LongConsumer progress) throws IOException {
+        long size = in.size();
+        long pos = 0;
+        while (pos < size) {
+            long n = in.transferTo(pos, Math.min(size - pos, TRANSFER_BYTES), out);
+            if (n <= 0) break;
+            pos += n;
+            progress.accept(n);
+        }
+        return pos;
+    }
+
+    private static long copyAndDigest(FileChannel in, FileChannel out, ByteBuffer buf, MessageDigest[] digests,
+                                      LongConsumer progress) throws IOException {
+        buf.clear();
+        long total = 0;
+        while (in.read(buf) >= 0 || buf.position() > 0) {
+            buf.flip();
+            int n = buf.remaining();
+            for (MessageDigest digest : digests) digest.update(buf.duplicate());
+            while (buf.hasRemaining()) out.write(buf);
+            buf.clear();
+            total += n;
+            progress.accept(n);
+        }
+        return total;
+    }
+}
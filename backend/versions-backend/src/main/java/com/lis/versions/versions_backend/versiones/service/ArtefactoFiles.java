@@ -0,0 +1,106 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+
+import java.net.URI;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+public final class ArtefactoFiles {
+    private ArtefactoFiles() {}
+
+    /**
+     * Archivo del artefacto: {@code ruta_destino/nombre_final} (o solo {@code ruta_destino} si no hay
+     * nombre final) bajo la raíz {@code versiones.copy.destino-dir}.
+     */
+    public static Path destino(ArtefactoEntity a, Path destinos) {
+        if (a.getRutaDestino() == null || a.getRutaDestino().isBlank()) {
+            throw new VersionService.ServiceException(422, "RUTA_DESTINO_VACIA", "Artefacto sin ruta_destino: " + a.getId());
+        }
+        return confinar(destinos, a.getRutaDestino(), a.getNombreFinal());
+    }
+
+    /**
+     * Archivo de origen a copiar, siempre bajo {@code staging}: {@code uploaded_url} si es una ruta
+     * relativa o una URI {@code file:} dentro de staging, si no {@code staging/<version_id>/<nombre_original>}.
+     */
+    public static Path origen(ArtefactoEntity a, Path staging) {
+        String url = a.getUploadedUrl();
+        if (url == null || url.isBlank()) {
+            return confinar(staging, a.getVersionId(), a.getNombreOriginal());
+        }
+        if (url.startsWith("file:")) {
+            Path base = staging.toAbsolutePath().normalize();
+            Path archivo;
+            try {
+                archivo = Path.of(URI.create(url));
+            } catch (IllegalArgumentException e) {
+                throw rutaInvalida(url);
+            }
+            if (tieneSubida(archivo) || !archivo.normalize().startsWith(base)) throw rutaInvalida(url);
+            return archivo.normalize();
+        }
+        if (url.contains("://")) {
+            throw new VersionService.ServiceException(422, "ORIGEN_NO_LOCAL", "Origen remoto no soportado para copia: " + url);
+        }
+        return confinar(staging, url);
+    }
+
+    /**
+     * Rechaza con 422 {@code RUTA_INVALIDA} las rutas declaradas por el cliente que son absolutas o
+     * tienen segmentos {@code ..}. {@code uploaded_url} con esquema se comprueba al usarla.
+     */
+    public static void validarRutas(String rutaDestino, String nombreOriginal, String nombreFinal, String uploadedUrl) {
+        relativa(rutaDestino);
+        relativa(nombreOriginal);
+        relativa(nombreFinal);
+        if (uploadedUrl != null && !uploadedUrl.contains(":")) relativa(uploadedUrl);
+    }
+
+    /** {@code raiz/partes...} normalizado; falla si alguna parte escapa de {@code raiz}. */
+    static Path confinar(Path raiz, String... partes) {
+        Path base = raiz.toAbsolutePath().normalize();
+        Path ruta = base;
+        for (String parte : partes) {
+            if (parte == null || parte.isBlank()) continue;
+            ruta = ruta.resolve(relativa(parte));
+        }
+        ruta = ruta.normalize();
+        if (ruta.equals(base) || !ruta.startsWith(base)) throw rutaInvalida(String.join("/", partes));
+        return ruta;
+    }
+
+    private static Path relativa(String valor) {
+        if (valor == null || valor.isBlank()) return null;
+        Path p;
+        try {
+            p = Path.of(valor);
+        } catch (InvalidPathException e) {
+            throw rutaInvalida(valor);
+        }
+        if (p.isAbsolute() || p.getRoot() != null || tieneSubida(p)) throw rutaInvalida(valor);
+        return p;
+    }
+
+    private static boolean tieneSubida(Path p) {
+        for (Path segmento : p) {
+            if (segmento.toString().equals("..")) return true;
+        }
+        return false;
+    }
+
+    private static VersionService.ServiceException rutaInvalida(String valor) {
+        return new VersionService.ServiceException(422, "RUTA_INVALIDA",
+                "Ruta fuera del directorio permitido o con '..': " + valor);
+    }
+
+    public static String hex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    public static double mbPorSegundo(long bytes, long nanos) {
+        if (nanos <= 0) return 0;
+        return Math.round(bytes / 1_000_000.0 / (nanos / 1_000_000_000.0) * 100) / 100.0;
+    }
+}
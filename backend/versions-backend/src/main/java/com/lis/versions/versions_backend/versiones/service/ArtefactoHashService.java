@@ -0,0 +1,143 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Calcula MD5 y tamaño de los artefactos con {@link FileChannel#read} sobre un buffer directo del
+ * {@link BufferPool}, y hashea en paralelo los artefactos de una versión con un límite global de
+ * {@code versiones.md5.parallelism}.
+ *
+ * La memoria usada es fija e independiente del tamaño y del número de archivos. Se lee una sola vez
+ * en secuencia, así que mapear el archivo no ahorra copias y cada mapeo solo se libera cuando el GC
+ * recoge el buffer.
+ */
+@Service
+public class ArtefactoHashService {
+    private final ArtefactoRepository artefactoRepository;
+    private final VersionCache cache;
+    private final Path destinos;
+    private final BufferPool buffers;
+    private final Semaphore permits;
+
+    public ArtefactoHashService(ArtefactoRepository artefactoRepository,
+                                VersionCache cache,
+                                BufferPool buffers,
+                                @Value("${versiones.copy.destino-dir:data/publicado}") String destinos,
+                                @Value("${versiones.md5.parallelism:4}") int parallelism) {
+        this.artefactoRepository = artefactoRepository;
+        this.cache = cache;
+        this.buffers = buffers;
+        this.destinos = Path.of(destinos);
+        this.permits = new Semaphore(Math.max(1, parallelism));
+    }
+
+    public record HashResult(String artefactoId, Path archivo, String md5, long sizeBytes, long nanos,
+                             String md5Declarado) {
+        public boolean coincide() {
+            return md5Declarado == null || md5Declarado.equalsIgnoreCase(md5);
+        }
+
+        public double mbPorSegundo() {
+            return ArtefactoFiles.mbPorSegundo(sizeBytes, nanos);
+        }
+    }
+
+    public static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** MD5 y tamaño del archivo leyéndolo de principio a fin en {@code buffer}. */
+    public static HashResult hash(Path archivo, ByteBuffer buffer) throws IOException {
+        long t0 = System.nanoTime();
+        MessageDigest digest = md5();
+        long size = 0;
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (ch.read(buffer) >= 0 || buffer.position() > 0) {
+                buffer.flip();
+                size += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new HashResult(null, archivo, ArtefactoFiles.hex(digest.digest()), size, System.nanoTime() - t0, null);
+    }
+
+    /**
+     * Hashea en paralelo todos los artefactos de la versión y guarda {@code md5} y {@code size_bytes}.
+     * Si el cliente declaró un MD5 distinto al calculado no se sobrescribe: el resultado lo marca
+     * con {@link HashResult#coincide()} en falso.
+     */
+    public List<HashResult> hashVersion(String versionId) throws IOException, InterruptedException {
+        return hashVersion(versionId, Set.of());
+    }
+
+    /** Como {@link #hashVersion(String)}, sin releer los artefactos de {@code yaVerificados}. */
+    public List<HashResult> hashVersion(String versionId, Set<String> yaVerificados) throws IOException, InterruptedException {
+        var arts = artefactoRepository.findByVersionId(versionId).stream()
+                .filter(a -> !yaVerificados.contains(a.getId()))
+                .toList();
+        List<Future<HashResult>> futures = new ArrayList<>(arts.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ArtefactoEntity a : arts) {
+                futures.add(executor.submit(() -> hashAndStore(a)));
+            }
+        }
+        List<HashResult> results = new ArrayList<>(futures.size());
+        for (Future<HashResult> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof UncheckedIOException uio) throw uio.getCause();
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private HashResult hashAndStore(ArtefactoEntity a) throws IOException, InterruptedException {
+        permits.acquire();
+        try {
+            HashResult h;
+            ByteBuffer buffer = buffers.tomar();
+            try {
+                h = hash(ArtefactoFiles.destino(a, destinos), buffer);
+            } finally {
+                buffers.devolver(buffer);
+            }
+            var result = new HashResult(a.getId(), h.archivo(), h.md5(), h.sizeBytes(), h.nanos(), a.getMd5());
+            if (result.coincide()) {
+                artefactoRepository.actualizarMd5YTamano(a.getId(), result.md5(), result.sizeBytes());
+                cache.evictArtefactos(a.getVersionId());
+            }
+            return result;
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lis.versions.versions_backend.common.db.EnShard;
+import com.lis.versions.versions_backend.versiones.domain.EventoAuditoriaEntity;
+import com.lis.versions.versions_backend.versiones.repo.AuditoriaFiltro;
+import com.lis.versions.versions_backend.versiones.repo.EventoAuditoriaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exporta auditoría en streaming: cada fila del cursor se escribe en {@code out} y se descarta,
+ * así el heap no depende de la cantidad de eventos. Ninguno de los métodos cierra {@code out}.
+ *
+ * La transacción es de solo lectura para que en el modo SQLite afinado el recorrido use el pool
+ * de lectura y no retenga una conexión de escritura.
+ */
+@Service
+public class AuditoriaExporter {
+    private static final int BUFFER_CHARS = 64 * 1024;
+    private static final String CSV_HEADER = "id,version_id,accion,actor,ip_host,detalles,timestamp\r\n";
+
+    private final EventoAuditoriaRepository eventoAuditoriaRepository;
+    private final ObjectMapper objectMapper;
+    // Sin flush por evento: el destino decide cuándo vaciar su buffer.
+    private final ObjectWriter writer;
+
+    public AuditoriaExporter(EventoAuditoriaRepository eventoAuditoriaRepository, ObjectMapper objectMapper) {
+        this.eventoAuditoriaRepository = eventoAuditoriaRepository;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /** Un evento JSON por línea, en orden de timestamp. Devuelve la cantidad de eventos. */
+    @EnShard(version = "#filtro?.versionId()")
+    @Transactional(readOnly = true)
+    public long ndjson(AuditoriaFiltro filtro, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            return eventoAuditoriaRepository.recorrer(filtro, e -> {
+                try {
+                    writer.writeValue(gen, e);
+                    gen.writeRaw('\n');
+                } catch (IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** CSV (RFC 4180, UTF-8) con encabezado, en orden de timestamp. Devuelve la cantidad de eventos. */
+    @EnShard(version = "#filtro?.versionId()")
+    @Transactional(readOnly = true)
+    public long csv(AuditoriaFiltro filtro, OutputStream out) throws IOException {
+        var w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        try {
+            w.write(CSV_HEADER);
+            long n = eventoAuditoriaRepository.recorrer(filtro, e -> {
+                try {
+                    fila(w, e);
+                } catch (IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+            });
+            w.flush();
+            return n;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void fila(Writer w, EventoAuditoriaEntity e) throws IOException {
+        campo(w, e.getId());
+        w.write(',');
+        campo(w, e.getVersionId());
+        w.write(',');
+        campo(w, e.getAccion());
+        w.write(',');
+        campo(w, e.getActor());
+        w.write(',');
+        campo(w, e.getIpHost());
+        w.write(',');
+        campo(w, e.getDetalles());
+        w.write(',');
+        campo(w, e.getTimestamp());
+        w.write("\r\n");
+    }
+
+    private static void campo(Writer w, String v) throws IOException {
+        if (v == null) return;
+        boolean comillas = false;
+        for (int i = 0; i < v.length() && !comillas; i++) {
+            char c = v.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            w.write(v);
+            return;
+        }
+        w.write('"');
+        w.write(v.replace("\"", "\"\""));
+        w.write('"');
+    }
+}
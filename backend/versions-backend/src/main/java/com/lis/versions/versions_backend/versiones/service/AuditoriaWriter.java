@@ -0,0 +1,333 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.common.db.ShardContext;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.domain.EventoAuditoriaEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritura de {@code evento_auditoria} con INSERT multi-fila.
+ *
+ * <ul>
+ *   <li>{@code SYNC}: los eventos se insertan en {@code evento_auditoria} dentro de la transacción de
+ *   negocio. Para despliegues que exigen ver la auditoría en cuanto se confirma la operación.</li>
+ *   <li>{@code ASYNC}: outbox transaccional. Los eventos se insertan en {@code auditoria_outbox} (solo
+ *   rowid, sin índices) dentro de la transacción de negocio, así que un rollback los descarta y una
+ *   caída no los pierde. Un único writer los pasa a {@code evento_auditoria} por lotes, cada lote
+ *   en una transacción que inserta y borra del outbox a la vez.</li>
+ * </ul>
+ *
+ * Un lote que no se puede volcar se queda en el outbox y se reintenta con espera creciente. Si falla
+ * por sus datos (una restricción de {@code evento_auditoria}), se vuelca fila a fila: las demás pasan
+ * y la que falla suma un intento; tras {@code max-intentos} se mueve a {@code auditoria_fallida} para
+ * revisarla, así una fila envenenada no frena al resto. Nunca se descarta auditoría. En modo por
+ * cliente cada shard tiene su outbox y el writer los recorre todos.
+ *
+ * Backpressure: con {@code outbox-max} eventos pendientes o más, el llamador escribe directamente en
+ * {@code evento_auditoria} como en {@code SYNC}.
+ */
+@Component
+public class AuditoriaWriter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaWriter.class);
+    private static final int COLUMNS = 7;
+    private static final String CAMPOS = "id, version_id, accion, actor, ip_host, detalles, timestamp";
+    private static final long MAX_ESPERA_MS = 30_000;
+    private static final int MAX_ERROR = 500;
+
+    public enum Modo { SYNC, ASYNC }
+
+    private final JdbcTemplate jdbc;
+    private final Shards shards;
+    private final TransactionTemplate requiresNew;
+    private final Modo modo;
+    private final int maxBatch;
+    private final long flushIntervalMs;
+    private final long outboxMax;
+    private final int maxIntentos;
+    private final AtomicLong pendientes = new AtomicLong();
+    /** Epoch ms del evento pendiente más antiguo tras el último volcado; 0 si el outbox quedó vacío. */
+    private final AtomicLong masAntiguo = new AtomicLong();
+    private final Timer flushTimer;
+    private final Counter escritos;
+    private final Counter backpressure;
+    private final Counter fallidos;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditoriaWriter(JdbcTemplate jdbc,
+                           Shards shards,
+                           PlatformTransactionManager txManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${versiones.auditoria.modo:SYNC}") Modo modo,
+                           @Value("${versiones.auditoria.outbox-max:10000}") long outboxMax,
+                           @Value("${versiones.auditoria.max-batch:500}") int maxBatch,
+                           @Value("${versiones.auditoria.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${versiones.auditoria.max-intentos:5}") int maxIntentos) {
+        this.jdbc = jdbc;
+        this.shards = shards;
+        this.requiresNew = new TransactionTemplate(txManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.modo = modo;
+        this.outboxMax = outboxMax;
+        this.maxBatch = maxBatch;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.flushTimer = Timer.builder("versiones.auditoria.flush").register(meterRegistry);
+        this.escritos = Counter.builder("versiones.auditoria.eventos").register(meterRegistry);
+        this.backpressure = Counter.builder("versiones.auditoria.backpressure")
+                .description("Eventos escritos por el llamador por outbox lleno")
+                .register(meterRegistry);
+        this.fallidos = Counter.builder("versiones.auditoria.fallidos")
+                .description("Eventos movidos a auditoria_fallida tras max-intentos")
+                .register(meterRegistry);
+        Gauge.builder("versiones.auditoria.outbox", pendientes, AtomicLong::get)
+                .description("Eventos en auditoria_outbox pendientes de volcar")
+                .register(meterRegistry);
+        Gauge.builder("versiones.auditoria.outbox.antiguedad", masAntiguo,
+                        m -> m.get() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - m.get()) / 1000.0)
+                .description("Antigüedad del evento más antiguo de auditoria_outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void registrar(EventoAuditoriaEntity evento) {
+        registrarTodos(List.of(evento));
+    }
+
+    public void registrarTodos(List<EventoAuditoriaEntity> eventos) {
+        if (eventos.isEmpty()) return;
+        if (modo == Modo.SYNC) {
+            insert("evento_auditoria", eventos);
+            escritos.increment(eventos.size());
+            return;
+        }
+        if (pendientes.get() >= outboxMax) {
+            backpressure.increment(eventos.size());
+            insert("evento_auditoria", eventos);
+            escritos.increment(eventos.size());
+            return;
+        }
+        insert("auditoria_outbox", eventos);
+        int n = eventos.size();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    encolados(n);
+                }
+            });
+        } else {
+            encolados(n);
+        }
+    }
+
+    private void encolados(int n) {
+        if (pendientes.addAndGet(n) >= maxBatch && writer != null) LockSupport.unpark(writer);
+    }
+
+    private void insert(String tabla, List<EventoAuditoriaEntity> eventos) {
+        for (int from = 0; from < eventos.size(); from += maxBatch) {
+            var chunk = eventos.subList(from, Math.min(eventos.size(), from + maxBatch));
+            var sql = new StringBuilder("INSERT INTO ").append(tabla).append(" (").append(CAMPOS).append(") VALUES ")
+                    .append(String.join(",", Collections.nCopies(chunk.size(), "(?,?,?,?,?,?,?)")));
+            var args = new Object[chunk.size() * COLUMNS];
+            int i = 0;
+            for (var ev : chunk) {
+                args[i++] = ev.getId();
+                args[i++] = ev.getVersionId();
+                args[i++] = ev.getAccion();
+                args[i++] = ev.getActor();
+                args[i++] = ev.getIpHost();
+                args[i++] = ev.getDetalles();
+                args[i++] = ev.getTimestamp();
+            }
+            jdbc.update(sql.toString(), args);
+        }
+    }
+
+    private void writerLoop() {
+        int fallos = 0;
+        while (running) {
+            long espera = fallos == 0 ? flushIntervalMs : Math.min(MAX_ESPERA_MS, flushIntervalMs << Math.min(fallos, 16));
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(espera));
+            fallos = drenar() < 0 ? fallos + 1 : 0;
+        }
+    }
+
+    /**
+     * Vuelca el outbox de cada shard a {@code evento_auditoria}. Devuelve los eventos volcados, o -1 si
+     * algún shard falló (sus eventos siguen en el outbox para el siguiente intento).
+     */
+    int drenar() {
+        int total = 0;
+        boolean fallo = false;
+        long antiguo = Long.MAX_VALUE;
+        for (String shard : shards.claves()) {
+            try {
+                total += ShardContext.en(shard, this::drenarShard);
+            } catch (RuntimeException e) {
+                fallo = true;
+                log.warn("No se pudo volcar auditoria_outbox del shard {}; se reintentará: {}",
+                        shard == null ? "global" : shard, e.getMessage());
+            }
+            try {
+                antiguo = Math.min(antiguo, ShardContext.en(shard, this::masAntiguoShard));
+            } catch (RuntimeException e) {
+                log.debug("No se pudo leer la antigüedad de auditoria_outbox: {}", e.getMessage());
+            }
+        }
+        masAntiguo.set(antiguo == Long.MAX_VALUE ? 0 : antiguo);
+        return fallo ? -1 : total;
+    }
+
+    private long masAntiguoShard() {
+        return jdbc.queryForList("SELECT timestamp FROM auditoria_outbox ORDER BY seq LIMIT 1", String.class).stream()
+                .findFirst()
+                .map(ts -> LocalDateTime.parse(ts).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(Long.MAX_VALUE);
+    }
+
+    /** Lotes de hasta {@code maxBatch} por orden de {@code seq}; cada fila se visita una vez por volcado. */
+    private int drenarShard() {
+        int total = 0;
+        int fallidas = 0;
+        long desde = 0;
+        while (true) {
+            long d = desde;
+            Long hasta = jdbc.queryForObject("SELECT MAX(seq) FROM (SELECT seq FROM auditoria_outbox WHERE seq > ? "
+                    + "ORDER BY seq LIMIT ?)", Long.class, d, maxBatch);
+            if (hasta == null) break;
+            int n;
+            try {
+                n = flushTimer.record(() -> requiresNew.execute(s -> volcar(d, hasta)));
+            } catch (RuntimeException e) {
+                if (!errorDeDatos(e)) throw e;
+                var r = aislar(d, hasta);
+                n = r[0];
+                fallidas += r[1];
+            }
+            total += n;
+            contabilizar(n);
+            desde = hasta;
+        }
+        if (fallidas > 0) throw new IllegalStateException(fallidas + " eventos de auditoria_outbox no se pudieron volcar");
+        return total;
+    }
+
+    private int volcar(long desde, long hasta) {
+        int volcados = jdbc.update("INSERT INTO evento_auditoria (" + CAMPOS + ") SELECT " + CAMPOS
+                + " FROM auditoria_outbox WHERE seq > ? AND seq <= ? ORDER BY seq", desde, hasta);
+        jdbc.update("DELETE FROM auditoria_outbox WHERE seq > ? AND seq <= ?", desde, hasta);
+        return volcados;
+    }
+
+    /**
+     * Vuelca el lote fila a fila. Una fila que falla por sus datos suma un intento y, al llegar a
+     * {@code maxIntentos}, pasa a {@code auditoria_fallida}. Devuelve {volcadas, fallidas}.
+     */
+    private int[] aislar(long desde, long hasta) {
+        int volcadas = 0;
+        int fallidas = 0;
+        for (long seq : jdbc.queryForList("SELECT seq FROM auditoria_outbox WHERE seq > ? AND seq <= ? ORDER BY seq",
+                Long.class, desde, hasta)) {
+            try {
+                volcadas += requiresNew.execute(s -> volcar(seq - 1, seq));
+            } catch (RuntimeException e) {
+                if (!errorDeDatos(e)) throw e;
+                fallidas++;
+                String error = String.valueOf(e.getMessage());
+                Integer movidas = requiresNew.execute(s -> {
+                    jdbc.update("UPDATE auditoria_outbox SET intentos = intentos + 1, error = ? WHERE seq = ?",
+                            error.length() > MAX_ERROR ? error.substring(0, MAX_ERROR) : error, seq);
+                    int n = jdbc.update("INSERT INTO auditoria_fallida (seq, " + CAMPOS + ", intentos, error, fallido_en) "
+                            + "SELECT seq, " + CAMPOS + ", intentos, error, ? FROM auditoria_outbox "
+                            + "WHERE seq = ? AND intentos >= ?", VersionService.now(), seq, maxIntentos);
+                    jdbc.update("DELETE FROM auditoria_outbox WHERE seq = ? AND intentos >= ?", seq, maxIntentos);
+                    return n;
+                });
+                if (movidas != null && movidas > 0) {
+                    pendientes.updateAndGet(p -> Math.max(0, p - 1));
+                    fallidos.increment();
+                    log.error("Evento de auditoria_outbox seq={} movido a auditoria_fallida tras {} intentos: {}",
+                            seq, maxIntentos, error);
+                }
+            }
+        }
+        return new int[]{volcadas, fallidas};
+    }
+
+    private void contabilizar(int n) {
+        pendientes.updateAndGet(p -> Math.max(0, p - n));
+        escritos.increment(n);
+    }
+
+    /** Un error propio de la fila (restricción, tipo, tamaño), no de la base: reintentar el lote no lo arregla. */
+    private static boolean errorDeDatos(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataIntegrityViolationException) return true;
+            if (t instanceof SQLiteException se) {
+                String codigo = se.getResultCode().name();
+                return codigo.startsWith("SQLITE_CONSTRAINT") || codigo.equals("SQLITE_TOOBIG")
+                        || codigo.equals("SQLITE_MISMATCH");
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (modo != Modo.ASYNC || running) return;
+        pendientes.set(shards.sumar(() -> jdbc.queryForObject("SELECT COUNT(*) FROM auditoria_outbox", Long.class)));
+        running = true;
+        writer = Thread.ofPlatform().name("auditoria-writer").daemon(true).start(this::writerLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drenar();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Arranca antes y se detiene después de los componentes de fase por defecto (motor de jobs).
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
@@ -0,0 +1,247 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.common.db.ShardContext;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.repo.BlobRepository;
+import com.lis.versions.versions_backend.versiones.repo.BlobStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Almacén de archivos por contenido: cada archivo distinto se guarda una sola vez en
+ * {@code versiones.blobs.dir/ab/cd/<sha256>} (solo lectura) y el destino de cada artefacto es un
+ * hard link a ese blob. El SHA-256 se calcula en la misma pasada de la copia.
+ *
+ * Si el MD5 declarado y el tamaño ya corresponden a un blob, el origen solo se lee para
+ * confirmar el SHA-256 y no se escribe nada. Las referencias ({@code blob.refs}) las mantienen
+ * triggers sobre {@code artefacto.blob_sha256}; los blobs sin referencias se borran pasada la
+ * gracia {@code versiones.blobs.gracia-ms}.
+ */
+@Service
+public class BlobStore {
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+    private static final int GC_LOTE = 500;
+
+    private final BlobRepository repository;
+    private final Shards shards;
+    private final BufferPool buffers;
+    private final boolean enabled;
+    private final Path dir;
+    private final Duration gracia;
+    /** Ingesta (lectura) frente a GC (escritura): la GC no borra un blob mientras se enlaza. */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter nuevos;
+    private final Counter reutilizados;
+
+    public BlobStore(BlobRepository repository,
+                     Shards shards,
+                     BufferPool buffers,
+                     MeterRegistry meterRegistry,
+                     @Value("${versiones.blobs.enabled:true}") boolean enabled,
+                     @Value("${versiones.blobs.dir:data/blobs}") String dir,
+                     @Value("${versiones.blobs.gracia-ms:3600000}") long graciaMs) {
+        this.repository = repository;
+        this.shards = shards;
+        this.buffers = buffers;
+        this.enabled = enabled;
+        this.dir = Path.of(dir).toAbsolutePath();
+        this.gracia = Duration.ofMillis(graciaMs);
+        this.nuevos = ingestas(meterRegistry, "nuevo");
+        this.reutilizados = ingestas(meterRegistry, "reutilizado");
+    }
+
+    private static Counter ingestas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("versiones.blobs.ingestas")
+                .description("Archivos ingresados al almacén por contenido")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    public record Ingesta(String sha256, String md5, long bytes, boolean reutilizado) {}
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Con un archivo por cliente, las referencias de cada shard cuentan solo sus propios blobs
+    Path ruta(String sha256) {
+        String shard = ShardContext.actual();
+        Path base = shard == null ? dir : dir.resolve("shards").resolve(shard);
+        return base.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static String ahora() {
+        return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Guarda {@code origen} en el almacén (o reutiliza el blob con el mismo contenido) y lo enlaza
+     * en {@code destino} si su MD5 es el declarado. La referencia se asigna aparte con {@link #asignar}; hasta entonces el
+     * blob queda protegido de la GC por la gracia.
+     *
+     * @param md5Declarado si coincide con un blob conocido se evita escribir la copia
+     */
+    public Ingesta ingerir(Path origen, Path destino, String md5Declarado,
+                           LongConsumer progress) throws IOException {
+        lock.readLock().lock();
+        try {
+            Ingesta ingesta = null;
+            long size = Files.size(origen);
+            if (md5Declarado != null && repository.existeMd5(md5Declarado.toLowerCase(), size)) {
+                ingesta = verificar(origen, progress);
+            }
+            if (ingesta == null) ingesta = copiar(origen, progress);
+            // Registrar antes de enlazar renueva liberado_en: la GC ya no lo considera huérfano
+            repository.registrar(ingesta.sha256(), ingesta.md5(), ingesta.bytes(), ahora());
+            // Un contenido distinto del declarado no se publica: el destino existente no se toca
+            if (md5Declarado != null && !md5Declarado.equalsIgnoreCase(ingesta.md5())) return ingesta;
+            materializar(ruta(ingesta.sha256()), destino);
+            (ingesta.reutilizado() ? reutilizados : nuevos).increment();
+            return ingesta;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Solo lectura: SHA-256 y MD5 del origen; null si no hay un blob con ese contenido. */
+    private Ingesta verificar(Path origen, LongConsumer progress) throws IOException {
+        MessageDigest sha = sha256();
+        MessageDigest md5 = ArtefactoHashService.md5();
+        long total = 0;
+        ByteBuffer buf = buffers.tomar();
+        try (FileChannel in = FileChannel.open(origen, StandardOpenOption.READ)) {
+            int n;
+            while ((n = in.read(buf)) >= 0) {
+                buf.flip();
+                sha.update(buf.duplicate());
+                md5.update(buf);
+                buf.clear();
+                total += n;
+                progress.accept(n);
+            }
+        } finally {
+            buffers.devolver(buf);
+        }
+        String hash = ArtefactoFiles.hex(sha.digest());
+        if (!Files.exists(ruta(hash))) return null;
+        return new Ingesta(hash, ArtefactoFiles.hex(md5.digest()), total, true);
+    }
+
+    private Ingesta copiar(Path origen, LongConsumer progress) throws IOException {
+        MessageDigest sha = sha256();
+        MessageDigest md5 = ArtefactoHashService.md5();
+        Path ingesta = dir.resolve(".ingesta").resolve(UUID.randomUUID().toString());
+        ByteBuffer buf = buffers.tomar();
+        try {
+            long bytes;
+            try {
+                bytes = ArtefactoCopyService.copyAtomically(origen, ingesta, progress, buf, sha, md5);
+            } finally {
+                buffers.devolver(buf);
+            }
+            String hash = ArtefactoFiles.hex(sha.digest());
+            Path blob = ruta(hash);
+            boolean existia = Files.exists(blob);
+            if (!existia) {
+                ingesta.toFile().setReadOnly();
+                Files.createDirectories(blob.getParent());
+                try {
+                    Files.move(ingesta, blob, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    existia = true; // otra ingesta concurrente del mismo contenido
+                }
+            }
+            return new Ingesta(hash, ArtefactoFiles.hex(md5.digest()), bytes, existia);
+        } finally {
+            Files.deleteIfExists(ingesta);
+        }
+    }
+
+    /**
+     * Enlaza el blob en {@code destino} (hard link a un temporal y rename atómico). Si el destino
+     * está en otro sistema de archivos o no admite hard links, copia.
+     */
+    static void materializar(Path blob, Path destino) throws IOException {
+        Path dirDestino = destino.toAbsolutePath().getParent();
+        Files.createDirectories(dirDestino);
+        Path tmp = dirDestino.resolve("." + destino.getFileName() + "." + UUID.randomUUID() + ".lnk");
+        try {
+            Files.createLink(tmp, blob);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            ArtefactoCopyService.copyAtomically(blob, destino, n -> {});
+            return;
+        }
+        try {
+            Files.move(tmp, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public void asignar(String artefactoId, String sha256) {
+        repository.asignar(artefactoId, sha256);
+    }
+
+    public BlobStats stats() {
+        return repository.stats();
+    }
+
+    /** Borra los blobs sin referencias desde hace más de la gracia; devuelve cuántos. */
+    @Scheduled(fixedDelayString = "${versiones.blobs.gc-ms:600000}", initialDelayString = "${versiones.blobs.gc-ms:600000}")
+    public int recolectar() {
+        if (!enabled) return 0;
+        return shards.enCada(this::recolectarShard).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int recolectarShard() {
+        String limite = LocalDateTime.now().minus(gracia).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        int borrados = 0;
+        lock.writeLock().lock();
+        try {
+            for (String sha : repository.huerfanos(limite, GC_LOTE)) {
+                if (!repository.eliminar(sha, limite)) continue;
+                try {
+                    Files.deleteIfExists(ruta(sha));
+                    borrados++;
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar el blob {}: {}", sha, e.getMessage());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (borrados > 0) log.info("{} blobs sin referencias eliminados", borrados);
+        return borrados;
+    }
+}
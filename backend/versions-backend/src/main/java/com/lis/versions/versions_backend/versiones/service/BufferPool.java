@@ -0,0 +1,52 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Buffers directos de lectura compartidos por la copia, el MD5, el almacén de blobs, las subidas, los
+ * sellos y el CRC de las evidencias. Se reservan al arrancar {@code versiones.copy.parallelism +
+ * versiones.md5.parallelism} buffers de {@code versiones.buffers.bytes} y se reutilizan en cada
+ * archivo: la memoria fuera del heap es fija y no depende del número de llamadas. Si están todos
+ * prestados, {@link #tomar()} espera.
+ *
+ * Cada préstamo se devuelve con {@link #devolver} en un {@code finally}; nadie retiene dos a la vez,
+ * así la espera no puede quedar en un ciclo.
+ */
+@Component
+public class BufferPool {
+    private final BlockingQueue<ByteBuffer> libres;
+    private final int bytes;
+
+    public BufferPool(@Value("${versiones.copy.parallelism:4}") int copyParallelism,
+                      @Value("${versiones.md5.parallelism:4}") int md5Parallelism,
+                      @Value("${versiones.buffers.bytes:1048576}") int bytes) {
+        int n = Math.max(1, copyParallelism) + Math.max(1, md5Parallelism);
+        this.bytes = Math.max(1024, bytes);
+        this.libres = new ArrayBlockingQueue<>(n);
+        for (int i = 0; i < n; i++) libres.add(ByteBuffer.allocateDirect(this.bytes));
+    }
+
+    /** Un buffer vacío; espera a que se devuelva uno si están todos en uso. */
+    public ByteBuffer tomar() throws InterruptedIOException {
+        try {
+            return libres.take().clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando un buffer de lectura");
+        }
+    }
+
+    public void devolver(ByteBuffer buffer) {
+        libres.add(buffer);
+    }
+
+    public int bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,229 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.jobs.JobStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Difunde por SSE las transiciones de versión y los cambios de estado de jobs, ya confirmados.
+ *
+ * Cada suscriptor tiene un buffer acotado ({@code versiones.eventos.buffer}) y un hilo virtual que
+ * lo vacía hacia su {@link SseEmitter}; publicar nunca bloquea al productor. En el buffer los
+ * eventos de la misma versión o del mismo job se coalescen (queda el último) y, si aun así se
+ * llena, se descarta el más antiguo y el cliente recibe un evento {@code descartados} con la
+ * cantidad perdida, para que recargue el estado por la API.
+ */
+@Component
+public class EventosHub implements SmartLifecycle {
+
+    /** Evento a enviar: {@code nombre} es el campo {@code event:} del SSE. */
+    record Evento(long id, String nombre, String versionId, String cliente, Object data) {}
+
+    private final VersionCache cache;
+    private final int buffer;
+    private final long heartbeatMs;
+    private final int maxSuscriptores;
+    private final Counter descartados;
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final ThreadFactory hilos = Thread.ofVirtual().name("sse-", 0).factory();
+    private volatile boolean running;
+
+    public EventosHub(VersionCache cache,
+                      MeterRegistry meterRegistry,
+                      @Value("${versiones.eventos.buffer:256}") int buffer,
+                      @Value("${versiones.eventos.heartbeat-ms:15000}") long heartbeatMs,
+                      @Value("${versiones.eventos.max-suscriptores:10000}") int maxSuscriptores) {
+        this.cache = cache;
+        this.buffer = Math.max(1, buffer);
+        this.heartbeatMs = heartbeatMs;
+        this.maxSuscriptores = maxSuscriptores;
+        this.descartados = Counter.builder("versiones.eventos.descartados")
+                .description("Eventos SSE descartados por suscriptores lentos")
+                .register(meterRegistry);
+        Gauge.builder("versiones.eventos.suscriptores", suscriptores, Set::size)
+                .description("Suscriptores SSE conectados")
+                .register(meterRegistry);
+    }
+
+    /** Abre una suscripción; {@code versionId} y {@code cliente} son filtros opcionales. */
+    public SseEmitter suscribir(String versionId, String cliente) {
+        if (suscriptores.size() >= maxSuscriptores) {
+            throw new VersionService.ServiceException(503, "DEMASIADOS_SUSCRIPTORES", "Límite de suscriptores SSE alcanzado");
+        }
+        var s = new Suscriptor(new SseEmitter(), versionId, cliente);
+        s.emitter.onCompletion(() -> quitar(s));
+        s.emitter.onTimeout(() -> quitar(s));
+        s.emitter.onError(e -> quitar(s));
+        suscriptores.add(s);
+        hilos.newThread(s::bombear).start();
+        return s.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVersionEstado(VersionEstadoEvent e) {
+        difundir(new Evento(secuencia.incrementAndGet(), "version", e.versionId(), e.cliente(), e));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobStatus(JobStatusEvent e) {
+        if (suscriptores.isEmpty()) return;
+        String cliente = cache.version(e.versionId()).map(VersionEntity::getCliente).orElse(null);
+        difundir(new Evento(secuencia.incrementAndGet(), "job", e.versionId(), cliente, e));
+    }
+
+    private void difundir(Evento e) {
+        String clave = e.nombre() + ":" + (e.data() instanceof JobStatusEvent j ? j.jobId() : e.versionId());
+        for (Suscriptor s : suscriptores) {
+            if (s.acepta(e) && s.ofrecer(clave, e, buffer)) descartados.increment();
+        }
+    }
+
+    private void quitar(Suscriptor s) {
+        suscriptores.remove(s);
+        s.cerrar();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Suscriptor s : suscriptores) {
+            quitar(s);
+            s.emitter.complete();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Buffer coalescente de un cliente SSE. Se usa {@link ReentrantLock} para no fijar el hilo virtual. */
+    final class Suscriptor {
+        final SseEmitter emitter;
+        final String versionId;
+        final String cliente;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition hayEventos = lock.newCondition();
+        private final LinkedHashMap<String, Evento> pendientes = new LinkedHashMap<>();
+        private long perdidos;
+        private boolean cerrado;
+
+        Suscriptor(SseEmitter emitter, String versionId, String cliente) {
+            this.emitter = emitter;
+            this.versionId = versionId;
+            this.cliente = cliente;
+        }
+
+        boolean acepta(Evento e) {
+            return (versionId == null || versionId.equals(e.versionId()))
+                    && (cliente == null || cliente.equals(e.cliente()));
+        }
+
+        /** Encola sin bloquear; devuelve {@code true} si tuvo que descartar un evento. */
+        boolean ofrecer(String clave, Evento e, int capacidad) {
+            lock.lock();
+            try {
+                if (cerrado) return false;
+                boolean descartado = false;
+                // remove + put: el evento coalescido pasa al final y los ids siguen en orden
+                if (pendientes.remove(clave) == null && pendientes.size() >= capacidad) {
+                    Iterator<Evento> it = pendientes.values().iterator();
+                    it.next();
+                    it.remove();
+                    perdidos++;
+                    descartado = true;
+                }
+                pendientes.put(clave, e);
+                hayEventos.signal();
+                return descartado;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Evento> pendientes() {
+            lock.lock();
+            try {
+                return new ArrayList<>(pendientes.values());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cerrar() {
+            lock.lock();
+            try {
+                cerrado = true;
+                pendientes.clear();
+                hayEventos.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void bombear() {
+            try {
+                while (true) {
+                    List<Evento> lote;
+                    long n;
+                    lock.lock();
+                    try {
+                        if (!cerrado && pendientes.isEmpty() && perdidos == 0) {
+                            hayEventos.await(heartbeatMs, TimeUnit.MILLISECONDS);
+                        }
+                        if (cerrado) return;
+                        lote = new ArrayList<>(pendientes.values());
+                        pendientes.clear();
+                        n = perdidos;
+                        perdidos = 0;
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (n > 0) {
+                        emitter.send(SseEmitter.event().name("descartados").data(Map.of("cantidad", n), MediaType.APPLICATION_JSON));
+                    }
+                    for (Evento e : lote) {
+                        emitter.send(SseEmitter.event().id(Long.toString(e.id())).name(e.nombre())
+                                .data(e.data(), MediaType.APPLICATION_JSON));
+                    }
+                    // Sin eventos: comentario para mantener viva la conexión y detectar clientes caídos
+                    if (lote.isEmpty() && n == 0) emitter.send(SseEmitter.event().comment("ping"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emitter ya completado: el contenedor cierra la respuesta
+                quitar(this);
+            } catch (InterruptedException e) {
+                quitar(this);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import com.lis.versions.versions_backend.versiones.repo.AuditoriaFiltro;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Arma el ZIP de evidencia de una versión: artefactos, {@code .eml} y release notes del outbox y la
+ * auditoría en NDJSON. Todo se copia en streaming con un buffer fijo, así el heap no depende del
+ * tamaño de la release.
+ *
+ * Los artefactos {@code bin}/{@code pkg} ya vienen comprimidos y van como STORED. STORED exige el
+ * CRC-32 antes de escribir la entrada; esos CRC se calculan en paralelo (acotado por
+ * {@code versiones.evidencia.parallelism}, con buffers del {@link BufferPool}) mientras se escriben
+ * las entradas comprimibles, que {@link ZipOutputStream} comprime en secuencia con
+ * {@code versiones.evidencia.nivel-deflate}.
+ *
+ * El archivo se escribe en un temporal del mismo directorio y se renombra al terminar.
+ */
+@Service
+public class EvidenciaPackager {
+    private static final int BUFFER_BYTES = 1024 * 1024;
+
+    private final ArtefactoRepository artefactoRepository;
+    private final AuditoriaExporter auditoriaExporter;
+    private final BufferPool buffers;
+    private final Path staging;
+    private final Path destinos;
+    private final Path outbox;
+    private final Path dir;
+    private final int nivelDeflate;
+    private final Semaphore permits;
+
+    public EvidenciaPackager(ArtefactoRepository artefactoRepository,
+                             AuditoriaExporter auditoriaExporter,
+                             BufferPool buffers,
+                             @Value("${versiones.copy.staging-dir:data/staging}") String staging,
+                             @Value("${versiones.copy.destino-dir:data/publicado}") String destinos,
+                             @Value("${versiones.outbox.dir:data/outbox}") String outbox,
+                             @Value("${versiones.evidencia.dir:data/evidencias}") String dir,
+                             @Value("${versiones.evidencia.nivel-deflate:1}") int nivelDeflate,
+                             @Value("${versiones.evidencia.parallelism:4}") int parallelism) {
+        this.artefactoRepository = artefactoRepository;
+        this.auditoriaExporter = auditoriaExporter;
+        this.buffers = buffers;
+        this.staging = Path.of(staging);
+        this.destinos = Path.of(destinos);
+        this.outbox = Path.of(outbox);
+        this.dir = Path.of(dir);
+        this.nivelDeflate = nivelDeflate;
+        this.permits = new Semaphore(Math.max(1, parallelism));
+    }
+
+    /** Archivo a incluir como {@code nombre} dentro del ZIP. */
+    public record Entrada(String nombre, Path archivo, long bytes, boolean stored) {}
+
+    public record Plan(String versionId, List<Entrada> entradas, long totalBytes) {}
+
+    public record Resultado(Path zip, int entradas, long eventosAuditoria, long bytesLeidos, long bytesZip, long nanos) {
+        public double mbPorSegundo() {
+            return ArtefactoFiles.mbPorSegundo(bytesLeidos, nanos);
+        }
+    }
+
+    /**
+     * Entradas del ZIP y bytes a leer (los STORED cuentan dos veces: CRC y copia), para informar
+     * avance desde el inicio. Un artefacto se toma de su destino si ya fue copiado, si no de su origen.
+     */
+    public Plan plan(String versionId) throws IOException {
+        var entradas = new ArrayList<Entrada>();
+        var nombres = new HashSet<String>();
+        long total = 0;
+        for (ArtefactoEntity a : artefactoRepository.findByVersionId(versionId)) {
+            Path archivo = archivo(a);
+            long bytes = Files.size(archivo);
+            boolean stored = "bin".equals(a.getTipo()) || "pkg".equals(a.getTipo());
+            String nombre = "artefactos/" + a.getRama() + "/" + archivo.getFileName();
+            if (!nombres.add(nombre)) nombre = "artefactos/" + a.getRama() + "/" + a.getId() + "_" + archivo.getFileName();
+            entradas.add(new Entrada(nombre, archivo, bytes, stored));
+            total += stored ? 2 * bytes : bytes;
+        }
+        for (Path p : List.of(outbox.resolve("pub_" + versionId + ".eml"), outbox.resolve("release-notes_" + versionId + ".md"))) {
+            if (Files.isRegularFile(p)) {
+                long bytes = Files.size(p);
+                entradas.add(new Entrada("outbox/" + p.getFileName(), p, bytes, false));
+                total += bytes;
+            }
+        }
+        return new Plan(versionId, entradas, total);
+    }
+
+    public Resultado empaquetar(Plan plan, LongConsumer progress) throws IOException, InterruptedException {
+        long t0 = System.nanoTime();
+        Files.createDirectories(dir);
+        Path zip = dir.resolve("evidencia_" + plan.versionId() + ".zip");
+        Path tmp = dir.resolve("." + zip.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        long eventos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Los CRC de las entradas STORED arrancan antes de escribir nada y se solapan con el deflate.
+            var crcs = new ArrayList<Future<Long>>();
+            for (Entrada e : plan.entradas()) {
+                crcs.add(e.stored() ? executor.submit(() -> crc(e.archivo(), progress)) : null);
+            }
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 var zos = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), BUFFER_BYTES))) {
+                zos.setLevel(nivelDeflate);
+                byte[] buffer = new byte[BUFFER_BYTES];
+                for (Entrada e : plan.entradas()) {
+                    if (!e.stored()) escribir(zos, new ZipEntry(e.nombre()), e.archivo(), buffer, progress);
+                }
+                zos.putNextEntry(new ZipEntry("auditoria.ndjson"));
+                eventos = auditoriaExporter.ndjson(AuditoriaFiltro.deVersion(plan.versionId()), zos);
+                zos.closeEntry();
+                for (int i = 0; i < plan.entradas().size(); i++) {
+                    Entrada e = plan.entradas().get(i);
+                    if (!e.stored()) continue;
+                    var entry = new ZipEntry(e.nombre());
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(e.bytes());
+                    entry.setCompressedSize(e.bytes());
+                    entry.setCrc(esperar(crcs.get(i)));
+                    escribir(zos, entry, e.archivo(), buffer, progress);
+                }
+                zos.finish();
+                zos.flush();
+                ch.force(true);
+            }
+            Files.move(tmp, zip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return new Resultado(zip, plan.entradas().size() + 1, eventos, plan.totalBytes(), Files.size(zip),
+                System.nanoTime() - t0);
+    }
+
+    private Path archivo(ArtefactoEntity a) {
+        if (a.getRutaDestino() != null && !a.getRutaDestino().isBlank()) {
+            Path destino = ArtefactoFiles.destino(a, destinos);
+            if (Files.isRegularFile(destino)) return destino;
+        }
+        return ArtefactoFiles.origen(a, staging);
+    }
+
+    private long crc(Path archivo, LongConsumer progress) throws IOException, InterruptedException {
+        permits.acquire();
+        try {
+            ByteBuffer buf = buffers.tomar();
+            try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                var crc = new CRC32();
+                int n;
+                while ((n = ch.read(buf)) >= 0) {
+                    buf.flip();
+                    crc.update(buf);
+                    buf.clear();
+                    progress.accept(n);
+                }
+                return crc.getValue();
+            } finally {
+                buffers.devolver(buf);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void escribir(ZipOutputStream zos, ZipEntry entry, Path archivo, byte[] buffer,
+                                 LongConsumer progress) throws IOException {
+        zos.putNextEntry(entry);
+        try (InputStream in = Files.newInputStream(archivo)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                zos.write(buffer, 0, n);
+                progress.accept(n);
+            }
+        }
+        zos.closeEntry();
+    }
+
+    private static long esperar(Future<Long> f) throws IOException, InterruptedException {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof UncheckedIOException uio) throw uio.getCause();
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lis.versions.versions_backend.versiones.repo.IdempotenciaRepository;
+import com.lis.versions.versions_backend.versiones.repo.RespuestaIdempotente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Idempotencia de los POST con {@code Idempotency-Key}. La respuesta de la primera ejecución se
+ * guarda en la tabla {@code idempotencia}; los reintentos con la misma clave la reciben tal cual,
+ * sin volver a ejecutar la transacción.
+ *
+ * Las respuestas completas se mantienen además en un índice en memoria acotado
+ * ({@code versiones.idempotencia.memoria-max}), así una ráfaga de reintentos no consulta la base.
+ * Las respuestas 5xx no se guardan: la clave se libera y el reintento vuelve a ejecutar.
+ */
+@Service
+public class IdempotenciaService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+    private static final int CLAVE_MAX = 255;
+
+    private final IdempotenciaRepository repository;
+    private final Cache<String, RespuestaIdempotente> memoria;
+    private final Duration ttl;
+    private final Duration enCursoMax;
+    private final Counter replaysMemoria;
+    private final Counter replaysBase;
+
+    public IdempotenciaService(IdempotenciaRepository repository,
+                               MeterRegistry meterRegistry,
+                               @Value("${versiones.idempotencia.memoria-max:10000}") long memoriaMax,
+                               @Value("${versiones.idempotencia.ttl-horas:24}") long ttlHoras,
+                               @Value("${versiones.idempotencia.en-curso-max-ms:120000}") long enCursoMaxMs) {
+        this.repository = repository;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.enCursoMax = Duration.ofMillis(enCursoMaxMs);
+        this.memoria = Caffeine.newBuilder()
+                .maximumSize(memoriaMax)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memoria, "versiones.idempotencia");
+        this.replaysMemoria = replays(meterRegistry, "memoria");
+        this.replaysBase = replays(meterRegistry, "base");
+    }
+
+    private static Counter replays(MeterRegistry meterRegistry, String origen) {
+        return Counter.builder("versiones.idempotencia.replays")
+                .description("Respuestas devueltas por Idempotency-Key sin re-ejecutar")
+                .tag("origen", origen)
+                .register(meterRegistry);
+    }
+
+    private static String ts(LocalDateTime t) {
+        return t.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Devuelve la respuesta guardada si la clave ya se usó con la misma petición, o reserva la
+     * clave (vacío) para que el llamador ejecute y luego llame a {@link #completar}.
+     *
+     * @param huella identifica la petición (método, ruta y cuerpo); otra petición con la misma
+     *               clave es un error del cliente (422)
+     */
+    public Optional<RespuestaIdempotente> iniciar(String clave, String huella) {
+        if (clave.isBlank() || clave.length() > CLAVE_MAX) {
+            throw new VersionService.ServiceException(422, "IDEMPOTENCY_KEY_INVALIDA",
+                    "Idempotency-Key debe tener entre 1 y " + CLAVE_MAX + " caracteres");
+        }
+        var guardada = memoria.getIfPresent(clave);
+        if (guardada != null) {
+            verificarHuella(guardada, huella);
+            replaysMemoria.increment();
+            return Optional.of(guardada);
+        }
+        var ahora = LocalDateTime.now();
+        if (repository.reservar(clave, huella, ts(ahora), ts(ahora.minus(enCursoMax)))) return Optional.empty();
+
+        var existente = repository.buscar(clave).orElseThrow(IdempotenciaService::enCurso);
+        verificarHuella(existente, huella);
+        if (existente.enCurso()) throw enCurso();
+        memoria.put(clave, existente);
+        replaysBase.increment();
+        return Optional.of(existente);
+    }
+
+    /** Guarda la respuesta de una clave reservada; si es 5xx libera la clave. */
+    public void completar(String clave, String huella, int status, String contentType, byte[] cuerpo) {
+        if (status >= 500) {
+            repository.liberar(clave);
+            return;
+        }
+        repository.guardar(clave, status, contentType, cuerpo);
+        memoria.put(clave, new RespuestaIdempotente(clave, huella, status, contentType, cuerpo));
+    }
+
+    /** La petición terminó con una excepción no atendida: libera la clave. */
+    public void abandonar(String clave) {
+        repository.liberar(clave);
+    }
+
+    @Scheduled(fixedDelayString = "${versiones.idempotencia.purga-ms:3600000}")
+    public void purgar() {
+        int n = repository.purgar(ts(LocalDateTime.now().minus(ttl)));
+        if (n > 0) log.info("{} claves de idempotencia vencidas eliminadas", n);
+    }
+
+    private static void verificarHuella(RespuestaIdempotente r, String huella) {
+        if (!r.huella().equals(huella)) {
+            throw new VersionService.ServiceException(422, "IDEMPOTENCY_KEY_REUTILIZADA",
+                    "La Idempotency-Key ya se usó con otra petición");
+        }
+    }
+
+    private static VersionService.ServiceException enCurso() {
+        return new VersionService.ServiceException(409, "IDEMPOTENCIA_EN_CURSO",
+                "Hay una petición en curso con la misma Idempotency-Key");
+    }
+}
@@ -0,0 +1,69 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Árbol Merkle SHA-256 con prefijos de dominio (0x00 hoja, 0x01 nodo interno) para que una hoja
+ * no pueda hacerse pasar por un nodo. Un nodo sin par sube sin cambios al nivel siguiente.
+ */
+public final class Merkle {
+    public static final int HASH_BYTES = 32;
+
+    private Merkle() {}
+
+    public static byte[] hoja(ByteBuffer chunk) {
+        MessageDigest sha = digestHoja();
+        sha.update(chunk);
+        return sha.digest();
+    }
+
+    /** Digest ya con el prefijo de hoja, para chunks que se leen en varias partes. */
+    public static MessageDigest digestHoja() {
+        MessageDigest sha = BlobStore.sha256();
+        sha.update((byte) 0);
+        return sha;
+    }
+
+    /** Hoja de un archivo en el árbol de la versión: id del artefacto, tamaño y raíz del archivo. */
+    public static byte[] hojaArchivo(String artefactoId, long sizeBytes, String raizArchivo) {
+        MessageDigest sha = BlobStore.sha256();
+        sha.update((byte) 0);
+        sha.update((artefactoId + ":" + sizeBytes + ":" + raizArchivo).getBytes(StandardCharsets.UTF_8));
+        return sha.digest();
+    }
+
+    /** Raíz a partir de las hojas concatenadas ({@link #HASH_BYTES} cada una). */
+    public static byte[] raiz(byte[] hojas) {
+        int n = hojas.length / HASH_BYTES;
+        if (n == 0) return hoja(ByteBuffer.allocate(0));
+        byte[] nivel = hojas;
+        while (n > 1) {
+            int m = (n + 1) / 2;
+            byte[] siguiente = new byte[m * HASH_BYTES];
+            for (int i = 0; i < n / 2; i++) {
+                MessageDigest sha = BlobStore.sha256();
+                sha.update((byte) 1);
+                sha.update(nivel, 2 * i * HASH_BYTES, 2 * HASH_BYTES);
+                System.arraycopy(sha.digest(), 0, siguiente, i * HASH_BYTES, HASH_BYTES);
+            }
+            if (n % 2 == 1) System.arraycopy(nivel, (n - 1) * HASH_BYTES, siguiente, (m - 1) * HASH_BYTES, HASH_BYTES);
+            nivel = siguiente;
+            n = m;
+        }
+        return Arrays.copyOf(nivel, HASH_BYTES);
+    }
+
+    public static byte[] raiz(List<byte[]> hojas) {
+        byte[] concatenadas = new byte[hojas.size() * HASH_BYTES];
+        for (int i = 0; i < hojas.size(); i++) System.arraycopy(hojas.get(i), 0, concatenadas, i * HASH_BYTES, HASH_BYTES);
+        return raiz(concatenadas);
+    }
+
+    public static boolean mismaHoja(byte[] hojas, int i, byte[] hoja) {
+        return Arrays.equals(hojas, i * HASH_BYTES, (i + 1) * HASH_BYTES, hoja, 0, HASH_BYTES);
+    }
+}
@@ -0,0 +1,161 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Textos del outbox (asunto, cuerpo y release notes) a partir de plantillas con variables
+ * {@code {{nombre}}}. Cada plantilla se compila una vez a segmentos fijos y accesores de
+ * {@link VersionEntity}, y se guarda por canal y cliente; renderizar es concatenar en un
+ * {@link StringBuilder} dimensionado de antemano.
+ *
+ * Búsqueda de {@code <canal>/<plantilla>.tpl}: {@code versiones.outbox.plantillas-dir/<cliente>/},
+ * luego {@code versiones.outbox.plantillas-dir/}, luego el classpath {@code outbox/plantillas/}
+ * (y, si el canal no tiene plantilla propia, la del canal {@code outbox}).
+ */
+@Service
+public class OutboxRenderer {
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+    // Nombre de cliente usable como directorio
+    private static final Pattern CLIENTE_DIR = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N} ._-]*");
+    private static final String CANAL_BASE = "outbox";
+
+    private final Path dir;
+    private final LoadingCache<Clave, Plantillas> cache;
+
+    public OutboxRenderer(MeterRegistry meterRegistry,
+                          @Value("${versiones.outbox.plantillas-dir:data/plantillas}") String dir,
+                          @Value("${versiones.outbox.plantillas-max:1000}") long max) {
+        this.dir = Path.of(dir);
+        this.cache = Caffeine.newBuilder().maximumSize(max).recordStats().build(this::cargar);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "versiones.outbox.plantillas");
+    }
+
+    private record Clave(String canal, String cliente) {}
+
+    private record Plantillas(Plantilla asunto, Plantilla cuerpo, Plantilla releaseNotes) {}
+
+    /** Textos de un borrador; {@link #eml()} y {@link #releaseNotes()} son el contenido de los archivos. */
+    public record Render(String asunto, String cuerpo, String releaseNotes) {
+        public String eml() {
+            return "Subject: " + asunto + "\n\n" + cuerpo;
+        }
+    }
+
+    public Render render(String canal, VersionEntity v) {
+        var p = cache.get(new Clave(canal, v.getCliente()));
+        return new Render(p.asunto().render(v), p.cuerpo().render(v), p.releaseNotes().render(v));
+    }
+
+    /** Descarta las plantillas compiladas (p. ej. tras editar {@code plantillas-dir}). */
+    public void invalidar() {
+        cache.invalidateAll();
+    }
+
+    private Plantillas cargar(Clave k) {
+        return new Plantillas(compilar(k, "asunto"), compilar(k, "cuerpo"), compilar(k, "release-notes"));
+    }
+
+    private Plantilla compilar(Clave k, String nombre) {
+        String archivo = k.canal() + "/" + nombre + ".tpl";
+        try {
+            var candidatos = new ArrayList<Path>(2);
+            if (k.cliente() != null && CLIENTE_DIR.matcher(k.cliente()).matches()) {
+                try {
+                    candidatos.add(dir.resolve(k.cliente()).resolve(archivo));
+                } catch (InvalidPathException e) {
+                    // nombre no representable en el sistema de archivos: sin plantillas propias
+                }
+            }
+            candidatos.add(dir.resolve(archivo));
+            for (Path p : candidatos) {
+                if (Files.isRegularFile(p)) return Plantilla.compilar(p.toString(), Files.readString(p));
+            }
+            for (String canal : List.of(k.canal(), CANAL_BASE)) {
+                var recurso = new ClassPathResource("outbox/plantillas/" + canal + "/" + nombre + ".tpl");
+                if (!recurso.exists()) continue;
+                try (InputStream in = recurso.getInputStream()) {
+                    return Plantilla.compilar(recurso.getPath(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la plantilla " + archivo, e);
+        }
+        throw new IllegalStateException("No hay plantilla " + archivo);
+    }
+
+    /** Plantilla compilada: segmentos alternados texto fijo / variable. */
+    static final class Plantilla {
+        private final Object[] segmentos; // String o Function<VersionEntity, String>
+        private final int largoFijo;
+
+        private Plantilla(Object[] segmentos, int largoFijo) {
+            this.segmentos = segmentos;
+            this.largoFijo = largoFijo;
+        }
+
+        static Plantilla compilar(String origen, String texto) {
+            // El salto de línea final del archivo no es parte del texto
+            if (texto.endsWith("\n")) texto = texto.substring(0, texto.length() - (texto.endsWith("\r\n") ? 2 : 1));
+            var segmentos = new ArrayList<>();
+            int largoFijo = 0;
+            int desde = 0;
+            Matcher m = VARIABLE.matcher(texto);
+            while (m.find()) {
+                if (m.start() > desde) {
+                    segmentos.add(texto.substring(desde, m.start()));
+                    largoFijo += m.start() - desde;
+                }
+                segmentos.add(accesor(origen, m.group(1)));
+                desde = m.end();
+            }
+            if (desde < texto.length()) {
+                segmentos.add(texto.substring(desde));
+                largoFijo += texto.length() - desde;
+            }
+            return new Plantilla(segmentos.toArray(), largoFijo);
+        }
+
+        private static Function<VersionEntity, String> accesor(String origen, String variable) {
+            return switch (variable) {
+                case "id" -> VersionEntity::getId;
+                case "cliente" -> VersionEntity::getCliente;
+                case "nombre" -> VersionEntity::getNombre;
+                case "numeroVersion" -> VersionEntity::getNumeroVersion;
+                case "buildYyyymmdd" -> VersionEntity::getBuildYyyymmdd;
+                case "responsable" -> VersionEntity::getResponsable;
+                case "branch" -> VersionEntity::getBranch;
+                default -> throw new IllegalStateException("Variable desconocida {{" + variable + "}} en " + origen);
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        String render(VersionEntity v) {
+            var sb = new StringBuilder(largoFijo + 16 * segmentos.length);
+            for (Object s : segmentos) {
+                if (s instanceof String fijo) sb.append(fijo);
+                else sb.append(((Function<VersionEntity, String>) s).apply(v));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura de los archivos del outbox fuera de la transacción. Un único writer toma lotes de
+ * hasta {@code versiones.outbox.fsync-lote} archivos: escribe todos los temporales, hace fsync de
+ * cada uno seguidos, los renombra y hace un solo fsync por directorio. El texto se codifica a
+ * UTF-8 directamente en un buffer propio del writer, reutilizado entre archivos.
+ *
+ * Sin el writer en marcha (arranque o apagado) el llamador escribe él mismo.
+ */
+@Component
+public class OutboxWriter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(OutboxWriter.class);
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private record Escritura(Path destino, CharSequence texto, CompletableFuture<Long> hecho) {}
+
+    private final BlockingQueue<Escritura> cola = new LinkedBlockingQueue<>();
+    private final int loteMax;
+    private final Timer loteTimer;
+    private final DistributionSummary loteArchivos;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OutboxWriter(MeterRegistry meterRegistry,
+                        @Value("${versiones.outbox.fsync-lote:64}") int loteMax) {
+        this.loteMax = Math.max(1, loteMax);
+        this.loteTimer = Timer.builder("versiones.outbox.lote").register(meterRegistry);
+        this.loteArchivos = DistributionSummary.builder("versiones.outbox.lote.archivos")
+                .description("Archivos por fsync en lote")
+                .register(meterRegistry);
+    }
+
+    /** Escribe los archivos de forma atómica y durable; el futuro devuelve los bytes escritos. */
+    public CompletableFuture<Long> escribir(Map<Path, ? extends CharSequence> archivos) {
+        var escrituras = new ArrayList<Escritura>(archivos.size());
+        archivos.forEach((p, t) -> escrituras.add(new Escritura(p, t, new CompletableFuture<>())));
+        if (running) {
+            cola.addAll(escrituras);
+            if (!running) {
+                // El writer pudo terminar entre la comprobación y el encolado
+                var resto = new ArrayList<Escritura>();
+                cola.drainTo(resto);
+                if (!resto.isEmpty()) escribirLote(resto, ByteBuffer.allocate(BUFFER_BYTES));
+            }
+        } else {
+            escribirLote(escrituras, ByteBuffer.allocate(BUFFER_BYTES));
+        }
+        var total = CompletableFuture.completedFuture(0L);
+        for (var e : escrituras) total = total.thenCombine(e.hecho(), Long::sum);
+        return total;
+    }
+
+    private void writerLoop() {
+        var buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        var lote = new ArrayList<Escritura>(loteMax);
+        while (running || !cola.isEmpty()) {
+            try {
+                var primera = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primera == null) continue;
+                lote.add(primera);
+                cola.drainTo(lote, loteMax - 1);
+                loteTimer.record(() -> escribirLote(lote, buf));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cola.drainTo(lote);
+                escribirLote(lote, buf);
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<Escritura> lote, ByteBuffer buf) {
+        loteArchivos.record(lote.size());
+        var tmps = new ArrayList<Path>(lote.size());
+        var bytes = new long[lote.size()];
+        var canales = new ArrayList<FileChannel>(lote.size());
+        try {
+            for (int i = 0; i < lote.size(); i++) {
+                var e = lote.get(i);
+                Path destino = e.destino().toAbsolutePath();
+                Files.createDirectories(destino.getParent());
+                Path tmp = destino.resolveSibling("." + destino.getFileName() + "." + UUID.randomUUID() + ".tmp");
+                tmps.add(tmp);
+                var ch = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                canales.add(ch);
+                bytes[i] = codificar(e.texto(), ch, buf);
+            }
+            for (FileChannel ch : canales) ch.force(true);
+            var directorios = new LinkedHashSet<Path>();
+            for (int i = 0; i < lote.size(); i++) {
+                Path destino = lote.get(i).destino().toAbsolutePath();
+                Files.move(tmps.get(i), destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                directorios.add(destino.getParent());
+            }
+            for (Path d : directorios) forzarDirectorio(d);
+            for (int i = 0; i < lote.size(); i++) lote.get(i).hecho().complete(bytes[i]);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo escribir un lote de {} archivos de outbox: {}", lote.size(), e.getMessage());
+            for (var esc : lote) esc.hecho().completeExceptionally(e);
+        } finally {
+            for (FileChannel ch : canales) {
+                try {
+                    ch.close();
+                } catch (IOException ignored) {
+                    // ya se informó el error de escritura, si lo hubo
+                }
+            }
+            for (Path tmp : tmps) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // temporal huérfano: no afecta al destino
+                }
+            }
+        }
+    }
+
+    private static long codificar(CharSequence texto, FileChannel ch, ByteBuffer buf) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        CharBuffer chars = CharBuffer.wrap(texto);
+        long total = 0;
+        boolean fin = false;
+        while (true) {
+            CoderResult r = fin ? encoder.flush(buf) : encoder.encode(chars, buf, true);
+            if (r.isError()) r.throwException();
+            buf.flip();
+            total += buf.remaining();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+            if (r.isUnderflow()) {
+                if (fin) return total;
+                fin = true;
+            }
+        }
+    }
+
+    // En Linux el rename solo es durable tras el fsync del directorio; otros SO no lo permiten.
+    private static void forzarDirectorio(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) {
+            // no soportado en este sistema de archivos
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) return;
+        running = true;
+        writer = Thread.ofPlatform().name("outbox-writer").daemon(true).start(this::writerLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Se detiene después del motor de jobs, que es quien le entrega archivos.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
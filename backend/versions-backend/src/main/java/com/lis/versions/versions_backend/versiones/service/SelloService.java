@@ -0,0 +1,336 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.common.db.EnShard;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import com.lis.versions.versions_backend.versiones.repo.Sello;
+import com.lis.versions.versions_backend.versiones.repo.SelloArchivo;
+import com.lis.versions.versions_backend.versiones.repo.SelloRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sellado de versiones con un árbol {@link Merkle} por chunks de {@code versiones.sellos.chunk-bytes}.
+ * Al sellar se guarda, por artefacto, la raíz, las hojas, el tamaño y el mtime; la raíz de la
+ * versión combina las raíces de sus archivos.
+ *
+ * La verificación recorre los archivos en paralelo (límite global {@code versiones.sellos.parallelism}).
+ * En modo incremental omite los archivos con el mismo tamaño y mtime que al sellar, así un barrido
+ * nocturno solo lee lo que se tocó; de los que sí se leen informa qué chunks difieren. Con
+ * {@code detener} corta en la primera diferencia. Un archivo con contenido intacto pero con otro
+ * mtime se actualiza para no volver a leerlo. Cambios que preserven tamaño y mtime solo los detecta
+ * el modo completo.
+ */
+@Service
+public class SelloService {
+    private static final Logger log = LoggerFactory.getLogger(SelloService.class);
+    private static final int MAX_CHUNKS_INFORMADOS = 100;
+    private static final int BARRIDO_LOTE = 200;
+
+    private final VersionService versionService;
+    private final ArtefactoRepository artefactoRepository;
+    private final SelloRepository repository;
+    private final Shards shards;
+    private final BufferPool buffers;
+    private final Path destinos;
+    private final int chunkBytes;
+    private final Semaphore permits;
+    private final Duration barridoIntervalo;
+    private final Counter alterados;
+
+    public SelloService(VersionService versionService,
+                        ArtefactoRepository artefactoRepository,
+                        SelloRepository repository,
+                        Shards shards,
+                        BufferPool buffers,
+                        MeterRegistry meterRegistry,
+                        @Value("${versiones.copy.destino-dir:data/publicado}") String destinos,
+                        @Value("${versiones.sellos.chunk-bytes:4194304}") int chunkBytes,
+                        @Value("${versiones.sellos.parallelism:4}") int parallelism,
+                        @Value("${versiones.sellos.barrido-ms:86400000}") long barridoMs) {
+        this.versionService = versionService;
+        this.artefactoRepository = artefactoRepository;
+        this.repository = repository;
+        this.shards = shards;
+        this.buffers = buffers;
+        this.destinos = Path.of(destinos);
+        this.chunkBytes = Integer.highestOneBit(Math.max(4096, chunkBytes));
+        this.permits = new Semaphore(Math.max(1, parallelism));
+        this.barridoIntervalo = Duration.ofMillis(barridoMs);
+        this.alterados = Counter.builder("versiones.sellos.alterados")
+                .description("Versiones selladas con artefactos alterados")
+                .register(meterRegistry);
+    }
+
+    public enum Modo { INCREMENTAL, COMPLETA }
+
+    /** {@code chunks} son los índices que difieren (hasta 100); vacío si el archivo falta o cambió de tamaño. */
+    public record Diferencia(String artefactoId, String ruta, String motivo, List<Integer> chunks) {}
+
+    public record Verificacion(String versionId, String raiz, boolean ok, int verificados, int omitidos,
+                               long bytesLeidos, List<Diferencia> diferencias) {}
+
+    public record Manifiesto(Sello sello, List<SelloArchivo> archivos) {}
+
+    private static String ahora() {
+        return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /** Calcula el árbol de todos los artefactos (fuera de la transacción) y sella la versión. */
+    @EnShard(version = "#versionId")
+    public VersionEntity sellar(String versionId, String actor) throws IOException, InterruptedException {
+        var version = versionService.obtener(versionId);
+        if (version.getEstado() != VersionEstado.Published) {
+            throw new VersionService.ServiceException(422, "ESTADO_INVALIDO", "Solo se sella desde Published");
+        }
+        var arts = new ArrayList<>(artefactoRepository.findByVersionId(versionId));
+        if (arts.isEmpty()) {
+            throw new VersionService.ServiceException(422, "SIN_ARTEFACTOS", "La versión no tiene artefactos que sellar");
+        }
+        arts.sort(Comparator.comparing(ArtefactoEntity::getId));
+        List<SelloArchivo> archivos = enParalelo(arts, a -> arbol(a));
+        String raiz = raizVersion(archivos);
+        var sello = new Sello(versionId, raiz, chunkBytes, archivos.size(), ahora(), actor, null, null);
+        return versionService.sellar(versionId, actor, sello, archivos);
+    }
+
+    @EnShard(version = "#versionId")
+    public Manifiesto manifiesto(String versionId) {
+        versionService.obtener(versionId);
+        var sello = repository.buscar(versionId)
+                .orElseThrow(() -> new VersionService.ServiceException(404, "SELLO_NO_ENCONTRADO", "La versión no está sellada"));
+        return new Manifiesto(sello, repository.archivos(versionId));
+    }
+
+    @EnShard(version = "#versionId")
+    public Verificacion verificar(String versionId, Modo modo, boolean detener) throws IOException, InterruptedException {
+        var m = manifiesto(versionId);
+        List<Diferencia> diferencias = new ArrayList<>();
+        if (!m.sello().raiz().equals(raizVersion(m.archivos()))) {
+            diferencias.add(new Diferencia(null, null, "MANIFIESTO_ALTERADO", List.of()));
+        }
+        var corte = new AtomicBoolean(detener && !diferencias.isEmpty());
+        var omitidos = new AtomicLong();
+        var bytes = new AtomicLong();
+        List<Diferencia> porArchivo = enParalelo(m.archivos(), a -> {
+            if (corte.get()) {
+                omitidos.incrementAndGet();
+                return null;
+            }
+            var d = verificarArchivo(a, m.sello().chunkBytes(), modo, detener, corte, omitidos, bytes);
+            if (d != null && detener) corte.set(true);
+            return d;
+        });
+        for (var d : porArchivo) if (d != null) diferencias.add(d);
+
+        boolean ok = diferencias.isEmpty();
+        repository.registrarVerificacion(versionId, ok ? "OK" : "ALTERADO", ahora());
+        if (!ok) {
+            alterados.increment();
+            log.warn("Versión sellada {} alterada: {}", versionId, diferencias);
+        }
+        int verificados = (int) (m.archivos().size() - omitidos.get());
+        return new Verificacion(versionId, m.sello().raiz(), ok, verificados, (int) omitidos.get(), bytes.get(), diferencias);
+    }
+
+    /**
+     * Barrido incremental de las versiones selladas no verificadas en el último intervalo, shard por
+     * shard. Las versiones se verifican concurrentemente; el semáforo de archivos acota la E/S total.
+     */
+    @Scheduled(fixedDelayString = "${versiones.sellos.barrido-ms:86400000}", initialDelayString = "${versiones.sellos.barrido-ms:86400000}")
+    public int barrer() {
+        return shards.enCada(this::barrerShard).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int barrerShard() {
+        String limite = LocalDateTime.now().minus(barridoIntervalo).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        int total = 0;
+        int alteradas = 0;
+        List<String> lote;
+        do {
+            lote = repository.pendientesDeVerificar(limite, BARRIDO_LOTE);
+            List<Future<Verificacion>> futures = new ArrayList<>(lote.size());
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String versionId : lote) futures.add(executor.submit(() -> verificar(versionId, Modo.INCREMENTAL, false)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    if (!futures.get(i).get().ok()) alteradas++;
+                } catch (ExecutionException e) {
+                    // Sin registrar la verificación quedaría pendiente para siempre en este barrido
+                    repository.registrarVerificacion(lote.get(i), "ALTERADO", ahora());
+                    alteradas++;
+                    log.warn("No se pudo verificar el sello de {}: {}", lote.get(i), e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return total;
+                }
+            }
+            total += lote.size();
+        } while (lote.size() == BARRIDO_LOTE);
+        if (total > 0) log.info("Barrido de sellos: {} versiones verificadas, {} alteradas", total, alteradas);
+        return total;
+    }
+
+    private SelloArchivo arbol(ArtefactoEntity a) throws IOException {
+        Path archivo = ArtefactoFiles.destino(a, destinos);
+        long size;
+        long mtime;
+        byte[] hojas;
+        try {
+            size = Files.size(archivo);
+            mtime = Files.getLastModifiedTime(archivo).toMillis();
+            hojas = hojas(archivo, chunkBytes, null, null);
+        } catch (NoSuchFileException e) {
+            throw new VersionService.ServiceException(422, "ARTEFACTO_NO_ENCONTRADO", "No existe el archivo del artefacto: " + archivo);
+        }
+        return new SelloArchivo(a.getVersionId(), a.getId(), archivo.toString(), size, mtime,
+                ArtefactoFiles.hex(Merkle.raiz(hojas)), hojas);
+    }
+
+    private Diferencia verificarArchivo(SelloArchivo a, int chunk, Modo modo, boolean detener, AtomicBoolean corte,
+                                        AtomicLong omitidos, AtomicLong bytes) throws IOException {
+        Path archivo = Path.of(a.ruta());
+        long size;
+        long mtime;
+        try {
+            size = Files.size(archivo);
+            mtime = Files.getLastModifiedTime(archivo).toMillis();
+        } catch (NoSuchFileException e) {
+            return new Diferencia(a.artefactoId(), a.ruta(), "FALTANTE", List.of());
+        }
+        if (size != a.sizeBytes()) return new Diferencia(a.artefactoId(), a.ruta(), "TAMANO", List.of());
+        if (modo == Modo.INCREMENTAL && mtime == a.mtimeMs()) {
+            omitidos.incrementAndGet();
+            return null;
+        }
+        List<Integer> distintos = new ArrayList<>();
+        byte[] hojas = hojas(archivo, chunk, a.hojas(), (i, igual) -> {
+            if (!igual && distintos.size() < MAX_CHUNKS_INFORMADOS) distintos.add(i);
+            return !detener || (distintos.isEmpty() && !corte.get());
+        });
+        bytes.addAndGet(size);
+        if (!distintos.isEmpty()) return new Diferencia(a.artefactoId(), a.ruta(), "CONTENIDO", distintos);
+        if (detener && corte.get()) {
+            // Otro archivo ya cortó la verificación: este quedó a medio leer
+            omitidos.incrementAndGet();
+            return null;
+        }
+        if (!ArtefactoFiles.hex(Merkle.raiz(hojas)).equals(a.raiz())) {
+            return new Diferencia(a.artefactoId(), a.ruta(), "RAIZ", List.of());
+        }
+        if (mtime != a.mtimeMs()) repository.actualizarMtime(a.versionId(), a.artefactoId(), mtime);
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Comparacion {
+        /** Devuelve {@code false} para dejar de leer el archivo. */
+        boolean hoja(int indice, boolean igual);
+    }
+
+    /**
+     * Hojas de los chunks del archivo leyendo en secuencia con un buffer del {@link BufferPool}; un
+     * chunk mayor que el buffer se hashea en varias lecturas. Con {@code esperadas} compara cada hoja
+     * al calcularla y deja de leer cuando {@code comparacion} lo pide.
+     */
+    private byte[] hojas(Path archivo, int chunk, byte[] esperadas, Comparacion comparacion) throws IOException {
+        ByteBuffer buf = buffers.tomar();
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long n = (size + chunk - 1) / chunk;
+            if (n * Merkle.HASH_BYTES > Integer.MAX_VALUE) throw new IOException("Archivo demasiado grande para chunk=" + chunk);
+            byte[] hojas = new byte[(int) n * Merkle.HASH_BYTES];
+            for (int i = 0; i < n; i++) {
+                MessageDigest sha = Merkle.digestHoja();
+                long resto = Math.min(chunk, size - (long) i * chunk);
+                while (resto > 0) {
+                    buf.clear().limit((int) Math.min(buf.capacity(), resto));
+                    if (ch.read(buf) < 0) throw new IOException("El archivo se acortó durante la lectura: " + archivo);
+                    buf.flip();
+                    resto -= buf.remaining();
+                    sha.update(buf);
+                }
+                byte[] hoja = sha.digest();
+                System.arraycopy(hoja, 0, hojas, i * Merkle.HASH_BYTES, Merkle.HASH_BYTES);
+                if (esperadas != null && !comparacion.hoja(i, i < esperadas.length / Merkle.HASH_BYTES
+                        && Merkle.mismaHoja(esperadas, i, hoja))) {
+                    return hojas;
+                }
+            }
+            return hojas;
+        } finally {
+            buffers.devolver(buf);
+        }
+    }
+
+    private static String raizVersion(List<SelloArchivo> archivos) {
+        List<byte[]> hojas = new ArrayList<>(archivos.size());
+        for (var a : archivos) hojas.add(Merkle.hojaArchivo(a.artefactoId(), a.sizeBytes(), a.raiz()));
+        return ArtefactoFiles.hex(Merkle.raiz(hojas));
+    }
+
+    @FunctionalInterface
+    private interface Tarea<T, R> {
+        R aplicar(T t) throws IOException;
+    }
+
+    /** Aplica {@code tarea} a cada elemento en hilos virtuales, con el límite global de permisos; conserva el orden. */
+    private <T, R> List<R> enParalelo(List<T> items, Tarea<T, R> tarea) throws IOException, InterruptedException {
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return tarea.aplicar(item);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        for (Future<R> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof UncheckedIOException uio) throw uio.getCause();
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,29 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.repo.VersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/** Al arrancar, completa {@code semver_key} de las versiones registradas antes de V11. */
+@Component
+public class SemverBackfill implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(SemverBackfill.class);
+
+    private final VersionRepository versionRepository;
+    private final Shards shards;
+
+    public SemverBackfill(VersionRepository versionRepository, Shards shards) {
+        this.versionRepository = versionRepository;
+        this.shards = shards;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int n = shards.enCada(versionRepository::completarSemver).stream().mapToInt(Integer::intValue).sum();
+        if (n > 0) log.info("semver_key calculada para {} versiones", n);
+    }
+}
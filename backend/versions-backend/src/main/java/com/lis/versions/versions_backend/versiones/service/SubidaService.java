@@ -0,0 +1,332 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.common.db.EnShard;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.domain.Ids;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.repo.Subida;
+import com.lis.versions.versions_backend.versiones.repo.SubidaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.lis.versions.versions_backend.versiones.service.VersionService.ServiceException;
+
+/**
+ * Subida reanudable del binario de un artefacto. El cuerpo de cada PUT se escribe con un buffer
+ * directo del {@link BufferPool} en {@code staging/.subidas/<id>.part} a partir del offset indicado y
+ * el MD5 se calcula en la misma pasada: el heap no depende del tamaño del archivo. El buffer se retiene
+ * mientras dura el PUT, así que las subidas concurrentes por encima del pool esperan turno.
+ *
+ * {@code offset_confirmado} se persiste (tras {@code force}) cada {@code versiones.subidas.checkpoint-bytes}
+ * y al terminar o cortarse la petición; el cliente reanuda desde ahí. El estado del MD5 de las subidas
+ * activas vive en memoria; si se perdió (reinicio) se reconstruye releyendo el parcial hasta el offset.
+ * Al completar {@code size_bytes} el archivo pasa a {@code staging/<version_id>/<nombre_original>}
+ * (el origen de COPY_ARTIFACTS) y recién entonces se crea el artefacto con el MD5 y tamaño calculados.
+ *
+ * Una subida en curso sin actividad durante {@code versiones.subidas.ttl-ms} se da por abandonada: el
+ * barrido borra su fila, su parcial y su estado en memoria, y el cliente recibe 404 si intenta reanudarla.
+ */
+@Service
+public class SubidaService {
+    private static final Logger log = LoggerFactory.getLogger(SubidaService.class);
+    private static final int BARRIDO_LOTE = 500;
+
+    private final SubidaRepository repository;
+    private final VersionService versionService;
+    private final BufferPool buffers;
+    private final Shards shards;
+    private final Path staging;
+    private final Path parciales;
+    private final long checkpointBytes;
+    private final Duration ttl;
+    private final Counter bytesRecibidos;
+    /** MD5 y offset en memoria de las subidas con datos recibidos desde el arranque. */
+    private final ConcurrentHashMap<String, Activa> activas = new ConcurrentHashMap<>();
+
+    public SubidaService(SubidaRepository repository,
+                         VersionService versionService,
+                         BufferPool buffers,
+                         Shards shards,
+                         MeterRegistry meterRegistry,
+                         @Value("${versiones.copy.staging-dir:data/staging}") String staging,
+                         @Value("${versiones.subidas.checkpoint-bytes:67108864}") long checkpointBytes,
+                         @Value("${versiones.subidas.ttl-ms:86400000}") long ttlMs) {
+        this.repository = repository;
+        this.versionService = versionService;
+        this.buffers = buffers;
+        this.shards = shards;
+        this.staging = Path.of(staging);
+        this.parciales = this.staging.resolve(".subidas");
+        this.checkpointBytes = Math.max(buffers.bytes(), checkpointBytes);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.bytesRecibidos = Counter.builder("versiones.subidas.bytes")
+                .description("Bytes recibidos por subidas de artefactos")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /** Se usa {@link ReentrantLock} para no fijar el hilo virtual durante la escritura. */
+    private static final class Activa {
+        final ReentrantLock lock = new ReentrantLock();
+        MessageDigest md5;
+        long offset = -1;
+    }
+
+    @EnShard(version = "#versionId")
+    public Subida crear(String versionId, Dtos.AdjuntarArtefactoRequest req, String actor) {
+        var version = versionService.obtener(versionId);
+        if (!(version.getEstado() == VersionEstado.Draft || version.getEstado() == VersionEstado.Ready)) {
+            throw new ServiceException(422, "ESTADO_INVALIDO", "Solo se pueden adjuntar artefactos en Draft o Ready");
+        }
+        versionService.validarTipoYRama(req.tipo, req.rama);
+        if (req.sizeBytes == null || req.sizeBytes < 0) {
+            throw new ServiceException(422, "VALIDATION_ERROR", "sizeBytes: tamaño total obligatorio para subir");
+        }
+        if (!nombreSimple(req.nombreOriginal)) {
+            throw new ServiceException(422, "NOMBRE_INVALIDO", "nombreOriginal no puede contener rutas: " + req.nombreOriginal);
+        }
+        ArtefactoFiles.validarRutas(req.rutaDestino, req.nombreOriginal, req.nombreFinal, null);
+        var s = new Subida(Ids.nuevo(), versionId, req.tipo, req.rama, req.nombreOriginal,
+                req.nombreFinal, req.rutaDestino, req.sizeBytes, req.md5, 0, "EN_CURSO", null, actor);
+        repository.crear(s, VersionService.now());
+        return s;
+    }
+
+    @EnShard(version = "#versionId")
+    public Subida obtener(String versionId, String subidaId) {
+        return repository.buscar(subidaId)
+                .filter(s -> s.versionId().equals(versionId))
+                .orElseThrow(() -> new ServiceException(404, "SUBIDA_NO_ENCONTRADA", "Subida no encontrada"));
+    }
+
+    /**
+     * Escribe {@code cuerpo} a partir de {@code offset}, que debe ser el {@code offset_confirmado}
+     * actual. Si el cuerpo llega hasta {@code size_bytes} completa la subida y crea el artefacto.
+     * Si la conexión se corta, confirma lo escrito y relanza la excepción.
+     */
+    @EnShard(version = "#versionId")
+    public Subida escribir(String versionId, String subidaId, long offset, InputStream cuerpo) throws IOException {
+        var s = obtener(versionId, subidaId);
+        if (s.completa()) throw new ServiceException(409, "SUBIDA_COMPLETA", "La subida ya se completó");
+        var activa = activas.computeIfAbsent(subidaId, id -> new Activa());
+        if (!activa.lock.tryLock()) {
+            throw new ServiceException(409, "SUBIDA_EN_CURSO", "Otra petición está escribiendo esta subida");
+        }
+        try {
+            s = obtener(versionId, subidaId);
+            if (s.completa()) throw new ServiceException(409, "SUBIDA_COMPLETA", "La subida ya se completó");
+            if (offset != s.offsetConfirmado()) {
+                throw new ServiceException(409, "OFFSET_INVALIDO",
+                        "Upload-Offset " + offset + " no coincide con el confirmado " + s.offsetConfirmado());
+            }
+            Path parcial = parcial(subidaId);
+            if (activa.offset != s.offsetConfirmado()) reconstruir(activa, parcial, s.offsetConfirmado());
+            recibir(s, activa, parcial, cuerpo);
+            if (activa.offset < s.sizeBytes()) return obtener(versionId, subidaId);
+            return completar(s, activa, parcial);
+        } catch (ServiceException e) {
+            // El barrido la expiró entre la primera lectura y el candado: no se deja estado huérfano.
+            if (e.code.equals("SUBIDA_NO_ENCONTRADA")) activas.remove(subidaId, activa);
+            throw e;
+        } finally {
+            activa.lock.unlock();
+        }
+    }
+
+    private void recibir(Subida s, Activa activa, Path parcial, InputStream cuerpo) throws IOException {
+        Files.createDirectories(parciales);
+        ByteBuffer buf = buffers.tomar();
+        long desdeCheckpoint = 0;
+        try (ReadableByteChannel in = Channels.newChannel(cuerpo);
+             FileChannel out = FileChannel.open(parcial, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            out.position(activa.offset);
+            try {
+                int n;
+                while ((n = in.read(buf)) >= 0) {
+                    if (activa.offset + buf.position() > s.sizeBytes()) {
+                        throw new ServiceException(422, "SUBIDA_EXCEDE_TAMANO",
+                                "El cuerpo supera sizeBytes=" + s.sizeBytes());
+                    }
+                    if (buf.hasRemaining() && n > 0) continue;
+                    desdeCheckpoint += volcar(buf, out, activa);
+                    if (desdeCheckpoint >= checkpointBytes) {
+                        confirmar(s.id(), out, activa.offset);
+                        desdeCheckpoint = 0;
+                    }
+                }
+                volcar(buf, out, activa);
+            } catch (IOException | RuntimeException e) {
+                // Se confirma lo que ya está en disco; el MD5 en memoria corresponde exactamente a eso.
+                volcarSeguro(buf, out, activa, e);
+                confirmar(s.id(), out, activa.offset);
+                log.info("Subida {} interrumpida en {} de {} bytes: {}", s.id(), activa.offset, s.sizeBytes(), e.getMessage());
+                throw e;
+            }
+            confirmar(s.id(), out, activa.offset);
+        } finally {
+            buffers.devolver(buf);
+        }
+    }
+
+    private int volcar(ByteBuffer buf, FileChannel out, Activa activa) throws IOException {
+        buf.flip();
+        int n = buf.remaining();
+        try {
+            ByteBuffer escribir = buf.duplicate();
+            while (escribir.hasRemaining()) out.write(escribir);
+        } catch (IOException e) {
+            // Escritura parcial: el MD5 en memoria ya no es confiable; se reconstruye al reanudar.
+            activa.offset = -1;
+            throw e;
+        }
+        activa.md5.update(buf);
+        activa.offset += n;
+        bytesRecibidos.increment(n);
+        buf.clear();
+        return n;
+    }
+
+    private void volcarSeguro(ByteBuffer buf, FileChannel out, Activa activa, Exception causa) {
+        // Si falló la escritura no hay nada confiable que volcar; si el cuerpo excedió sizeBytes
+        // se descarta el buffer entero, que puede contener bytes de más.
+        if (activa.offset < 0 || causa instanceof ServiceException) {
+            buf.clear();
+            return;
+        }
+        try {
+            volcar(buf, out, activa);
+        } catch (IOException e) {
+            causa.addSuppressed(e);
+        }
+    }
+
+    private void confirmar(String subidaId, FileChannel out, long offset) throws IOException {
+        if (offset < 0) return;
+        out.force(false);
+        repository.confirmarOffset(subidaId, offset, VersionService.now());
+    }
+
+    /** Recorta el parcial al offset confirmado y recalcula el MD5 de ese prefijo. */
+    private void reconstruir(Activa activa, Path parcial, long confirmado) throws IOException {
+        MessageDigest md5 = ArtefactoHashService.md5();
+        if (confirmado > 0) {
+            ByteBuffer buf = buffers.tomar();
+            try (FileChannel ch = FileChannel.open(parcial, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (ch.size() < confirmado) {
+                    throw new IllegalStateException("Parcial de la subida más corto que el offset confirmado: " + parcial);
+                }
+                ch.truncate(confirmado);
+                while (ch.read(buf) >= 0) {
+                    buf.flip();
+                    md5.update(buf);
+                    buf.clear();
+                }
+            } finally {
+                buffers.devolver(buf);
+            }
+        } else {
+            Files.deleteIfExists(parcial);
+        }
+        activa.md5 = md5;
+        activa.offset = confirmado;
+    }
+
+    private Subida completar(Subida s, Activa activa, Path parcial) throws IOException {
+        String md5 = ArtefactoFiles.hex(activa.md5.digest());
+        activas.remove(s.id());
+        if (s.md5Declarado() != null && !s.md5Declarado().equalsIgnoreCase(md5)) {
+            Files.deleteIfExists(parcial);
+            repository.confirmarOffset(s.id(), 0, VersionService.now());
+            throw new ServiceException(422, "MD5_NO_COINCIDE",
+                    "MD5 calculado " + md5 + " distinto del declarado " + s.md5Declarado() + "; la subida vuelve a 0");
+        }
+        Path origen = ArtefactoFiles.confinar(staging, s.versionId(), s.nombreOriginal());
+        Files.createDirectories(origen.getParent());
+        Files.move(parcial, origen, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        var req = new Dtos.AdjuntarArtefactoRequest();
+        req.tipo = s.tipo();
+        req.rama = s.rama();
+        req.nombreOriginal = s.nombreOriginal();
+        req.nombreFinal = s.nombreFinal();
+        req.rutaDestino = s.rutaDestino();
+        req.sizeBytes = s.sizeBytes();
+        req.md5 = md5;
+        ArtefactoEntity a;
+        try {
+            a = versionService.adjuntarArtefacto(s.versionId(), req, s.actor() != null ? s.actor() : "system");
+        } catch (RuntimeException e) {
+            // El archivo vuelve al parcial para poder reintentar con un PUT vacío en el offset final.
+            Files.move(origen, parcial, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            throw e;
+        }
+        repository.completar(s.id(), a.getId(), VersionService.now());
+        return obtener(s.versionId(), s.id());
+    }
+
+    /** Borra las subidas en curso sin actividad desde hace más del TTL; devuelve cuántas. */
+    @Scheduled(fixedDelayString = "${versiones.subidas.barrido-ms:3600000}", initialDelayString = "${versiones.subidas.barrido-ms:3600000}")
+    public int expirar() {
+        return shards.enCada(this::expirarShard).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int expirarShard() {
+        String limite = LocalDateTime.now().minus(ttl).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        int borradas = 0;
+        for (String id : repository.abandonadas(limite, BARRIDO_LOTE)) {
+            // Mismo candado que escribir(): si hay un PUT en curso la subida no está abandonada.
+            var activa = activas.computeIfAbsent(id, k -> new Activa());
+            if (!activa.lock.tryLock()) continue;
+            try {
+                if (!repository.eliminarAbandonada(id, limite)) continue;
+                activas.remove(id, activa);
+                Files.deleteIfExists(parcial(id));
+                borradas++;
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el parcial de la subida {}: {}", id, e.getMessage());
+            } finally {
+                activa.lock.unlock();
+            }
+        }
+        if (borradas > 0) log.info("{} subidas abandonadas eliminadas", borradas);
+        return borradas;
+    }
+
+    Path parcial(String subidaId) {
+        return parciales.resolve(subidaId + ".part");
+    }
+
+    /** Olvida el estado en memoria, como tras un reinicio del proceso. */
+    void olvidar(String subidaId) {
+        activas.remove(subidaId);
+    }
+
+    private static boolean nombreSimple(String nombre) {
+        if (nombre == null || nombre.isBlank() || nombre.equals(".") || nombre.equals("..")) return false;
+        return nombre.indexOf('/') < 0 && nombre.indexOf('\\') < 0;
+    }
+}
@@ -0,0 +1,156 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import com.lis.versions.versions_backend.versiones.repo.VersionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Caché de lectura (Caffeine, W-TinyLFU) delante de {@link VersionRepository#findById} y
+ * {@link ArtefactoRepository#findByVersionId}. Las entradas se acotan por tamaño y expiran a los
+ * {@code versiones.cache.ttl-ms}, salvo las de versiones {@link VersionEstado#Sealed}, que son
+ * inmutables y solo salen por tamaño.
+ *
+ * Las entidades se guardan desacopladas del contexto de persistencia y no deben modificarse.
+ * Quien cambie una versión o sus artefactos llama a {@link #evictVersion} / {@link #evictArtefactos}:
+ * se invalida en el momento y otra vez al terminar la transacción, para que una lectura concurrente
+ * no deje en caché el estado anterior al commit.
+ *
+ * Métricas: {@code cache.gets} (hit/miss), {@code cache.evictions}, {@code cache.size} con
+ * {@code cache=versiones.version} y {@code cache=versiones.artefactos}.
+ */
+@Component
+public class VersionCache {
+
+    private record Artefactos(List<ArtefactoEntity> items, boolean sellada) { }
+
+    private final VersionRepository versionRepository;
+    private final ArtefactoRepository artefactoRepository;
+    private final MeterRegistry meterRegistry;
+    private final long versionesMax;
+    private final long artefactosMax;
+    private final long ttlNanos;
+    private LoadingCache<String, VersionEntity> versiones;
+    private LoadingCache<String, Artefactos> artefactos;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public VersionCache(VersionRepository versionRepository,
+                        ArtefactoRepository artefactoRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${versiones.cache.versiones-max:10000}") long versionesMax,
+                        @Value("${versiones.cache.artefactos-max:2000}") long artefactosMax,
+                        @Value("${versiones.cache.ttl-ms:300000}") long ttlMs) {
+        this.versionRepository = versionRepository;
+        this.artefactoRepository = artefactoRepository;
+        this.meterRegistry = meterRegistry;
+        this.versionesMax = versionesMax;
+        this.artefactosMax = artefactosMax;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /** Las cachés cargan con métodos de la instancia: se crean y registran una vez construida. */
+    @PostConstruct
+    void iniciar() {
+        this.versiones = Caffeine.newBuilder()
+                .maximumSize(versionesMax)
+                .expireAfter(expiry((VersionEntity v) -> v.getEstado() == VersionEstado.Sealed, ttlNanos))
+                .recordStats()
+                .build(this::cargarVersion);
+        this.artefactos = Caffeine.newBuilder()
+                .maximumSize(artefactosMax)
+                .expireAfter(expiry(Artefactos::sellada, ttlNanos))
+                .recordStats()
+                .build(this::cargarArtefactos);
+        CaffeineCacheMetrics.monitor(meterRegistry, versiones, "versiones.version");
+        CaffeineCacheMetrics.monitor(meterRegistry, artefactos, "versiones.artefactos");
+    }
+
+    public Optional<VersionEntity> version(String versionId) {
+        return Optional.ofNullable(versiones.get(versionId));
+    }
+
+    /** Artefactos de la versión, en una lista inmutable. */
+    public List<ArtefactoEntity> artefactos(String versionId) {
+        return artefactos.get(versionId).items();
+    }
+
+    public void evictVersion(String versionId) {
+        evict(versiones::invalidate, versionId);
+        evict(artefactos::invalidate, versionId);
+    }
+
+    public void evictArtefactos(String versionId) {
+        evict(artefactos::invalidate, versionId);
+    }
+
+    private VersionEntity cargarVersion(String versionId) {
+        return versionRepository.findById(versionId).map(this::detach).orElse(null);
+    }
+
+    private Artefactos cargarArtefactos(String versionId) {
+        var items = artefactoRepository.findByVersionId(versionId).stream().map(this::detach).toList();
+        boolean sellada = version(versionId).map(v -> v.getEstado() == VersionEstado.Sealed).orElse(false);
+        return new Artefactos(items, sellada);
+    }
+
+    // La carga puede ocurrir dentro de la transacción del llamador: sin detach, un cambio en esa
+    // transacción alteraría la instancia compartida.
+    private <T> T detach(T entity) {
+        if (entityManager.contains(entity)) {
+            entityManager.detach(entity);
+        }
+        return entity;
+    }
+
+    private static void evict(Consumer<String> invalidate, String key) {
+        invalidate.accept(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.accept(key);
+                }
+            });
+        }
+    }
+
+    private static <V> Expiry<String, V> expiry(Predicate<V> permanente, long ttlNanos) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, V value, long currentTime) {
+                return permanente.test(value) ? Long.MAX_VALUE : ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
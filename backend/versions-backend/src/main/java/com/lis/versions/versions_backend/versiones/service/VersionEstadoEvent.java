@@ -0,0 +1,6 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+
+/** Alta ({@code desde} nulo) o transición de estado de una versión; se publica dentro de la transacción. */
+public record VersionEstadoEvent(String versionId, String cliente, VersionEstado desde, VersionEstado hacia, String ts) {}
@@ -1,49 +1,124 @@
 package com.lis.versions.versions_backend.versiones.service;
 
+import com.lis.versions.versions_backend.common.db.EnShard;
+import com.lis.versions.versions_backend.common.db.Shards;
 import com.lis.versions.versions_backend.versiones.api.Dtos;
 import com.lis.versions.versions_backend.versiones.domain.*;
+import com.lis.versions.versions_backend.versiones.jobs.JobProgress;
+import com.lis.versions.versions_backend.versiones.jobs.JobStatusEvent;
+import com.lis.versions.versions_backend.versiones.jobs.JobsEnqueuedEvent;
 import com.lis.versions.versions_backend.versiones.repo.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 public class VersionService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_OFFSET_PAGE_SIZE = 50;
+    private static final int MAX_OFFSET = 1000;
+    private static final int MAX_BUSQUEDA = 100;
+    private static final int MAX_SEMVER = 500;
+    // Mismos separadores que el tokenizer unicode61
+    private static final Pattern TERMINO_SEP = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final VersionRepository versionRepository;
     private final ArtefactoRepository artefactoRepository;
-    private final EventoAuditoriaRepository eventoAuditoriaRepository;
+    private final VersionCache cache;
+    private final AnalyticsService analytics;
+    private final AuditoriaWriter auditoria;
     private final JobQueueRepository jobQueueRepository;
     private final BorradorRepository borradorRepository;
+    private final BusquedaRepository busquedaRepository;
+    private final SelloRepository selloRepository;
+    private final OutboxRenderer outboxRenderer;
+    private final ApplicationEventPublisher events;
+    private final JobProgress jobProgress;
+    private final Validator validator;
+    private final Shards shards;
+    private final int loteMax;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public VersionService(VersionRepository versionRepository,
                           ArtefactoRepository artefactoRepository,
-                          EventoAuditoriaRepository eventoAuditoriaRepository,
+                          VersionCache cache,
+                          AnalyticsService analytics,
+                          AuditoriaWriter auditoria,
                           JobQueueRepository jobQueueRepository,
-                          BorradorRepository borradorRepository) {
+                          BorradorRepository borradorRepository,
+                          BusquedaRepository busquedaRepository,
+                          SelloRepository selloRepository,
+                          OutboxRenderer outboxRenderer,
+                          ApplicationEventPublisher events,
+                          JobProgress jobProgress,
+                          Validator validator,
+                          Shards shards,
+                          @Value("${versiones.lote.max-items:500}") int loteMax,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.versionRepository = versionRepository;
         this.artefactoRepository = artefactoRepository;
-        this.eventoAuditoriaRepository = eventoAuditoriaRepository;
+        this.cache = cache;
+        this.analytics = analytics;
+        this.auditoria = auditoria;
         this.jobQueueRepository = jobQueueRepository;
         this.borradorRepository = borradorRepository;
+        this.busquedaRepository = busquedaRepository;
+        this.selloRepository = selloRepository;
+        this.outboxRenderer = outboxRenderer;
+        this.events = events;
+        this.jobProgress = jobProgress;
+        this.validator = validator;
+        this.shards = shards;
+        this.loteMax = loteMax;
+        this.batchSize = batchSize;
     }
 
-    private static String now() {
+    static String now() {
         return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
+    @EnShard(cliente = "#req?.cliente", crear = true)
     @Transactional
     public VersionEntity registrar(Dtos.RegistrarVersionRequest req) {
+        return registrar(req, null, null);
+    }
+
+    /**
+     * Con {@code idempotencyKey}, una versión ya registrada con esa clave se devuelve tal cual en
+     * lugar de responder 409 (respaldo de {@link IdempotenciaService} si se perdió su respuesta).
+     */
+    @EnShard(cliente = "#req?.cliente", crear = true)
+    @Transactional
+    public VersionEntity registrar(Dtos.RegistrarVersionRequest req, String idempotencyKey, String correlationId) {
+        if (idempotencyKey != null) {
+            var previa = versionRepository.findByIdempotencyKey(idempotencyKey);
+            if (previa.isPresent()) return previa.get();
+        }
         if (versionRepository.existsByClienteAndNombreAndNumeroVersionAndBuildYyyymmdd(req.cliente, req.nombre, req.numeroVersion, req.buildYyyymmdd)) {
             throw new ServiceException(409, "VERSION_DUPLICADA", "Ya existe una versión con los mismos parámetros");
         }
         var v = new VersionEntity(
-                UUID.randomUUID().toString(),
+                Ids.nuevo(),
                 req.cliente,
                 req.nombre,
                 req.numeroVersion,
@@ -55,21 +130,27 @@ public class VersionService {
                 now(),
                 now()
         );
+        v.setIdempotencyKey(idempotencyKey);
+        v.setCorrelationId(correlationId);
         versionRepository.save(v);
+        shards.registrar(List.of(v.getId()));
+        analytics.registradas(List.of(v));
+        events.publishEvent(new VersionEstadoEvent(v.getId(), v.getCliente(), null, VersionEstado.Draft, v.getCreadoEn()));
         audit(v.getId(), "version_registrada", req.responsable, "Registro de versión en estado Draft");
         return v;
     }
 
+    @EnShard(version = "#versionId")
     @Transactional
     public ArtefactoEntity adjuntarArtefacto(String versionId, Dtos.AdjuntarArtefactoRequest req, String actor) {
-        var version = versionRepository.findById(versionId)
-                .orElseThrow(() -> new ServiceException(404, "VERSION_NO_ENCONTRADA", "Versión no encontrada"));
+        var version = buscar(versionId);
         if (!(version.getEstado() == VersionEstado.Draft || version.getEstado() == VersionEstado.Ready)) {
             throw new ServiceException(422, "ESTADO_INVALIDO", "Solo se pueden adjuntar artefactos en Draft o Ready");
         }
         validarTipoYRama(req.tipo, req.rama);
+        ArtefactoFiles.validarRutas(req.rutaDestino, req.nombreOriginal, req.nombreFinal, req.uploadedUrl);
         var a = new ArtefactoEntity(
-                UUID.randomUUID().toString(),
+                Ids.nuevo(),
                 versionId,
                 req.tipo,
                 req.rama,
@@ -82,11 +163,156 @@ public class VersionService {
                 now()
         );
         artefactoRepository.save(a);
+        cache.evictArtefactos(versionId);
+        analytics.adjuntados(List.of(a));
         audit(versionId, "artefacto_adjuntado", actor, "tipo=" + req.tipo + ", rama=" + req.rama + ", nombre=" + req.nombreOriginal);
         return a;
     }
 
-    private void validarTipoYRama(String tipo, String rama) {
+    /**
+     * Registra un lote de versiones en una sola transacción. Los elementos inválidos o duplicados
+     * (contra la base o dentro del mismo lote) se informan por índice y no impiden crear el resto;
+     * las versiones se insertan con batch JDBC y la auditoría en un único INSERT multi-fila.
+     *
+     * Con un archivo por cliente el lote se reparte por cliente y cada parte se confirma en la
+     * transacción de su shard; si una parte falla, sus elementos se informan con
+     * {@code LOTE_SHARD_FALLIDO} y las demás quedan registradas.
+     */
+    public Dtos.LoteResultado registrarLote(List<Dtos.RegistrarVersionRequest> reqs) {
+        checkLote(reqs);
+        var items = new Dtos.LoteItem[reqs.size()];
+        var porShard = new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < reqs.size(); i++) {
+            var req = reqs.get(i);
+            String invalido = violacion(req);
+            if (invalido != null) {
+                items[i] = Dtos.LoteItem.error(i, "VALIDATION_ERROR", invalido);
+                continue;
+            }
+            porShard.computeIfAbsent(shards.deCliente(req.cliente, true), k -> new ArrayList<>()).add(i);
+        }
+        for (var parte : porShard.entrySet()) {
+            try {
+                shards.escribir(parte.getKey(), () -> registrarLoteEn(reqs, parte.getValue(), items));
+            } catch (RuntimeException e) {
+                if (porShard.size() == 1) throw e;
+                for (int i : parte.getValue()) {
+                    items[i] = Dtos.LoteItem.error(i, "LOTE_SHARD_FALLIDO", "No se pudo registrar en el archivo del cliente: " + e.getMessage());
+                }
+            }
+        }
+        return Dtos.LoteResultado.of(Arrays.asList(items));
+    }
+
+    /** Parte del lote de un mismo shard (o el lote entero); rellena {@code items} en los índices dados. */
+    private void registrarLoteEn(List<Dtos.RegistrarVersionRequest> reqs, List<Integer> indices, Dtos.LoteItem[] items) {
+        var clientes = new HashSet<String>();
+        var nombres = new HashSet<String>();
+        for (int i : indices) {
+            clientes.add(reqs.get(i).cliente);
+            nombres.add(reqs.get(i).nombre);
+        }
+        clientes.remove(null);
+        nombres.remove(null);
+        var claves = clientes.isEmpty() || nombres.isEmpty()
+                ? new HashSet<ClaveVersion>()
+                : new HashSet<>(versionRepository.findClaves(clientes, nombres));
+
+        String ts = now();
+        var nuevas = new ArrayList<VersionEntity>(indices.size());
+        var eventos = new ArrayList<EventoAuditoriaEntity>(indices.size());
+        for (int i : indices) {
+            var req = reqs.get(i);
+            if (!claves.add(new ClaveVersion(req.cliente, req.nombre, req.numeroVersion, req.buildYyyymmdd))) {
+                items[i] = Dtos.LoteItem.error(i, "VERSION_DUPLICADA", "Ya existe una versión con los mismos parámetros");
+                continue;
+            }
+            var v = new VersionEntity(Ids.nuevo(), req.cliente, req.nombre, req.numeroVersion,
+                    req.buildYyyymmdd, VersionEstado.Draft, req.responsable, req.branch, null, ts, ts);
+            nuevas.add(v);
+            eventos.add(evento(v.getId(), "version_registrada", req.responsable, "Registro de versión en estado Draft (lote)", ts));
+            items[i] = Dtos.LoteItem.ok(i, v.getId());
+        }
+        persistAll(nuevas);
+        shards.registrar(nuevas.stream().map(VersionEntity::getId).toList());
+        analytics.registradas(nuevas);
+        for (var v : nuevas) {
+            events.publishEvent(new VersionEstadoEvent(v.getId(), v.getCliente(), null, VersionEstado.Draft, ts));
+        }
+        auditoria.registrarTodos(eventos);
+    }
+
+    /** Adjunta varios artefactos a una versión con una única lectura de la versión y un batch de inserts. */
+    @EnShard(version = "#versionId")
+    @Transactional
+    public Dtos.LoteResultado adjuntarArtefactosLote(String versionId, List<Dtos.AdjuntarArtefactoRequest> reqs, String actor) {
+        checkLote(reqs);
+        var version = buscar(versionId);
+        if (!(version.getEstado() == VersionEstado.Draft || version.getEstado() == VersionEstado.Ready)) {
+            throw new ServiceException(422, "ESTADO_INVALIDO", "Solo se pueden adjuntar artefactos en Draft o Ready");
+        }
+        String ts = now();
+        var items = new ArrayList<Dtos.LoteItem>(reqs.size());
+        var adjuntos = new ArrayList<ArtefactoEntity>(reqs.size());
+        var eventos = new ArrayList<EventoAuditoriaEntity>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            var req = reqs.get(i);
+            String invalido = violacion(req);
+            if (invalido != null) {
+                items.add(Dtos.LoteItem.error(i, "VALIDATION_ERROR", invalido));
+                continue;
+            }
+            try {
+                validarTipoYRama(req.tipo, req.rama);
+                ArtefactoFiles.validarRutas(req.rutaDestino, req.nombreOriginal, req.nombreFinal, req.uploadedUrl);
+            } catch (ServiceException e) {
+                items.add(Dtos.LoteItem.error(i, e.code, e.getMessage()));
+                continue;
+            }
+            var a = new ArtefactoEntity(Ids.nuevo(), versionId, req.tipo, req.rama, req.nombreOriginal,
+                    req.nombreFinal, req.rutaDestino, req.sizeBytes, req.md5, req.uploadedUrl, ts);
+            adjuntos.add(a);
+            eventos.add(evento(versionId, "artefacto_adjuntado", actor,
+                    "tipo=" + req.tipo + ", rama=" + req.rama + ", nombre=" + req.nombreOriginal, ts));
+            items.add(Dtos.LoteItem.ok(i, a.getId()));
+        }
+        persistAll(adjuntos);
+        cache.evictArtefactos(versionId);
+        analytics.adjuntados(adjuntos);
+        auditoria.registrarTodos(eventos);
+        return Dtos.LoteResultado.of(items);
+    }
+
+    private void checkLote(List<?> reqs) {
+        if (reqs == null || reqs.isEmpty()) {
+            throw new ServiceException(422, "LOTE_VACIO", "El lote no contiene elementos");
+        }
+        if (reqs.size() > loteMax) {
+            throw new ServiceException(422, "LOTE_DEMASIADO_GRANDE", "El lote admite hasta " + loteMax + " elementos");
+        }
+    }
+
+    private String violacion(Object req) {
+        if (req == null) return "elemento nulo";
+        return validator.validate(req).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .findFirst().orElse(null);
+    }
+
+    // persist (no merge): con ids asignados, save() haría un SELECT por fila antes de cada INSERT.
+    private void persistAll(List<?> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+    }
+
+    void validarTipoYRama(String tipo, String rama) {
         if (!("bin".equals(tipo) || "pkg".equals(tipo) || "doc".equals(tipo))) {
             throw new ServiceException(422, "TIPO_INVALIDO", "Tipo de artefacto inválido");
         }
@@ -95,14 +321,14 @@ public class VersionService {
         }
     }
 
+    @EnShard(version = "#versionId")
     @Transactional
     public VersionEntity validar(String versionId, String actor) {
-        var version = versionRepository.findById(versionId)
-                .orElseThrow(() -> new ServiceException(404, "VERSION_NO_ENCONTRADA", "Versión no encontrada"));
+        var version = buscar(versionId);
         if (version.getEstado() != VersionEstado.Draft) {
             throw new ServiceException(422, "ESTADO_INVALIDO", "Solo se valida desde Draft");
         }
-        var arts = artefactoRepository.findByVersionId(versionId);
+        var arts = cache.artefactos(versionId);
         if (arts.isEmpty()) {
             throw new ServiceException(422, "SIN_ARTEFACTOS", "Debe adjuntar artefactos antes de validar");
         }
@@ -112,43 +338,279 @@ public class VersionService {
         if (!(tieneBase && tieneAum)) {
             throw new ServiceException(422, "REGLA_ARTEFACTOS", "Se requiere al menos un bin en base y uno en aumento");
         }
-        version.setEstado(VersionEstado.Ready);
-        version.setActualizadoEn(now());
-        versionRepository.save(version);
+        var validada = transicionar(version, VersionEstado.Draft, VersionEstado.Ready, "Solo se valida desde Draft");
         audit(versionId, "version_validada", actor, "Estado → Ready");
-        return version;
+        return validada;
     }
 
+    @EnShard(version = "#versionId")
     @Transactional
     public VersionEntity publicar(String versionId, String actor) {
-        var version = versionRepository.findById(versionId)
-                .orElseThrow(() -> new ServiceException(404, "VERSION_NO_ENCONTRADA", "Versión no encontrada"));
+        var version = buscar(versionId);
         if (version.getEstado() != VersionEstado.Ready) {
             throw new ServiceException(422, "ESTADO_INVALIDO", "Solo se publica desde Ready");
         }
-        // Encolar trabajos mínimos
-        enqueue(versionId, "COPY_ARTIFACTS", "copy_" + versionId);
-        enqueue(versionId, "COMPUTE_MD5", "md5_" + versionId);
-        enqueue(versionId, "GEN_OUTBOX", "outbox_" + versionId);
+        var publicada = transicionar(version, VersionEstado.Ready, VersionEstado.Published, "Solo se publica desde Ready");
+
+        // Copia y outbox corren en paralelo; MD5 espera a la copia y la evidencia a todo lo demás.
+        String copy = enqueue(versionId, "COPY_ARTIFACTS", "copy_" + versionId);
+        String md5 = enqueue(versionId, "COMPUTE_MD5", "md5_" + versionId, copy);
+        String outboxJob = enqueue(versionId, "GEN_OUTBOX", "outbox_" + versionId);
+        enqueue(versionId, "PACKAGE_EVIDENCE", "evidence_" + versionId, md5, outboxJob);
+        events.publishEvent(new JobsEnqueuedEvent(versionId));
+
+        // Borrador del outbox (CU-5 local); los archivos .eml/.md los escribe GEN_OUTBOX tras el commit
+        var outbox = outboxRenderer.render("outbox", publicada);
+        borradorRepository.save(new BorradorEntity(Ids.nuevo(), versionId, "outbox",
+                outbox.asunto(), outbox.cuerpo(), null, "DRAFT", null, now()));
+
+        audit(versionId, "version_publicada", actor, "Estado → Published y borrador de outbox generado");
+        return publicada;
+    }
+
+    /**
+     * Published → Sealed y guarda el manifiesto Merkle que calculó {@link SelloService}, en la misma
+     * transacción (y detrás de la cola de escritura del modo afinado, como el resto de escrituras).
+     */
+    @EnShard(version = "#versionId")
+    @Transactional
+    public VersionEntity sellar(String versionId, String actor, Sello sello, List<SelloArchivo> archivos) {
+        var version = buscar(versionId);
+        var sellada = transicionar(version, VersionEstado.Published, VersionEstado.Sealed, "Solo se sella desde Published");
+        selloRepository.guardar(sello, archivos);
+        audit(versionId, "version_sellada", actor, "Estado → Sealed, raíz Merkle " + sello.raiz());
+        return sellada;
+    }
+
+    @EnShard(version = "#versionId")
+    public VersionEntity obtener(String versionId) {
+        return buscar(versionId);
+    }
+
+    @EnShard(version = "#versionId")
+    public List<ArtefactoEntity> listarArtefactos(String versionId) {
+        buscar(versionId);
+        return cache.artefactos(versionId);
+    }
+
+    /** Filtro de exportación de auditoría; si se indica versión, debe existir. */
+    @EnShard(version = "#versionId")
+    public AuditoriaFiltro filtroAuditoria(String versionId, String actor, String accion, String desde, String hasta) {
+        if (blankToNull(versionId) != null) buscar(versionId);
+        return new AuditoriaFiltro(blankToNull(versionId), blankToNull(actor), blankToNull(accion),
+                blankToNull(desde), hastaExclusivo(blankToNull(hasta)));
+    }
+
+    private VersionEntity buscar(String versionId) {
+        return cache.version(versionId)
+                .orElseThrow(() -> new ServiceException(404, "VERSION_NO_ENCONTRADA", "Versión no encontrada"));
+    }
+
+    // El estado leído puede venir de la caché: el UPDATE condicionado falla si otra transacción ya
+    // movió la versión, y la instancia cacheada no se modifica (se devuelve una copia).
+    private VersionEntity transicionar(VersionEntity v, VersionEstado desde, VersionEstado hacia, String mensaje) {
+        String ts = now();
+        cache.evictVersion(v.getId());
+        if (versionRepository.transicionar(v.getId(), desde, hacia, ts) == 0) {
+            throw new ServiceException(422, "ESTADO_INVALIDO", mensaje);
+        }
+        analytics.transicion(v, desde, hacia, ts);
+        events.publishEvent(new VersionEstadoEvent(v.getId(), v.getCliente(), desde, hacia, ts));
+        var copia = new VersionEntity(v.getId(), v.getCliente(), v.getNombre(), v.getNumeroVersion(), v.getBuildYyyymmdd(),
+                hacia, v.getResponsable(), v.getBranch(), v.getReleaseNotesPath(), v.getCreadoEn(), ts);
+        copia.setSemverKey(v.getSemverKey());
+        copia.setCorrelationId(v.getCorrelationId());
+        copia.setIdempotencyKey(v.getIdempotencyKey());
+        return copia;
+    }
+
+    /**
+     * Listado paginado. Por defecto keyset sobre (creado_en, id): el costo no depende de la
+     * profundidad. Con {@code page} se usa offset, permitido solo para páginas pequeñas.
+     */
+    @EnShard(cliente = "#cliente")
+    @Transactional(readOnly = true)
+    public Dtos.Pagina<VersionResumen> listar(String cliente, String estado, String responsable,
+                                             String fechaDesde, String fechaHasta,
+                                             Integer page, Integer size, String sort, String direction, String cursor) {
+        int limit = size == null ? 20 : size;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ServiceException(422, "PAGINACION_INVALIDA", "size debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        if (sort != null && !sort.isBlank() && !"creadoEn".equals(sort)) {
+            throw new ServiceException(422, "ORDEN_NO_SOPORTADO", "Solo se admite sort=creadoEn");
+        }
+        boolean desc = direction == null || !"asc".equalsIgnoreCase(direction);
+        var filtro = new VersionFiltro(blankToNull(cliente), parseEstado(estado), blankToNull(responsable),
+                blankToNull(fechaDesde), hastaExclusivo(blankToNull(fechaHasta)));
+
+        if (page != null && cursor == null) {
+            if (page < 0 || limit > MAX_OFFSET_PAGE_SIZE || (long) page * limit > MAX_OFFSET) {
+                throw new ServiceException(422, "PAGINACION_OFFSET_LIMITADA",
+                        "La paginación por page admite size <= " + MAX_OFFSET_PAGE_SIZE + " y hasta " + MAX_OFFSET
+                                + " filas de desplazamiento; use cursor para recorrer más");
+            }
+            List<VersionResumen> content;
+            if (shards.repartir()) {
+                // Cada archivo aporta sus primeras filas hasta el final de la página; la página sale de la mezcla
+                int hasta = page * limit + limit;
+                var todas = shards.unir(() -> versionRepository.listarOffset(filtro, desc, 0, hasta), orden(desc), hasta);
+                content = todas.subList(Math.min(page * limit, todas.size()), todas.size());
+            } else {
+                content = versionRepository.listarOffset(filtro, desc, page * limit, limit);
+            }
+            long total = shards.sumar(() -> versionRepository.contar(filtro));
+            int totalPages = (int) ((total + limit - 1) / limit);
+            return new Dtos.Pagina<>(content, total, totalPages, limit, page, page == 0, page + 1 >= totalPages, null);
+        }
+
+        var after = decodeCursor(cursor);
+        var rows = shards.unir(() -> versionRepository.listarDespues(filtro, after, desc, limit + 1), orden(desc), limit + 1);
+        boolean last = rows.size() <= limit;
+        var content = last ? rows : rows.subList(0, limit);
+        String next = last ? null : encodeCursor(content.get(content.size() - 1));
+        return new Dtos.Pagina<>(content, null, null, limit, null, after == null, last, next);
+    }
+
+    /** Mismo orden que el índice (creado_en, id) de los listados, para mezclar los de cada shard. */
+    private static Comparator<VersionResumen> orden(boolean desc) {
+        Comparator<VersionResumen> asc = Comparator.comparing(VersionResumen::creadoEn).thenComparing(VersionResumen::id);
+        return desc ? asc.reversed() : asc;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    private static VersionEstado parseEstado(String estado) {
+        if (estado == null || estado.isBlank()) return null;
+        try {
+            return VersionEstado.valueOf(estado);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException(422, "ESTADO_INVALIDO", "Estado desconocido: " + estado);
+        }
+    }
 
-        // Generar outbox local inmediato (CU-5 local)
-        generarOutboxLocal(version);
+    // Una fecha sin hora incluye todo ese día.
+    private static String hastaExclusivo(String hasta) {
+        if (hasta == null || hasta.length() != 10) return hasta;
+        try {
+            return LocalDate.parse(hasta).plusDays(1).toString();
+        } catch (RuntimeException e) {
+            throw new ServiceException(422, "FECHA_INVALIDA", "fecha hasta inválida: " + hasta);
+        }
+    }
+
+    private static String encodeCursor(VersionResumen v) {
+        var raw = v.creadoEn() + "\n" + v.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-        version.setEstado(VersionEstado.Published);
-        version.setActualizadoEn(now());
-        versionRepository.save(version);
-        audit(versionId, "version_publicada", actor, "Estado → Published y outbox local generado");
-        return version;
+    private static VersionRepository.Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('\n');
+            if (sep < 0) throw new IllegalArgumentException();
+            return new VersionRepository.Cursor(raw.substring(0, sep), raw.substring(sep + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException(422, "CURSOR_INVALIDO", "Cursor de paginación inválido");
+        }
     }
 
-    private void enqueue(String versionId, String type, String jobKey) {
-        if (jobQueueRepository.existsByJobKey(jobKey)) return;
+    /** Las {@code n} versiones más altas por semver de un producto; {@code estado} es opcional. */
+    @EnShard(cliente = "#cliente")
+    @Transactional(readOnly = true)
+    public List<VersionSemver> ultimasVersiones(String cliente, String nombre, String estado, Integer n) {
+        checkProducto(cliente, nombre);
+        return versionRepository.ultimasSemver(cliente, nombre, parseEstado(estado), limiteSemver(n, 10));
+    }
+
+    /** Versiones de un producto dentro de {@code rango} (p. ej. {@code >=1.4 <2.0}), ascendente. */
+    @EnShard(cliente = "#cliente")
+    @Transactional(readOnly = true)
+    public List<VersionSemver> rangoVersiones(String cliente, String nombre, String rango, Integer limit) {
+        checkProducto(cliente, nombre);
+        var r = Semver.rango(rango);
+        if (r == null) {
+            throw new ServiceException(422, "RANGO_INVALIDO", "rango debe ser comparadores semver, p. ej. >=1.4 <2.0");
+        }
+        return versionRepository.rangoSemver(cliente, nombre, r, limiteSemver(limit, MAX_SEMVER));
+    }
+
+    /** Versión publicada inmediatamente anterior (por semver) a la indicada, del mismo producto. */
+    @EnShard(version = "#versionId")
+    @Transactional(readOnly = true)
+    public VersionSemver anteriorPublicada(String versionId) {
+        var v = buscar(versionId);
+        if (v.getSemverKey() == null) {
+            throw new ServiceException(422, "VERSION_NO_SEMVER", "numero_version no es semver: " + v.getNumeroVersion());
+        }
+        return versionRepository.anteriorPublicada(v.getCliente(), v.getNombre(), v.getSemverKey(), v.getBuildYyyymmdd())
+                .orElseThrow(() -> new ServiceException(404, "SIN_PUBLICADA_ANTERIOR", "No hay una versión publicada anterior"));
+    }
+
+    private static void checkProducto(String cliente, String nombre) {
+        if (blankToNull(cliente) == null || blankToNull(nombre) == null) {
+            throw new ServiceException(422, "VALIDATION_ERROR", "cliente y nombre son obligatorios");
+        }
+    }
+
+    private static int limiteSemver(Integer n, int porDefecto) {
+        int limite = n == null ? porDefecto : n;
+        if (limite < 1 || limite > MAX_SEMVER) {
+            throw new ServiceException(422, "LIMIT_INVALIDO", "limit debe estar entre 1 y " + MAX_SEMVER);
+        }
+        return limite;
+    }
+
+    /**
+     * Búsqueda de texto completo (FTS5) sobre versiones, borradores y release notes, ordenada por
+     * relevancia. Cada término de {@code q} se busca como prefijo y deben aparecer todos.
+     */
+    @EnShard(cliente = "#cliente")
+    @Transactional(readOnly = true)
+    public List<ResultadoBusqueda> buscarTexto(String q, String cliente, Integer limit) {
+        var terminos = q == null ? new String[0] : TERMINO_SEP.split(q.strip());
+        var match = new StringBuilder();
+        for (String t : terminos) {
+            if (t.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            // Entre comillas: el texto del usuario nunca se interpreta como sintaxis FTS5
+            match.append('"').append(t).append("\"*");
+        }
+        if (match.length() == 0) {
+            throw new ServiceException(422, "BUSQUEDA_INVALIDA", "q debe tener al menos una letra o dígito");
+        }
+        int n = limit == null ? 20 : limit;
+        if (n < 1 || n > MAX_BUSQUEDA) {
+            throw new ServiceException(422, "LIMIT_INVALIDO", "limit debe estar entre 1 y " + MAX_BUSQUEDA);
+        }
+        String c = blankToNull(cliente);
+        return shards.unir(() -> busquedaRepository.buscar(match.toString(), c, n),
+                Comparator.comparingDouble(ResultadoBusqueda::rank), n);
+    }
+
+    @EnShard(version = "#versionId")
+    @Transactional(readOnly = true)
+    public List<Dtos.JobView> listarJobs(String versionId) {
+        buscar(versionId);
+        return jobQueueRepository.findByVersionIdOrderByCreatedAtAsc(versionId).stream().map(j -> {
+            var p = jobProgress.get(j.getId()).orElse(null);
+            return new Dtos.JobView(j.getId(), j.getType(), j.getStatus(), j.getPriority(), j.getAttempt(),
+                    p != null ? p.done() : null, p != null ? p.total() : null, p != null ? p.percent() : null,
+                    j.getOutputJson(), j.getErrorMsg(), j.getCreatedAt(), j.getUpdatedAt());
+        }).toList();
+    }
+
+    /** Encola el job (si su {@code jobKey} no existe) detrás de {@code dependeDe}; devuelve su id. */
+    private String enqueue(String versionId, String type, String jobKey, String... dependeDe) {
         var j = new JobQueueEntity(
-                UUID.randomUUID().toString(),
+                Ids.nuevo(),
                 versionId,
                 type,
                 jobKey,
-                null,
+                "{}",
                 "PENDING",
                 "NORMAL",
                 0,
@@ -157,30 +619,18 @@ public class VersionService {
                 now(),
                 now()
         );
-        jobQueueRepository.save(j);
+        if (!jobQueueRepository.encolar(j)) return jobQueueRepository.findByJobKey(jobKey).orElseThrow().getId();
+        if (dependeDe.length > 0) jobQueueRepository.agregarDependencias(j.getId(), List.of(dependeDe));
+        events.publishEvent(new JobStatusEvent(j.getId(), versionId, type, "PENDING", 0, j.getCreatedAt()));
+        return j.getId();
     }
 
-    private void generarOutboxLocal(VersionEntity v) {
-        try {
-            Path outbox = Path.of("data", "outbox");
-            Files.createDirectories(outbox);
-            String asunto = "SOLICITUD DE PUBLICACIÓN " + v.getNombre() + v.getNumeroVersion() + " _ " + v.getBuildYyyymmdd();
-            String cuerpo = "Publicación de versión " + v.getNombre() + v.getNumeroVersion() + " (build " + v.getBuildYyyymmdd() + ")";
-            Path eml = outbox.resolve("pub_" + v.getId() + ".eml");
-            Path md = outbox.resolve("release-notes_" + v.getId() + ".md");
-            Files.writeString(eml, "Subject: " + asunto + "\n\n" + cuerpo);
-            Files.writeString(md, "# Release Notes\n\n- Cliente: " + v.getCliente() + "\n- Version: " + v.getNumeroVersion() + "\n- Build: " + v.getBuildYyyymmdd());
-            // persist borrador
-            var b = new BorradorEntity(UUID.randomUUID().toString(), v.getId(), "outbox", asunto, cuerpo, null, "DRAFT", null, now());
-            borradorRepository.save(b);
-        } catch (Exception e) {
-            throw new ServiceException(502, "OUTBOX_ERROR", "No se pudo generar outbox local: " + e.getMessage());
-        }
+    private void audit(String versionId, String accion, String actor, String detalles) {
+        auditoria.registrar(evento(versionId, accion, actor, detalles, now()));
     }
 
-    private void audit(String versionId, String accion, String actor, String detalles) {
-        var ev = new EventoAuditoriaEntity(UUID.randomUUID().toString(), versionId, accion, actor, null, detalles, now());
-        eventoAuditoriaRepository.save(ev);
+    private static EventoAuditoriaEntity evento(String versionId, String accion, String actor, String detalles, String ts) {
+        return new EventoAuditoriaEntity(Ids.nuevo(), versionId, accion, actor, null, detalles, ts);
     }
 
     public static class ServiceException extends RuntimeException {
@@ -0,0 +1,59 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer {@code versiones.service} sobre cada operación pública de {@link VersionService}, con tags
+ * {@code operation}, {@code outcome} (ok/error) y {@code code} ({@link VersionService.ServiceException#code},
+ * la clase de la excepción si es otra, o {@code none}). El conteo del timer es el contador de
+ * llamadas por resultado.
+ *
+ * Va por fuera de {@link com.lis.versions.versions_backend.common.db.SqliteWriteGate} y de la
+ * transacción: la duración incluye la espera de escritura y el commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class VersionServiceMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public VersionServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.lis.versions.versions_backend.versiones.service.VersionService.*(..))")
+    public Object timed(ProceedingJoinPoint pjp) throws Throwable {
+        String outcome = "ok";
+        String code = "none";
+        long t0 = System.nanoTime();
+        try {
+            return pjp.proceed();
+        } catch (VersionService.ServiceException e) {
+            outcome = "error";
+            code = e.code;
+            throw e;
+        } catch (Throwable e) {
+            outcome = "error";
+            code = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder("versiones.service")
+                    .description("Operaciones de VersionService")
+                    .tag("operation", pjp.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("code", code)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+}
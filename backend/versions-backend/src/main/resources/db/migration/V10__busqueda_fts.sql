@@ -0,0 +1,71 @@
+-- ==========================================================
+-- V10__busqueda_fts.sql
+-- Tablas: busqueda (FTS5), busqueda_doc
+--
+-- Propósito:
+--   - Búsqueda de texto completo para GET /api/versiones/buscar: datos de la
+--     versión, borradores (asunto + cuerpo) y release notes generadas.
+--   - busqueda_doc asigna a cada documento un rowid estable (INTEGER PRIMARY
+--     KEY, no cambia con VACUUM) y guarda a qué versión pertenece.
+--   - version y borrador se mantienen por triggers; las release notes las
+--     indexa VersionService al generarlas.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS busqueda_doc (
+  doc_id INTEGER PRIMARY KEY,
+  ref TEXT NOT NULL UNIQUE,            -- v:<version_id> | b:<borrador_id> | rn:<version_id>
+  version_id TEXT NOT NULL,
+  tipo TEXT NOT NULL CHECK (tipo IN ('version','borrador','release_notes'))
+);
+
+-- prefix: índices de prefijo de 2 y 3 caracteres para las consultas "abc*"
+CREATE VIRTUAL TABLE IF NOT EXISTS busqueda USING fts5(
+  cliente, nombre, numero_version, branch, texto,
+  tokenize = 'unicode61 remove_diacritics 2',
+  prefix = '2 3'
+);
+
+CREATE TRIGGER IF NOT EXISTS trg_busqueda_version_ins AFTER INSERT ON version BEGIN
+  INSERT INTO busqueda_doc (ref, version_id, tipo) VALUES ('v:' || new.id, new.id, 'version');
+  INSERT INTO busqueda (rowid, cliente, nombre, numero_version, branch, texto)
+    VALUES (last_insert_rowid(), new.cliente, new.nombre, new.numero_version, new.branch, NULL);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_busqueda_version_upd
+AFTER UPDATE OF cliente, nombre, numero_version, branch ON version BEGIN
+  UPDATE busqueda SET cliente = new.cliente, nombre = new.nombre, numero_version = new.numero_version,
+      branch = new.branch
+    WHERE rowid = (SELECT doc_id FROM busqueda_doc WHERE ref = 'v:' || new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_busqueda_version_del AFTER DELETE ON version BEGIN
+  DELETE FROM busqueda WHERE rowid IN (SELECT doc_id FROM busqueda_doc WHERE version_id = old.id);
+  DELETE FROM busqueda_doc WHERE version_id = old.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_busqueda_borrador_ins AFTER INSERT ON borrador BEGIN
+  INSERT INTO busqueda_doc (ref, version_id, tipo) VALUES ('b:' || new.id, new.version_id, 'borrador');
+  INSERT INTO busqueda (rowid, texto) VALUES (last_insert_rowid(), new.asunto || char(10) || new.cuerpo);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_busqueda_borrador_upd AFTER UPDATE OF asunto, cuerpo ON borrador BEGIN
+  UPDATE busqueda SET texto = new.asunto || char(10) || new.cuerpo
+    WHERE rowid = (SELECT doc_id FROM busqueda_doc WHERE ref = 'b:' || new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_busqueda_borrador_del AFTER DELETE ON borrador BEGIN
+  DELETE FROM busqueda WHERE rowid = (SELECT doc_id FROM busqueda_doc WHERE ref = 'b:' || old.id);
+  DELETE FROM busqueda_doc WHERE ref = 'b:' || old.id;
+END;
+
+CREATE INDEX IF NOT EXISTS idx_busqueda_doc_version ON busqueda_doc (version_id);
+
+-- Carga inicial de lo existente
+INSERT INTO busqueda_doc (ref, version_id, tipo) SELECT 'v:' || id, id, 'version' FROM version;
+INSERT INTO busqueda_doc (ref, version_id, tipo) SELECT 'b:' || id, version_id, 'borrador' FROM borrador;
+INSERT INTO busqueda (rowid, cliente, nombre, numero_version, branch)
+  SELECT d.doc_id, v.cliente, v.nombre, v.numero_version, v.branch
+  FROM busqueda_doc d JOIN version v ON d.ref = 'v:' || v.id;
+INSERT INTO busqueda (rowid, texto)
+  SELECT d.doc_id, b.asunto || char(10) || b.cuerpo
+  FROM busqueda_doc d JOIN borrador b ON d.ref = 'b:' || b.id;
@@ -0,0 +1,16 @@
+-- ==========================================================
+-- V11__version_semver.sql
+-- Columna: version.semver_key
+--
+-- Propósito:
+--   - Clave de orden semántico de numero_version (ver domain.Semver); NULL si
+--     numero_version no es semver. La calcula la aplicación al registrar; las
+--     filas previas se completan al arrancar.
+--   - Últimas N, rango y publicada anterior por (cliente, nombre) se responden
+--     solo con el índice (cubre las columnas que devuelven).
+-- ==========================================================
+
+ALTER TABLE version ADD COLUMN semver_key TEXT;
+
+CREATE INDEX IF NOT EXISTS idx_version_semver
+  ON version (cliente, nombre, semver_key, build_yyyymmdd, estado, id, numero_version);
@@ -0,0 +1,41 @@
+-- ==========================================================
+-- V12__blob_store.sql
+-- Tabla: blob; columna artefacto.blob_sha256
+--
+-- Propósito:
+--   - Almacén por contenido de los archivos copiados (BlobStore): un blob por
+--     SHA-256, y cada artefacto lo referencia; ruta_destino es un hard link.
+--   - refs se mantiene por triggers al asignar, cambiar o borrar la
+--     referencia de un artefacto. Los blobs con refs = 0 se eliminan pasado
+--     versiones.blobs.gracia-ms desde liberado_en.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS blob (
+  sha256 TEXT NOT NULL PRIMARY KEY,
+  md5 TEXT,
+  size_bytes INTEGER NOT NULL,
+  refs INTEGER NOT NULL DEFAULT 0,
+  creado_en TEXT NOT NULL,
+  liberado_en TEXT                       -- última vez que quedó sin referencias (o se volvió a usar)
+) WITHOUT ROWID;
+
+-- Candidatos a deduplicar sin releer: mismo MD5 declarado y tamaño
+CREATE INDEX IF NOT EXISTS idx_blob_md5 ON blob (md5, size_bytes);
+CREATE INDEX IF NOT EXISTS idx_blob_huerfanos ON blob (liberado_en) WHERE refs = 0;
+
+ALTER TABLE artefacto ADD COLUMN blob_sha256 TEXT;
+
+CREATE TRIGGER IF NOT EXISTS trg_blob_refs_upd AFTER UPDATE OF blob_sha256 ON artefacto
+WHEN old.blob_sha256 IS NOT new.blob_sha256 BEGIN
+  UPDATE blob SET refs = refs + 1 WHERE sha256 = new.blob_sha256;
+  UPDATE blob SET refs = refs - 1,
+      liberado_en = CASE WHEN refs = 1 THEN strftime('%Y-%m-%dT%H:%M:%f', 'now', 'localtime') ELSE liberado_en END
+    WHERE sha256 = old.blob_sha256;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_blob_refs_del AFTER DELETE ON artefacto
+WHEN old.blob_sha256 IS NOT NULL BEGIN
+  UPDATE blob SET refs = refs - 1,
+      liberado_en = CASE WHEN refs = 1 THEN strftime('%Y-%m-%dT%H:%M:%f', 'now', 'localtime') ELSE liberado_en END
+    WHERE sha256 = old.blob_sha256;
+END;
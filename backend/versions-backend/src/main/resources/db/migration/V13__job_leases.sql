@@ -0,0 +1,46 @@
+-- ==========================================================
+-- V13__job_leases.sql
+-- Tabla: job_queue (reconstruida)
+--
+-- Propósito:
+--   - Varios nodos sobre la misma base: el job RUNNING pertenece a owner_node
+--     hasta lease_until, que el nodo renueva con heartbeats (heartbeat_at).
+--   - Un lease vencido vuelve a PENDING con next_attempt_at (backoff
+--     exponencial según attempt) o pasa a DEAD tras versiones.jobs.max-intentos.
+--   - SQLite no modifica CHECK: se recrea la tabla para admitir 'DEAD'.
+-- ==========================================================
+
+CREATE TABLE job_queue_v13 (
+  id TEXT PRIMARY KEY,
+  version_id TEXT NOT NULL,
+  type TEXT NOT NULL CHECK (type IN (
+    'COPY_ARTIFACTS','COMPUTE_MD5','GEN_OUTBOX',
+    'CAPTURE_WIKI_SCREENSHOT','PACKAGE_EVIDENCE'
+  )),
+  job_key TEXT NOT NULL,
+  payload_json TEXT NOT NULL,
+  status TEXT NOT NULL CHECK (status IN ('PENDING','RUNNING','OK','ERROR','DEAD')),
+  priority TEXT NOT NULL CHECK (priority IN ('LOW','NORMAL','HIGH')),
+  attempt INTEGER DEFAULT 0,
+  output_json TEXT,
+  error_msg TEXT,
+  created_at TEXT NOT NULL,
+  updated_at TEXT,
+  owner_node TEXT,
+  lease_until TEXT,
+  heartbeat_at TEXT,
+  next_attempt_at TEXT,                  -- PENDING no reclamable antes de esta fecha (backoff)
+  FOREIGN KEY (version_id) REFERENCES version(id)
+);
+
+INSERT INTO job_queue_v13 (id, version_id, type, job_key, payload_json, status, priority, attempt,
+                           output_json, error_msg, created_at, updated_at)
+SELECT id, version_id, type, job_key, payload_json, status, priority, attempt,
+       output_json, error_msg, created_at, updated_at
+FROM job_queue;
+
+DROP TABLE job_queue;
+ALTER TABLE job_queue_v13 RENAME TO job_queue;
+
+-- Reaper: leases vencidos
+CREATE INDEX IF NOT EXISTS idx_job_queue_lease ON job_queue (lease_until) WHERE status = 'RUNNING';
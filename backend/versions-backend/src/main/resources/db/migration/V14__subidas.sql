@@ -0,0 +1,34 @@
+-- ==========================================================
+-- V14__subidas.sql
+-- Tabla: subida
+--
+-- Propósito:
+--   - Subida reanudable del binario de un artefacto: el cuerpo se escribe en
+--     un parcial y offset_confirmado marca hasta dónde está en disco (fsync).
+--   - Tras una conexión cortada el cliente consulta el offset y continúa.
+--   - Al completar size_bytes se crea el artefacto con el MD5 calculado.
+--
+-- Relación:
+--   - N:1 con version; 1:1 con artefacto una vez COMPLETA.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS subida (
+  id TEXT PRIMARY KEY,
+  version_id TEXT NOT NULL,
+  tipo TEXT NOT NULL CHECK (tipo IN ('bin','pkg','doc')),
+  rama TEXT NOT NULL CHECK (rama IN ('base','aumento')),
+  nombre_original TEXT NOT NULL,
+  nombre_final TEXT,
+  ruta_destino TEXT,
+  size_bytes INTEGER NOT NULL,
+  md5_declarado TEXT,
+  offset_confirmado INTEGER NOT NULL DEFAULT 0,
+  estado TEXT NOT NULL CHECK (estado IN ('EN_CURSO','COMPLETA')),
+  artefacto_id TEXT,
+  actor TEXT,
+  creado_en TEXT NOT NULL,
+  actualizado_en TEXT NOT NULL,
+  FOREIGN KEY (version_id) REFERENCES version(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_subida_version ON subida (version_id);
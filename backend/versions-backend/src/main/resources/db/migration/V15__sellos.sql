@@ -0,0 +1,42 @@
+-- ==========================================================
+-- V15__sellos.sql
+-- Tablas: sello, sello_archivo
+--
+-- Propósito:
+--   - Al sellar una versión (Published → Sealed) cada artefacto se parte en
+--     chunks de chunk_bytes; las hojas SHA-256 de los chunks forman un árbol
+--     Merkle por archivo y las raíces de los archivos el árbol de la versión.
+--   - sello_archivo.hojas guarda las hojas concatenadas (32 bytes c/u) para
+--     indicar qué chunks cambiaron; size_bytes y mtime_ms permiten omitir en
+--     los barridos incrementales los archivos que no se tocaron.
+--
+-- Relación:
+--   - 1:1 sello con version; 1:N sello_archivo por artefacto de la versión.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS sello (
+  version_id TEXT PRIMARY KEY,
+  raiz TEXT NOT NULL,                 -- hex de la raíz Merkle de la versión
+  chunk_bytes INTEGER NOT NULL,
+  archivos INTEGER NOT NULL,
+  sellado_en TEXT NOT NULL,
+  actor TEXT,
+  verificado_en TEXT,
+  resultado TEXT CHECK (resultado IN ('OK','ALTERADO')),
+  FOREIGN KEY (version_id) REFERENCES version(id)
+);
+
+CREATE TABLE IF NOT EXISTS sello_archivo (
+  version_id TEXT NOT NULL,
+  artefacto_id TEXT NOT NULL,
+  ruta TEXT NOT NULL,
+  size_bytes INTEGER NOT NULL,
+  mtime_ms INTEGER NOT NULL,
+  raiz TEXT NOT NULL,
+  hojas BLOB NOT NULL,
+  PRIMARY KEY (version_id, artefacto_id),
+  FOREIGN KEY (version_id) REFERENCES sello(version_id)
+) WITHOUT ROWID;
+
+-- Barrido: sellos menos recientemente verificados primero
+CREATE INDEX IF NOT EXISTS idx_sello_verificado ON sello (verificado_en);
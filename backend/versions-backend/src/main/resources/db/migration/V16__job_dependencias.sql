@@ -0,0 +1,24 @@
+-- ==========================================================
+-- V16__job_dependencias.sql
+-- Tabla: job_dependencia
+--
+-- Propósito:
+--   - DAG de jobs: un job PENDING solo se reclama cuando todos los jobs de
+--     los que depende están OK (p. ej. COMPUTE_MD5 tras COPY_ARTIFACTS y
+--     PACKAGE_EVIDENCE tras todos los de la publicación).
+--   - Si una dependencia termina en ERROR o DEAD, sus dependientes pasan a ERROR.
+--
+-- Relación:
+--   - N:N de job_queue consigo misma.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS job_dependencia (
+  job_id TEXT NOT NULL,
+  depende_de TEXT NOT NULL,
+  PRIMARY KEY (job_id, depende_de),
+  FOREIGN KEY (job_id) REFERENCES job_queue(id),
+  FOREIGN KEY (depende_de) REFERENCES job_queue(id)
+) WITHOUT ROWID;
+
+-- Al terminar un job: buscar sus dependientes
+CREATE INDEX IF NOT EXISTS idx_job_dependencia_padre ON job_dependencia (depende_de);
@@ -0,0 +1,17 @@
+-- ==========================================================
+-- V17__shard_directorio.sql
+-- Tabla: shard_directorio
+--
+-- Propósito:
+--   - Modo por cliente (versiones.sqlite.modo=sharded): a qué archivo de
+--     shard pertenece cada versión, para enrutar las operaciones por id.
+--   - Solo se usa la del archivo global; las migraciones son las mismas para
+--     todos los archivos, así que en cada shard queda vacía.
+--   - Una versión que no figura vive en el archivo global.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS shard_directorio (
+  version_id TEXT PRIMARY KEY,
+  shard TEXT NOT NULL,
+  creado_en TEXT NOT NULL
+) WITHOUT ROWID;
@@ -0,0 +1,24 @@
+-- ==========================================================
+-- V18__auditoria_outbox.sql
+-- Tabla: auditoria_outbox
+--
+-- Propósito:
+--   - Outbox transaccional de la auditoría en modo ASYNC
+--     (versiones.auditoria.modo): los eventos se insertan aquí dentro
+--     de la transacción de negocio y AuditoriaWriter los pasa por lotes
+--     a evento_auditoria.
+--   - Sin índices secundarios ni FK: cada evento es un append al final
+--     del rowid, más barato que los cuatro índices de evento_auditoria.
+--   - seq da el orden de volcado; las filas se borran al volcarse.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS auditoria_outbox (
+  seq INTEGER PRIMARY KEY,
+  id TEXT NOT NULL,
+  version_id TEXT NOT NULL,
+  accion TEXT NOT NULL,
+  actor TEXT NOT NULL,
+  ip_host TEXT,
+  detalles TEXT,
+  timestamp TEXT NOT NULL
+);
@@ -0,0 +1,20 @@
+-- ==========================================================
+-- V19__job_queue_indexes.sql
+-- Tabla: job_queue (índices)
+--
+-- Propósito:
+--   - claimNext: recorre solo los PENDING en el orden de reclamo
+--     (prioridad, created_at) en lugar de toda la cola histórica.
+--     El índice es sobre la misma expresión CASE del ORDER BY para
+--     que SQLite no tenga que ordenar.
+--   - Idempotencia del encolado (findByJobKey) y jobs de una versión
+--     (findByVersionIdOrderByCreatedAtAsc, inicioSiTerminada).
+-- ==========================================================
+
+CREATE INDEX IF NOT EXISTS idx_job_queue_pending ON job_queue (
+  (CASE priority WHEN 'HIGH' THEN 0 WHEN 'NORMAL' THEN 1 ELSE 2 END), created_at
+) WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_job_queue_job_key ON job_queue (job_key);
+
+CREATE INDEX IF NOT EXISTS idx_job_queue_version ON job_queue (version_id, created_at);
@@ -0,0 +1,41 @@
+-- ==========================================================
+-- V20__job_queue_job_key_unico.sql
+-- Tabla: job_queue (índice único)
+--
+-- Propósito:
+--   - job_key identifica el job de una publicación (copy_<version>, ...):
+--     el encolado es INSERT ... ON CONFLICT(job_key) DO NOTHING, que
+--     necesita un índice único y no deja carrera entre dos publicaciones
+--     concurrentes de la misma versión.
+--   - Antes de crearlo se eliminan los duplicados que hayan quedado: se
+--     conserva el más antiguo de cada job_key y las dependencias de los
+--     demás pasan a apuntar a él.
+-- ==========================================================
+
+CREATE TEMP TABLE job_duplicado AS
+SELECT id, conservado FROM (
+  SELECT id,
+         FIRST_VALUE(id) OVER w AS conservado,
+         ROW_NUMBER() OVER w AS n
+  FROM job_queue
+  WINDOW w AS (PARTITION BY job_key ORDER BY created_at, id)
+) WHERE n > 1;
+
+INSERT OR IGNORE INTO job_dependencia (job_id, depende_de)
+SELECT COALESCE(h.conservado, d.job_id), COALESCE(p.conservado, d.depende_de)
+FROM job_dependencia d
+LEFT JOIN job_duplicado h ON h.id = d.job_id
+LEFT JOIN job_duplicado p ON p.id = d.depende_de
+WHERE (h.id IS NOT NULL OR p.id IS NOT NULL)
+  AND COALESCE(h.conservado, d.job_id) <> COALESCE(p.conservado, d.depende_de);
+
+DELETE FROM job_dependencia
+WHERE job_id IN (SELECT id FROM job_duplicado) OR depende_de IN (SELECT id FROM job_duplicado);
+
+DELETE FROM job_queue WHERE id IN (SELECT id FROM job_duplicado);
+
+DROP TABLE job_duplicado;
+
+DROP INDEX IF EXISTS idx_job_queue_job_key;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_job_queue_job_key ON job_queue (job_key);
@@ -0,0 +1,31 @@
+-- ==========================================================
+-- V21__auditoria_fallida.sql
+-- Tablas: auditoria_outbox (intentos), auditoria_fallida
+--
+-- Propósito:
+--   - Un evento del outbox que no entra en evento_auditoria por sus
+--     datos (p. ej. un id repetido) hacía fallar su lote para siempre y
+--     frenaba a todos los posteriores. AuditoriaWriter ahora lo aísla
+--     volcando fila a fila y le suma un intento.
+--   - Tras versiones.auditoria.max-intentos el evento pasa a
+--     auditoria_fallida con el último error, para revisarlo a mano:
+--     la auditoría no se descarta.
+-- ==========================================================
+
+ALTER TABLE auditoria_outbox ADD COLUMN intentos INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE auditoria_outbox ADD COLUMN error TEXT;
+
+CREATE TABLE IF NOT EXISTS auditoria_fallida (
+  seq INTEGER PRIMARY KEY,
+  id TEXT NOT NULL,
+  version_id TEXT NOT NULL,
+  accion TEXT NOT NULL,
+  actor TEXT NOT NULL,
+  ip_host TEXT,
+  detalles TEXT,
+  timestamp TEXT NOT NULL,
+  intentos INTEGER NOT NULL,
+  error TEXT,
+  fallido_en TEXT NOT NULL
+);
@@ -0,0 +1,22 @@
+-- ==========================================================
+-- V22__shard_cliente.sql
+-- Tabla: shard_cliente
+--
+-- Propósito:
+--   - Modo por cliente: archivo de shard asignado a cada cliente. El nombre
+--     del archivo se deriva del cliente con pérdida ("ACME Corp", "acme_corp"
+--     y "acme.corp" dan acme_corp), así que la asignación se guarda y un
+--     cliente que choca con un nombre ya usado recibe el nombre con un hash
+--     corto del cliente (acme_corp-1a2b3c4d).
+--   - Como shard_directorio, solo se usa la del archivo global.
+--   - Los shards creados antes de esta tabla se adoptan al primer uso con
+--     los clientes que contienen.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS shard_cliente (
+  cliente TEXT PRIMARY KEY,
+  shard TEXT NOT NULL,
+  creado_en TEXT NOT NULL
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_shard_cliente_shard ON shard_cliente(shard);
@@ -0,0 +1,12 @@
+-- ==========================================================
+-- V6__version_list_indexes.sql
+-- Índices para GET /api/versiones
+--
+-- Propósito:
+--   - Paginación por keyset sobre (creado_en, id) sin escanear la tabla.
+--   - Filtros por cliente y/o estado servidos desde el mismo índice.
+-- ==========================================================
+
+CREATE INDEX IF NOT EXISTS idx_version_cliente_estado_creado ON version (cliente, estado, creado_en, id);
+CREATE INDEX IF NOT EXISTS idx_version_estado_creado ON version (estado, creado_en, id);
+CREATE INDEX IF NOT EXISTS idx_version_creado ON version (creado_en, id);
@@ -0,0 +1,12 @@
+-- ==========================================================
+-- V7__auditoria_indexes.sql
+-- Índices para la exportación de auditoría
+--
+-- Propósito:
+--   - Recorrer en orden (timestamp, id) por versión, por actor o en un rango
+--     de fechas sin ordenar en memoria ni escanear la tabla.
+-- ==========================================================
+
+CREATE INDEX IF NOT EXISTS idx_evento_version_ts ON evento_auditoria (version_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_evento_actor_ts ON evento_auditoria (actor, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_evento_ts ON evento_auditoria (timestamp, id);
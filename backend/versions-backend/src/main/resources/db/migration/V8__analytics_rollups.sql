@@ -0,0 +1,35 @@
+-- ==========================================================
+-- V8__analytics_rollups.sql
+-- Tablas: rollup_version, rollup_artefacto, rollup_publicacion
+--
+-- Propósito:
+--   - Agregados para GET /api/analytics, mantenidos por VersionService en la
+--     misma transacción que cada cambio; las consultas leen O(grupos) filas.
+--   - POST /api/analytics/rebuild (o --rebuild-rollups al arrancar) los
+--     recalcula desde version, artefacto y evento_auditoria.
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS rollup_version (
+  cliente TEXT NOT NULL,
+  estado TEXT NOT NULL,
+  build_mes TEXT NOT NULL,            -- yyyy-MM de build_yyyymmdd
+  cantidad INTEGER NOT NULL DEFAULT 0,
+  PRIMARY KEY (cliente, estado, build_mes)
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS rollup_artefacto (
+  tipo TEXT NOT NULL,
+  rama TEXT NOT NULL,
+  cantidad INTEGER NOT NULL DEFAULT 0,
+  bytes INTEGER NOT NULL DEFAULT 0,
+  PRIMARY KEY (tipo, rama)
+) WITHOUT ROWID;
+
+-- Draft → Published: suma de segundos y cantidad, el promedio se calcula al leer.
+CREATE TABLE IF NOT EXISTS rollup_publicacion (
+  cliente TEXT NOT NULL PRIMARY KEY,
+  publicadas INTEGER NOT NULL DEFAULT 0,
+  segundos_total REAL NOT NULL DEFAULT 0
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_evento_accion_version ON evento_auditoria (accion, version_id);
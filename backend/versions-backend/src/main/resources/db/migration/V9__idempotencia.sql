@@ -0,0 +1,25 @@
+-- ==========================================================
+-- V9__idempotencia.sql
+-- Tabla: idempotencia
+--
+-- Propósito:
+--   - Respuesta guardada de cada POST con cabecera Idempotency-Key; un
+--     reintento con la misma clave la recibe sin volver a ejecutar el cambio.
+--   - status NULL = la petición original sigue en curso.
+--   - Se purga por creado_en (versiones.idempotencia.ttl-horas).
+-- ==========================================================
+
+CREATE TABLE IF NOT EXISTS idempotencia (
+  clave TEXT NOT NULL PRIMARY KEY,
+  huella TEXT NOT NULL,               -- método, ruta y SHA-256 del cuerpo
+  status INTEGER,
+  content_type TEXT,
+  cuerpo BLOB,
+  creado_en TEXT NOT NULL
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_idempotencia_creado ON idempotencia (creado_en);
+
+-- Respaldo si se perdió la fila de idempotencia: registrar devuelve la versión ya creada con esa clave.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_version_idempotency_key ON version (idempotency_key)
+  WHERE idempotency_key IS NOT NULL;
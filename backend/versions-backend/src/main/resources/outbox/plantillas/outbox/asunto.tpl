@@ -0,0 +1 @@
+SOLICITUD DE PUBLICACIÓN {{nombre}}{{numeroVersion}} _ {{buildYyyymmdd}}
@@ -0,0 +1 @@
+Publicación de versión {{nombre}}{{numeroVersion}} (build {{buildYyyymmdd}})
@@ -0,0 +1,5 @@
+# Release Notes
+
+- Cliente: {{cliente}}
+- Version: {{numeroVersion}}
+- Build: {{buildYyyymmdd}}
@@ -0,0 +1,27 @@
+package com.lis.versions.versions_backend.common.db;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+@SpringBootTest
+class CargaMixtaDefaultLoadTest extends CargaMixtaLoadTestBase {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("carga-default.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.sqlite.modo", () -> "default");
+    }
+
+    @Override
+    String modo() {
+        return "default";
+    }
+}
@@ -0,0 +1,115 @@
+package com.lis.versions.versions_backend.common.db;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga mixta sobre el servicio real: escritores registrando versiones y lectores paginando el
+ * listado al mismo tiempo. Informa TPS de escritura sostenido, errores y p50/p99 de lectura.
+ * Se ejecuta con {@code mvn test -Pload}.
+ *
+ * Con una sola CPU el modo afinado informa menos TPS de escritura que el por defecto cuando hay
+ * lectores: con la cola de escritura solo un escritor está ejecutable a la vez y comparte la CPU con
+ * todos los lectores, que hacen más lecturas. Sin lectores ({@code -Dcarga.lectores=0}) los dos
+ * modos escriben lo mismo.
+ */
+@Tag("load")
+abstract class CargaMixtaLoadTestBase {
+    private static final Logger log = LoggerFactory.getLogger(CargaMixtaLoadTestBase.class);
+
+    static final Duration DURACION = Duration.ofSeconds(Long.getLong("carga.segundos", 10));
+    static final int ESCRITORES = Integer.getInteger("carga.escritores", 8);
+    static final int LECTORES = Integer.getInteger("carga.lectores", 16);
+
+    @Autowired
+    VersionService service;
+
+    record Resultado(String modo, double writeTps, long writeErrors, double readP50Ms, double readP99Ms, long reads,
+                     RuntimeException primerError) {}
+
+    abstract String modo();
+
+    @Test
+    void cargaMixta() throws Exception {
+        var escrituras = new AtomicLong();
+        var erroresEscritura = new AtomicLong();
+        var primerError = new AtomicReference<RuntimeException>();
+        var latenciasLectura = new ConcurrentLinkedQueue<Long>();
+        var seq = new AtomicInteger();
+        long fin = System.nanoTime() + DURACION.toNanos();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < ESCRITORES; w++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < fin) {
+                        var req = new Dtos.RegistrarVersionRequest();
+                        req.cliente = "C" + (seq.get() % 10);
+                        req.nombre = "POS";
+                        req.numeroVersion = "1.0." + seq.incrementAndGet();
+                        req.buildYyyymmdd = "20250101";
+                        req.responsable = "carga";
+                        try {
+                            service.registrar(req);
+                            escrituras.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            erroresEscritura.incrementAndGet();
+                            if (primerError.compareAndSet(null, e)) log.warn("Primera escritura fallida en modo {}", modo(), e);
+                        }
+                    }
+                });
+            }
+            for (int r = 0; r < LECTORES; r++) {
+                int n = r;
+                executor.submit(() -> {
+                    while (System.nanoTime() < fin) {
+                        long t0 = System.nanoTime();
+                        try {
+                            service.listar("C" + (n % 10), null, null, null, null, null, 20, null, null, null);
+                            latenciasLectura.add(System.nanoTime() - t0);
+                        } catch (RuntimeException ignored) {
+                            // una lectura fallida no cuenta en la latencia
+                        }
+                    }
+                });
+            }
+        }
+
+        long[] lat = latenciasLectura.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(lat);
+        var r = new Resultado(modo(),
+                escrituras.get() / (double) DURACION.toSeconds(),
+                erroresEscritura.get(),
+                percentilMs(lat, 0.50),
+                percentilMs(lat, 0.99),
+                lat.length,
+                primerError.get());
+        log.info("[carga-mixta] modo={} writeTps={} writeErrors={} readP50={}ms readP99={}ms reads={}",
+                r.modo(), String.format("%.1f", r.writeTps()), r.writeErrors(),
+                String.format("%.2f", r.readP50Ms()), String.format("%.2f", r.readP99Ms()), r.reads());
+        assertThat(r.writeTps()).as("escrituras confirmadas").isPositive();
+        if (LECTORES > 0) assertThat(r.reads()).as("lecturas completadas").isPositive();
+        verificar(r);
+    }
+
+    void verificar(Resultado r) {}
+
+    private static double percentilMs(long[] sorted, double p) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.lis.versions.versions_backend.common.db;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CargaMixtaTunedLoadTest extends CargaMixtaLoadTestBase {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("carga-tuned.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.sqlite.modo", () -> "tuned");
+    }
+
+    @Override
+    String modo() {
+        return "tuned";
+    }
+
+    @Override
+    void verificar(Resultado r) {
+        assertThat(r.writeErrors()).as("escrituras fallidas en modo afinado; la primera: %s", r.primerError()).isZero();
+    }
+}
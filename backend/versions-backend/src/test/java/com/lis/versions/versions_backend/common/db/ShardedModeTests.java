@@ -0,0 +1,159 @@
+package com.lis.versions.versions_backend.common.db;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.domain.VersionResumen;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ShardedModeTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("global.db"));
+        registry.add("versiones.sqlite.modo", () -> "sharded");
+        registry.add("versiones.shards.dir", () -> dataDir.resolve("shards").toString());
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    Shards shards;
+
+    private static JdbcTemplate archivo(String nombre) {
+        var ds = new SQLiteDataSource();
+        ds.setUrl("jdbc:sqlite:" + dataDir.resolve(nombre));
+        return new JdbcTemplate(ds);
+    }
+
+    private static Dtos.RegistrarVersionRequest req(String cliente, String numero) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = cliente;
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = "20250101";
+        r.responsable = "ci";
+        return r;
+    }
+
+    private static long contar(JdbcTemplate db, String sql, Object... args) {
+        return db.queryForObject(sql, Long.class, args);
+    }
+
+    @Test
+    void eachClientWritesToItsOwnFileAndIdsRouteThroughTheDirectory() {
+        VersionEntity acme = service.registrar(req("ACME", "1.0.0"));
+        VersionEntity globex = service.registrar(req("Globex Corp", "1.0.0"));
+
+        assertThat(shards.claves()).contains("acme", "globex_corp");
+        var global = archivo("global.db");
+        var acmeDb = archivo("shards/acme.db");
+        assertThat(contar(global, "SELECT COUNT(*) FROM version WHERE id IN (?, ?)", acme.getId(), globex.getId())).isZero();
+        assertThat(contar(global, "SELECT COUNT(*) FROM shard_directorio WHERE version_id = ? AND shard = 'acme'", acme.getId())).isEqualTo(1);
+        assertThat(contar(acmeDb, "SELECT COUNT(*) FROM version WHERE id = ?", acme.getId())).isEqualTo(1);
+        assertThat(contar(acmeDb, "SELECT COUNT(*) FROM version WHERE id = ?", globex.getId())).isZero();
+
+        // Las operaciones por id encuentran el archivo sin que se indique el cliente
+        for (String rama : new String[]{"base", "aumento"}) {
+            var a = new Dtos.AdjuntarArtefactoRequest();
+            a.tipo = "bin";
+            a.rama = rama;
+            a.nombreOriginal = rama + ".bin";
+            a.nombreFinal = rama + ".bin";
+            a.rutaDestino = "out";
+            service.adjuntarArtefacto(globex.getId(), a, "ci");
+        }
+        assertThat(service.validar(globex.getId(), "ci").getEstado()).isEqualTo(VersionEstado.Ready);
+        assertThat(service.listarArtefactos(globex.getId())).hasSize(2);
+        assertThat(contar(archivo("shards/globex_corp.db"), "SELECT COUNT(*) FROM evento_auditoria WHERE version_id = ?", globex.getId()))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void listingWithoutClientMergesAllShardsInOrder() {
+        for (int i = 0; i < 5; i++) {
+            service.registrar(req("Initech", "2.0." + i));
+            service.registrar(req("Umbrella", "2.0." + i));
+        }
+
+        List<VersionResumen> vistas = new ArrayList<>();
+        String cursor = null;
+        do {
+            var p = service.listar(null, null, null, null, null, null, 3, null, null, cursor);
+            vistas.addAll(p.content());
+            cursor = p.nextCursor();
+        } while (cursor != null);
+        var deAmbos = vistas.stream().filter(v -> v.cliente().equals("Initech") || v.cliente().equals("Umbrella")).toList();
+        assertThat(deAmbos).hasSize(10);
+        assertThat(vistas).extracting(VersionResumen::id).doesNotHaveDuplicates();
+        for (int i = 1; i < vistas.size(); i++) {
+            var prev = vistas.get(i - 1);
+            var cur = vistas.get(i);
+            assertThat(prev.creadoEn().compareTo(cur.creadoEn()) > 0
+                    || (prev.creadoEn().equals(cur.creadoEn()) && prev.id().compareTo(cur.id()) > 0)).isTrue();
+        }
+
+        var soloUmbrella = service.listar("Umbrella", null, null, null, null, 0, 20, null, null, null);
+        assertThat(soloUmbrella.totalElements()).isEqualTo(5L);
+        assertThat(soloUmbrella.content()).allSatisfy(v -> assertThat(v.cliente()).isEqualTo("Umbrella"));
+
+        var pagina = service.listar(null, null, null, null, null, 1, 4, null, null, null);
+        assertThat(pagina.totalElements()).isEqualTo((long) vistas.size());
+        assertThat(pagina.content()).extracting(VersionResumen::id)
+                .containsExactlyElementsOf(vistas.subList(4, 8).stream().map(VersionResumen::id).toList());
+
+        assertThat(service.buscarTexto("Umbrella", null, 50)).hasSize(5);
+    }
+
+    @Test
+    void batchIsSplitByClientAndEachPartLandsInItsShard() {
+        var r = service.registrarLote(List.of(req("Hooli", "3.0.0"), req("Pied Piper", "3.0.0"),
+                req("Hooli", "3.0.1"), req("Hooli", "3.0.0"), req("Pied Piper", "")));
+        assertThat(r.creados()).isEqualTo(3);
+        assertThat(r.items()).extracting(Dtos.LoteItem::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(r.items()).extracting(Dtos.LoteItem::code)
+                .containsExactly(null, null, null, "VERSION_DUPLICADA", "VALIDATION_ERROR");
+        assertThat(contar(archivo("shards/hooli.db"), "SELECT COUNT(*) FROM version")).isEqualTo(2);
+        assertThat(contar(archivo("shards/pied_piper.db"), "SELECT COUNT(*) FROM version")).isEqualTo(1);
+        assertThat(shards.deVersion(r.items().get(1).id())).isEqualTo("pied_piper");
+        assertThat(service.obtener(r.items().get(2).id()).getCliente()).isEqualTo("Hooli");
+    }
+
+    @Test
+    void clientsWithTheSameFileNameGetDistinctShards() {
+        VersionEntity corp = service.registrar(req("ACME Corp", "4.0.0"));
+        VersionEntity guion = service.registrar(req("acme_corp", "4.0.0"));
+        VersionEntity punto = service.registrar(req("acme.corp", "4.0.0"));
+
+        String s1 = shards.deVersion(corp.getId());
+        String s2 = shards.deVersion(guion.getId());
+        String s3 = shards.deVersion(punto.getId());
+        assertThat(s1).isEqualTo("acme_corp");
+        assertThat(List.of(s2, s3)).allSatisfy(s -> assertThat(s).matches("acme_corp-[0-9a-f]{8}"));
+        assertThat(List.of(s1, s2, s3)).doesNotHaveDuplicates();
+        assertThat(contar(archivo("shards/" + s2 + ".db"), "SELECT COUNT(*) FROM version")).isEqualTo(1);
+        assertThat(shards.deCliente("acme.corp", false)).isEqualTo(s3);
+        assertThat(shards.deVersion(service.registrar(req("ACME Corp", "4.0.1")).getId())).isEqualTo(s1);
+        assertThat(service.listar("acme_corp", null, null, null, null, 0, 20, null, null, null).totalElements()).isEqualTo(1L);
+    }
+}
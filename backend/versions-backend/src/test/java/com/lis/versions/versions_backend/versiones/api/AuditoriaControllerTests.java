@@ -0,0 +1,77 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AuditoriaControllerTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("auditoria.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private String registrar(String numero, String responsable) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = "20250501";
+        r.responsable = responsable;
+        return service.registrar(r).getId();
+    }
+
+    @Test
+    void streamsAuditTrailAsNdjsonAndCsvWithFilters() {
+        String id = registrar("5.0.0", "ana");
+        registrar("5.1.0", "luis");
+        var a = new Dtos.AdjuntarArtefactoRequest();
+        a.tipo = "bin";
+        a.rama = "base";
+        a.nombreOriginal = "base.bin";
+        a.nombreFinal = "base.bin";
+        a.rutaDestino = "out";
+        service.adjuntarArtefacto(id, a, "ana");
+
+        var ndjson = rest.getForEntity("/api/versiones/" + id + "/auditoria", String.class);
+        assertThat(ndjson.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        assertThat(ndjson.getBody().lines()).hasSize(2)
+                .allMatch(l -> l.startsWith("{") && l.contains("\"versionId\":\"" + id + "\""));
+
+        var csv = rest.getForObject("/api/auditoria?actor=ana&accion=artefacto_adjuntado&formato=csv", String.class);
+        assertThat(csv.split("\r\n")).hasSize(2);
+        assertThat(csv).contains(",\"tipo=bin, rama=base, nombre=base.bin\",");
+
+        assertThat(rest.getForObject("/api/auditoria?actor=luis&hasta=2000-01-01", String.class)).isNull();
+        assertThat(rest.getForEntity("/api/versiones/no-existe/auditoria", String.class).getStatusCode().value())
+                .isEqualTo(404);
+
+        var plan = jdbc.queryForList("EXPLAIN QUERY PLAN SELECT * FROM evento_auditoria WHERE version_id = ? "
+                + "ORDER BY timestamp, id", id).toString();
+        assertThat(plan).contains("idx_evento_version_ts").doesNotContain("TEMP B-TREE");
+    }
+}
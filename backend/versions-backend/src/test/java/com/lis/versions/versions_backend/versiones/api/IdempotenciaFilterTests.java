@@ -0,0 +1,140 @@
+package com.lis.versions.versions_backend.versiones.api;
+
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import jakarta.servlet.ReadListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class IdempotenciaFilterTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("idempotencia.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.idempotencia.cuerpo-max-bytes", () -> "4096");
+    }
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    IdempotenciaFilter filter;
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON = new ParameterizedTypeReference<>() { };
+
+    private ResponseEntity<Map<String, Object>> post(String url, Object body, String clave) {
+        var headers = new HttpHeaders();
+        headers.set("Idempotency-Key", clave);
+        headers.set("X-Correlation-Id", "ci-run-42");
+        return rest.exchange(url, HttpMethod.POST, new HttpEntity<>(body, headers), JSON);
+    }
+
+    @Test
+    void replaysStoredResponseWithoutRunningTheWriteAgain() {
+        var version = Map.of("cliente", "ACME", "nombre", "POS", "numeroVersion", "9.0.0",
+                "buildYyyymmdd", "20250701", "responsable", "ci");
+        var primera = post("/api/versiones", version, "reg-1");
+        var reintento = post("/api/versiones", version, "reg-1");
+        assertThat(primera.getStatusCode().value()).isEqualTo(201);
+        assertThat(reintento.getStatusCode().value()).isEqualTo(201);
+        assertThat(reintento.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(reintento.getBody().get("id")).isEqualTo(primera.getBody().get("id"));
+        String id = (String) primera.getBody().get("id");
+        assertThat(jdbc.queryForMap("SELECT idempotency_key, correlation_id FROM version WHERE id = ?", id))
+                .containsEntry("idempotency_key", "reg-1").containsEntry("correlation_id", "ci-run-42");
+
+        var artefacto = Map.of("tipo", "bin", "rama", "base", "nombreOriginal", "base.bin",
+                "nombreFinal", "base.bin", "rutaDestino", "out");
+        post("/api/versiones/" + id + "/artefactos", artefacto, "art-1");
+        post("/api/versiones/" + id + "/artefactos", artefacto, "art-1");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM artefacto WHERE version_id = ?", Integer.class, id))
+                .isEqualTo(1);
+
+        var otra = post("/api/versiones/" + id + "/artefactos", Map.of("tipo", "doc", "rama", "base",
+                "nombreOriginal", "a.pdf", "nombreFinal", "a.pdf", "rutaDestino", "out"), "art-1");
+        assertThat(otra.getStatusCode().value()).isEqualTo(422);
+        assertThat(otra.getBody().get("code")).isEqualTo("IDEMPOTENCY_KEY_REUTILIZADA");
+
+        // Sin la respuesta guardada, registrar devuelve la versión creada con la misma clave
+        var req = new Dtos.RegistrarVersionRequest();
+        req.cliente = "ACME";
+        req.nombre = "POS";
+        req.numeroVersion = "9.0.0";
+        req.buildYyyymmdd = "20250701";
+        req.responsable = "ci";
+        assertThat(service.registrar(req, "reg-1", null).getId()).isEqualTo(id);
+    }
+
+    @Test
+    void rejectsBodiesAboveTheLimitWithoutRunningTheWrite() {
+        var version = Map.of("cliente", "ACME", "nombre", "POS", "numeroVersion", "9.1.0",
+                "buildYyyymmdd", "20250701", "responsable", "x".repeat(5000));
+        var r = post("/api/versiones", version, "grande-1");
+        assertThat(r.getStatusCode().value()).isEqualTo(413);
+        assertThat(r.getBody().get("code")).isEqualTo("CUERPO_DEMASIADO_GRANDE");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM version WHERE numero_version = '9.1.0'", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void theBufferedBodySupportsNonBlockingReads() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/versiones");
+        request.addHeader(IdempotenciaFilter.HEADER, "async-1");
+        request.setContent("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        var leido = new ByteArrayOutputStream();
+        var fin = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            var in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) leido.write(in.read());
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    fin.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+        });
+        assertThat(leido.toString(StandardCharsets.UTF_8)).isEqualTo("{\"a\":1}");
+        assertThat(fin).isTrue();
+    }
+}
@@ -0,0 +1,189 @@
+package com.lis.versions.versions_backend.versiones.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lis.versions.versions_backend.common.db.Shards;
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.lis.versions.versions_backend.versiones.repo.JobQueueRepository;
+import com.lis.versions.versions_backend.versiones.service.VersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class JobEngineTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("engine.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.copy.destino-dir", () -> dataDir.toString());
+    }
+
+    private static final int MAX_INTENTOS = 3;
+
+    @Autowired
+    JobQueueRepository jobQueueRepository;
+
+    @Autowired
+    Shards shards;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ComputeMd5JobHandler computeMd5;
+
+    @Autowired
+    VersionService versionService;
+
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private volatile int fallosAntesDeOk;
+    private volatile RuntimeException error;
+    private JobEngine engine;
+
+    @BeforeEach
+    void limpiar() {
+        jobQueueRepository.deleteAll();
+    }
+
+    private void arrancar() {
+        arrancar(new JobHandler() {
+            @Override
+            public String type() {
+                return "COMPUTE_MD5";
+            }
+
+            @Override
+            public Map<String, Object> handle(JobQueueEntity job) {
+                if (llamadas.incrementAndGet() <= fallosAntesDeOk) throw error;
+                return Map.of("ok", true);
+            }
+        });
+    }
+
+    private void arrancar(JobHandler handler) {
+        // backoff de 10 ms y sondeo de 20 ms para que los reintentos ocurran dentro del test
+        engine = new JobEngine(jobQueueRepository, shards, List.of(handler), objectMapper, new SimpleMeterRegistry(),
+                event -> {}, true, 1, 20, "nodo-test", 60_000, 100, MAX_INTENTOS, 10, 100);
+        engine.start();
+    }
+
+    @AfterEach
+    void detener() {
+        if (engine != null) engine.stop();
+    }
+
+    private String job(String key) {
+        return job("v1", key);
+    }
+
+    private String job(String versionId, String key) {
+        String ahora = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        return jobQueueRepository.save(new JobQueueEntity(UUID.randomUUID().toString(), versionId, "COMPUTE_MD5", key, "{}",
+                "PENDING", "NORMAL", 0, null, null, ahora, ahora)).getId();
+    }
+
+    private JobQueueEntity esperar(String id) throws InterruptedException {
+        long fin = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < fin) {
+            var j = jobQueueRepository.findById(id).orElseThrow();
+            if (Set.of("OK", "ERROR", "DEAD").contains(j.getStatus())) return j;
+            Thread.sleep(20);
+        }
+        return jobQueueRepository.findById(id).orElseThrow();
+    }
+
+    @Test
+    void aFailingHandlerIsRetriedWithBackoffUntilItSucceeds() throws Exception {
+        fallosAntesDeOk = MAX_INTENTOS - 1;
+        error = new IllegalStateException("archivo aún incompleto");
+        String id = job("k");
+        arrancar();
+
+        var j = esperar(id);
+        assertThat(j.getStatus()).isEqualTo("OK");
+        assertThat(j.getAttempt()).isEqualTo(MAX_INTENTOS);
+        assertThat(llamadas).hasValue(MAX_INTENTOS);
+    }
+
+    @Test
+    void aHandlerThatKeepsFailingEndsInErrorAfterMaxAttemptsAndCancelsDependents() throws Exception {
+        fallosAntesDeOk = Integer.MAX_VALUE;
+        error = new IllegalStateException("NAS no disponible");
+        String id = job("padre");
+        String hijo = job("hijo");
+        jobQueueRepository.agregarDependencias(hijo, List.of(id));
+        arrancar();
+
+        var j = esperar(id);
+        assertThat(j.getStatus()).isEqualTo("ERROR");
+        assertThat(j.getAttempt()).isEqualTo(MAX_INTENTOS);
+        assertThat(j.getErrorMsg()).isEqualTo("NAS no disponible");
+        assertThat(llamadas).hasValue(MAX_INTENTOS);
+        assertThat(esperar(hijo).getStatus()).isEqualTo("ERROR");
+    }
+
+    @Test
+    void aClientErrorIsNotRetried() throws Exception {
+        fallosAntesDeOk = Integer.MAX_VALUE;
+        error = new VersionService.ServiceException(422, "RUTA_INVALIDA", "ruta fuera del destino");
+        String id = job("k");
+        arrancar();
+
+        var j = esperar(id);
+        assertThat(j.getStatus()).isEqualTo("ERROR");
+        assertThat(j.getAttempt()).isEqualTo(1);
+        assertThat(llamadas).hasValue(1);
+    }
+
+    @Test
+    void anMd5MismatchFailsOnTheFirstAttempt() throws Exception {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = "3.0.0";
+        r.buildYyyymmdd = "20250101";
+        r.responsable = "ci";
+        String versionId = versionService.registrar(r).getId();
+        var a = new Dtos.AdjuntarArtefactoRequest();
+        a.tipo = "bin";
+        a.rama = "base";
+        a.nombreOriginal = "base.bin";
+        a.nombreFinal = "base.bin";
+        a.rutaDestino = "3.0.0";
+        a.md5 = "00000000000000000000000000000000";
+        versionService.adjuntarArtefacto(versionId, a, "ci");
+        Files.createDirectories(dataDir.resolve("3.0.0"));
+        Files.writeString(dataDir.resolve("3.0.0/base.bin"), "contenido que no es el declarado");
+
+        String id = job(versionId, "md5");
+        arrancar(computeMd5);
+
+        var j = esperar(id);
+        assertThat(j.getStatus()).isEqualTo("ERROR");
+        assertThat(j.getAttempt()).isEqualTo(1);
+        assertThat(j.getErrorMsg()).startsWith("MD5 declarado no coincide");
+    }
+}
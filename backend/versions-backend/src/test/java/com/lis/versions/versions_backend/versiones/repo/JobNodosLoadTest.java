@@ -0,0 +1,125 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput de {@code job_queue} con 1, 2 y 3 nodos sobre el mismo archivo. Cada nodo tiene su
+ * propio pool de conexiones y su {@link JobQueueRepositoryImpl}, como procesos separados, y
+ * {@code carga.workers} workers que reclaman con lease, simulan {@code carga.job-ms} de trabajo y
+ * completan. Informa jobs/s por número de nodos. Se ejecuta con {@code mvn test -Pload}.
+ */
+@Tag("load")
+@SpringBootTest
+class JobNodosLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(JobNodosLoadTest.class);
+
+    static final int JOBS = Integer.getInteger("carga.jobs", 600);
+    static final int WORKERS = Integer.getInteger("carga.workers", 4);
+    static final long JOB_MS = Long.getLong("carga.job-ms", 20);
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("nodos.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    JobQueueRepository jobQueueRepository;
+
+    @Test
+    void throughputScalesWithNodes() throws Exception {
+        var tps = new double[4];
+        for (int nodos = 1; nodos <= 3; nodos++) {
+            tps[nodos] = ronda(nodos);
+            log.info("[job-nodos] nodos={} workers/nodo={} jobs={} trabajo={}ms -> {} jobs/s",
+                    nodos, WORKERS, JOBS, JOB_MS, String.format("%.1f", tps[nodos]));
+        }
+        // El trabajo simulado domina: con la cola compartida bien repartida cada nodo suma capacidad
+        assertThat(tps[2]).as("2 nodos vs 1").isGreaterThan(tps[1] * 1.5);
+        assertThat(tps[3]).as("3 nodos vs 1").isGreaterThan(tps[1] * 2.0);
+    }
+
+    private double ronda(int nodos) throws Exception {
+        jobQueueRepository.deleteAll();
+        for (int i = 0; i < JOBS; i++) {
+            String ts = String.format("2025-01-01T00:%02d:%02d", i / 60 % 60, i % 60);
+            jobQueueRepository.save(new JobQueueEntity(UUID.randomUUID().toString(), "v1", "COMPUTE_MD5", "k" + i, "{}",
+                    "PENDING", "NORMAL", 0, null, null, ts, ts));
+        }
+
+        var pools = new ArrayList<HikariDataSource>();
+        Set<String> completados = ConcurrentHashMap.newKeySet();
+        var duplicados = new AtomicInteger();
+        long t0 = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int n = 0; n < nodos; n++) {
+                String nodo = "nodo-" + n;
+                var pool = pool(nodo);
+                pools.add(pool);
+                var repo = new JobQueueRepositoryImpl(new JdbcTemplate(pool));
+                for (int w = 0; w < WORKERS; w++) {
+                    executor.submit(() -> {
+                        while (true) {
+                            var j = repo.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T02:00:00", nodo, "2025-01-01T02:01:00");
+                            if (j.isEmpty()) return null;
+                            Thread.sleep(JOB_MS);
+                            if (!repo.complete(j.get().getId(), nodo, "OK", "{}", null, "2025-01-01T02:00:01")) {
+                                duplicados.incrementAndGet();
+                            }
+                            if (!completados.add(j.get().getId())) duplicados.incrementAndGet();
+                        }
+                    });
+                }
+            }
+        } finally {
+            pools.forEach(HikariDataSource::close);
+        }
+        double segundos = (System.nanoTime() - t0) / 1e9;
+
+        assertThat(duplicados).hasValue(0);
+        assertThat(completados).hasSize(JOBS);
+        return JOBS / segundos;
+    }
+
+    /** Un pool por nodo con los PRAGMA del modo afinado, como cada proceso tendría el suyo. */
+    private static HikariDataSource pool(String nodo) {
+        var c = new SQLiteConfig();
+        c.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        c.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        c.setBusyTimeout(10_000);
+        var sqlite = new SQLiteDataSource(c);
+        sqlite.setUrl("jdbc:sqlite:" + dataDir.resolve("nodos.db"));
+        var hc = new HikariConfig();
+        hc.setPoolName(nodo);
+        hc.setDataSource(sqlite);
+        hc.setMaximumPoolSize(WORKERS);
+        return new HikariDataSource(hc);
+    }
+}
@@ -0,0 +1,213 @@
+package com.lis.versions.versions_backend.versiones.repo;
+
+import com.lis.versions.versions_backend.versiones.domain.JobQueueEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class JobQueueRepositoryTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("jobs.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    JobQueueRepository jobQueueRepository;
+
+    @BeforeEach
+    void clean() {
+        jobQueueRepository.deleteAll();
+    }
+
+    private String job(String key, String priority, String createdAt) {
+        var j = jobQueueRepository.save(new JobQueueEntity(UUID.randomUUID().toString(), "v1", "COMPUTE_MD5", key, "{}",
+                "PENDING", priority, 0, null, null, createdAt, createdAt));
+        return j.getId();
+    }
+
+    @Test
+    void claimsByPriorityThenFifo() {
+        job("low", "LOW", "2025-01-01T00:00:00");
+        job("normal-2", "NORMAL", "2025-01-01T00:00:02");
+        job("high", "HIGH", "2025-01-01T00:00:03");
+        job("normal-1", "NORMAL", "2025-01-01T00:00:01");
+
+        var order = List.of("high", "normal-1", "normal-2", "low");
+        for (String expected : order) {
+            var claimed = jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T00:01:00").orElseThrow();
+            assertThat(claimed.getJobKey()).isEqualTo(expected);
+            assertThat(claimed.getStatus()).isEqualTo("RUNNING");
+            assertThat(claimed.getAttempt()).isEqualTo(1);
+        }
+        assertThat(jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T00:01:00")).isEmpty();
+        assertThat(jobQueueRepository.claimNext(Set.of("GEN_OUTBOX"), "2025-01-01T00:01:00")).isEmpty();
+    }
+
+    @Test
+    void concurrentWorkersNeverClaimTheSameJob() throws Exception {
+        int jobs = 200;
+        for (int i = 0; i < jobs; i++) job("k" + i, "NORMAL", String.format("2025-01-01T00:%02d:%02d", i / 60, i % 60));
+
+        Set<String> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < 8; w++) {
+                executor.submit(() -> {
+                    while (true) {
+                        try {
+                            var j = jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T01:00:00");
+                            if (j.isEmpty()) return;
+                            if (!claimed.add(j.get().getId())) duplicates.incrementAndGet();
+                        } catch (RuntimeException busy) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+        }
+        assertThat(duplicates).hasValue(0);
+        assertThat(claimed).hasSize(jobs);
+        assertThat(jobQueueRepository.countByStatus("RUNNING")).isEqualTo(jobs);
+    }
+
+    @Test
+    void nodesShareTheQueueWithoutDuplicateExecution() throws Exception {
+        int jobs = 300;
+        for (int i = 0; i < jobs; i++) job("k" + i, "NORMAL", String.format("2025-01-01T00:%02d:%02d", i / 60, i % 60));
+
+        var porNodo = new ConcurrentHashMap<String, AtomicInteger>();
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String nodo : List.of("nodo-a", "nodo-b", "nodo-c")) {
+                for (int w = 0; w < 4; w++) {
+                    executor.submit(() -> {
+                        while (true) {
+                            try {
+                                var j = jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T01:00:00",
+                                        nodo, "2025-01-01T01:01:00");
+                                if (j.isEmpty()) return;
+                                while (true) {
+                                    try {
+                                        if (!jobQueueRepository.complete(j.get().getId(), nodo, "OK", "{}", null, "2025-01-01T01:00:01")) {
+                                            duplicates.incrementAndGet();
+                                        }
+                                        break;
+                                    } catch (RuntimeException busy) {
+                                        Thread.onSpinWait();
+                                    }
+                                }
+                                if (!completed.add(j.get().getId())) duplicates.incrementAndGet();
+                                porNodo.computeIfAbsent(nodo, n -> new AtomicInteger()).incrementAndGet();
+                            } catch (RuntimeException busy) {
+                                Thread.onSpinWait();
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        assertThat(duplicates).hasValue(0);
+        assertThat(completed).hasSize(jobs);
+        assertThat(jobQueueRepository.countByStatus("OK")).isEqualTo(jobs);
+        assertThat(porNodo.values().stream().mapToInt(AtomicInteger::get).sum()).isEqualTo(jobs);
+    }
+
+    @Test
+    void expiredLeaseIsRequeuedWithBackoffAndOldOwnerCannotComplete() {
+        job("k", "NORMAL", "2025-01-01T00:00:00");
+        var j = jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T00:00:00",
+                "nodo-a", "2025-01-01T00:01:00").orElseThrow();
+
+        assertThat(jobQueueRepository.renewLeases("nodo-a", "2025-01-01T00:02:00", "2025-01-01T00:00:30")).isEqualTo(1);
+        assertThat(jobQueueRepository.expiredLeases("2025-01-01T00:01:30", 10)).isEmpty();
+
+        var vencidos = jobQueueRepository.expiredLeases("2025-01-01T00:03:00", 10);
+        assertThat(vencidos).extracting(JobQueueEntity::getId).containsExactly(j.getId());
+        assertThat(jobQueueRepository.releaseExpired(j.getId(), "2025-01-01T00:03:10", "lease", "2025-01-01T00:03:00")).isTrue();
+        assertThat(jobQueueRepository.releaseExpired(j.getId(), "2025-01-01T00:03:10", "lease", "2025-01-01T00:03:00")).isFalse();
+
+        assertThat(jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T00:03:05", "nodo-b", "2025-01-01T00:04:00")).isEmpty();
+        var retry = jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T00:03:10",
+                "nodo-b", "2025-01-01T00:04:10").orElseThrow();
+        assertThat(retry.getAttempt()).isEqualTo(2);
+        assertThat(retry.getOwnerNode()).isEqualTo("nodo-b");
+
+        assertThat(jobQueueRepository.complete(j.getId(), "nodo-a", "OK", "{}", null, "2025-01-01T00:03:20")).isFalse();
+        assertThat(jobQueueRepository.complete(j.getId(), "nodo-b", "OK", "{}", null, "2025-01-01T00:03:20")).isTrue();
+    }
+
+    @Test
+    void expiredLeaseWithoutNextAttemptGoesDead() {
+        job("k", "NORMAL", "2025-01-01T00:00:00");
+        var j = jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-01T00:00:00",
+                "nodo-a", "2025-01-01T00:01:00").orElseThrow();
+
+        assertThat(jobQueueRepository.releaseExpired(j.getId(), null, "lease", "2025-01-01T00:02:00")).isTrue();
+        assertThat(jobQueueRepository.findById(j.getId()).orElseThrow().getStatus()).isEqualTo("DEAD");
+        assertThat(jobQueueRepository.claimNext(Set.of("COMPUTE_MD5"), "2025-01-02T00:00:00")).isEmpty();
+    }
+
+    @Test
+    void dependentJobWaitsForAllParentsAndIsCancelledWhenOneFails() {
+        String copy = job("copy", "NORMAL", "2025-01-01T00:00:00");
+        String outbox = job("outbox", "LOW", "2025-01-01T00:00:01");
+        String evidence = job("evidence", "HIGH", "2025-01-01T00:00:02");
+        String despues = job("despues", "HIGH", "2025-01-01T00:00:03");
+        jobQueueRepository.agregarDependencias(evidence, List.of(copy, outbox));
+        jobQueueRepository.agregarDependencias(despues, List.of(evidence));
+
+        var types = Set.of("COMPUTE_MD5");
+        assertThat(jobQueueRepository.claimNext(types, "2025-01-01T00:01:00").orElseThrow().getId()).isEqualTo(copy);
+        assertThat(jobQueueRepository.claimNext(types, "2025-01-01T00:01:00").orElseThrow().getId()).isEqualTo(outbox);
+        assertThat(jobQueueRepository.claimNext(types, "2025-01-01T00:01:00")).isEmpty();
+
+        jobQueueRepository.complete(copy, "OK", "{}", null, "2025-01-01T00:02:00");
+        assertThat(jobQueueRepository.claimNext(types, "2025-01-01T00:02:00")).isEmpty();
+        assertThat(jobQueueRepository.contarDependientes(outbox)).isEqualTo(1);
+
+        jobQueueRepository.complete(outbox, "ERROR", null, "boom", "2025-01-01T00:03:00");
+        var cancelados = jobQueueRepository.cancelarDependientes(outbox, "dependencia", "2025-01-01T00:03:00");
+        assertThat(cancelados).extracting(JobQueueEntity::getId).containsExactlyInAnyOrder(evidence, despues);
+        assertThat(jobQueueRepository.countByStatus("PENDING")).isZero();
+    }
+
+    @Test
+    void concurrentEnqueuesOfTheSameKeyInsertOnlyOneJob() throws Exception {
+        var insertados = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                executor.submit(() -> {
+                    if (jobQueueRepository.encolar(new JobQueueEntity(UUID.randomUUID().toString(), "v1", "COPY_ARTIFACTS",
+                            "copy_v1", "{}", "PENDING", "NORMAL", 0, null, null, "2025-01-01T00:00:00", "2025-01-01T00:00:00"))) {
+                        insertados.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        assertThat(insertados).hasValue(1);
+        assertThat(jobQueueRepository.count()).isEqualTo(1);
+        assertThat(jobQueueRepository.findByJobKey("copy_v1")).isPresent();
+    }
+}
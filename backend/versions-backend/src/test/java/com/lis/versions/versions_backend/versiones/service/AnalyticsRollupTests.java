@@ -0,0 +1,89 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.repo.RollupArtefacto;
+import com.lis.versions.versions_backend.versiones.repo.RollupPublicacion;
+import com.lis.versions.versions_backend.versiones.repo.RollupVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+class AnalyticsRollupTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("analytics.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.outbox.dir", () -> dataDir.resolve("outbox").toString());
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    AnalyticsService analytics;
+
+    private static Dtos.RegistrarVersionRequest version(String cliente, String numero, String build) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = cliente;
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = build;
+        r.responsable = "ci";
+        return r;
+    }
+
+    private static Dtos.AdjuntarArtefactoRequest artefacto(String rama, long size) {
+        var r = new Dtos.AdjuntarArtefactoRequest();
+        r.tipo = "bin";
+        r.rama = rama;
+        r.nombreOriginal = rama + ".bin";
+        r.nombreFinal = rama + ".bin";
+        r.rutaDestino = "out";
+        r.sizeBytes = size;
+        return r;
+    }
+
+    @Test
+    void maintainsRollupsIncrementallyAndRebuildMatches() {
+        var v = service.registrar(version("ACME", "1.0.0", "20250115"));
+        service.registrarLote(List.of(version("ACME", "1.1.0", "20250120"), version("GLOBEX", "2.0.0", "20250210")));
+        service.adjuntarArtefacto(v.getId(), artefacto("base", 100), "ci");
+        service.adjuntarArtefactosLote(v.getId(), List.of(artefacto("aumento", 50)), "ci");
+        service.validar(v.getId(), "ci");
+        service.publicar(v.getId(), "ci");
+
+        var incremental = analytics.resumen(null);
+        assertThat(incremental.versiones()).containsExactly(
+                new RollupVersion("ACME", "Draft", "2025-01", 1),
+                new RollupVersion("ACME", "Published", "2025-01", 1),
+                new RollupVersion("GLOBEX", "Draft", "2025-02", 1));
+        assertThat(incremental.artefactos()).containsExactly(
+                new RollupArtefacto("bin", "aumento", 1, 50),
+                new RollupArtefacto("bin", "base", 1, 100));
+        assertThat(incremental.publicacion()).extracting(RollupPublicacion::cliente, RollupPublicacion::publicadas)
+                .containsExactly(org.assertj.core.groups.Tuple.tuple("ACME", 1L));
+        assertThat(analytics.resumen("GLOBEX").versiones()).hasSize(1);
+
+        analytics.reconstruir();
+
+        var reconstruido = analytics.resumen(null);
+        assertThat(reconstruido.versiones()).isEqualTo(incremental.versiones());
+        assertThat(reconstruido.artefactos()).isEqualTo(incremental.artefactos());
+        assertThat(reconstruido.publicacion().get(0).segundosPromedio())
+                .isCloseTo(incremental.publicacion().get(0).segundosPromedio(), within(1.0));
+    }
+}
@@ -0,0 +1,114 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.ArtefactoEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArtefactoCopyServiceTests {
+
+    @Test
+    void copiesWithSinglePassDigestAndAtomicRename(@TempDir Path dir) throws Exception {
+        byte[] data = new byte[5 * 1024 * 1024 + 3];
+        new Random(7).nextBytes(data);
+        Path origen = Files.write(dir.resolve("base.bin"), data);
+        Path destino = dir.resolve("publicado/BASE/final.bin");
+        AtomicLong progress = new AtomicLong();
+
+        var md5 = ArtefactoHashService.md5();
+        long bytes = ArtefactoCopyService.copyAtomically(origen, destino, progress::addAndGet,
+                ByteBuffer.allocateDirect(64 * 1024), md5);
+
+        assertThat(bytes).isEqualTo(data.length);
+        assertThat(progress).hasValue(data.length);
+        assertThat(Files.readAllBytes(destino)).isEqualTo(data);
+        assertThat(ArtefactoFiles.hex(md5.digest())).isEqualTo(ArtefactoFiles.hex(ArtefactoHashService.md5().digest(data)));
+        try (var files = Files.list(destino.getParent())) {
+            assertThat(files).containsExactly(destino);
+        }
+    }
+
+    @Test
+    void zeroCopyTransferReplacesExistingDestination(@TempDir Path dir) throws Exception {
+        Path origen = Files.writeString(dir.resolve("pkg.pkg"), "nuevo contenido");
+        Path destino = Files.writeString(dir.resolve("final.pkg"), "viejo");
+
+        long bytes = ArtefactoCopyService.copyAtomically(origen, destino, n -> {});
+
+        assertThat(bytes).isEqualTo(15);
+        assertThat(Files.readString(destino)).isEqualTo("nuevo contenido");
+    }
+
+    @Test
+    void aRejectedDigestLeavesTheExistingDestinationUntouched(@TempDir Path dir) throws Exception {
+        Path origen = Files.writeString(dir.resolve("base.bin"), "contenido corrupto");
+        Path destino = Files.writeString(dir.resolve("final.bin"), "versión buena");
+        var md5 = ArtefactoHashService.md5();
+
+        long bytes = ArtefactoCopyService.copyAtomically(origen, destino, n -> {},
+                () -> ArtefactoFiles.hex(md5.digest()).equals("9e107d9d372bb6826bd81d3542a419d6"), ByteBuffer.allocate(4096), md5);
+
+        assertThat(bytes).isEqualTo(Files.size(origen));
+        assertThat(Files.readString(destino)).isEqualTo("versión buena");
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactlyInAnyOrder(origen, destino);
+        }
+    }
+
+    private static ArtefactoEntity artefacto(String nombreOriginal, String nombreFinal, String rutaDestino, String uploadedUrl) {
+        return new ArtefactoEntity("a1", "v1", "bin", "base", nombreOriginal, nombreFinal, rutaDestino, null, null,
+                uploadedUrl, "2025-01-01T00:00:00");
+    }
+
+    private static void rechazada(Runnable accion) {
+        assertThatThrownBy(accion::run).isInstanceOfSatisfying(VersionService.ServiceException.class,
+                e -> assertThat(e.code).isEqualTo("RUTA_INVALIDA"));
+    }
+
+    @Test
+    void resolvesPathsInsideTheConfiguredRoots(@TempDir Path dir) {
+        Path staging = dir.resolve("staging");
+        Path destinos = dir.resolve("publicado");
+
+        assertThat(ArtefactoFiles.destino(artefacto("a.bin", "final.bin", "ACME/./1.0", null), destinos))
+                .isEqualTo(destinos.toAbsolutePath().resolve("ACME/1.0/final.bin"));
+        assertThat(ArtefactoFiles.origen(artefacto("a.bin", null, "out", null), staging))
+                .isEqualTo(staging.toAbsolutePath().resolve("v1/a.bin"));
+        assertThat(ArtefactoFiles.origen(artefacto("a.bin", null, "out", "lotes/a.bin"), staging))
+                .isEqualTo(staging.toAbsolutePath().resolve("lotes/a.bin"));
+        Path subido = staging.toAbsolutePath().resolve("v1/b.bin");
+        assertThat(ArtefactoFiles.origen(artefacto("a.bin", null, "out", subido.toUri().toString()), staging))
+                .isEqualTo(subido);
+    }
+
+    @Test
+    void rejectsPathTraversalAndAbsolutePaths(@TempDir Path dir) {
+        Path staging = dir.resolve("staging");
+        Path destinos = dir.resolve("publicado");
+
+        rechazada(() -> ArtefactoFiles.destino(artefacto("a.bin", "a.bin", "../../etc", null), destinos));
+        rechazada(() -> ArtefactoFiles.destino(artefacto("a.bin", "../../../root/.ssh/authorized_keys", "out", null), destinos));
+        rechazada(() -> ArtefactoFiles.destino(artefacto("a.bin", "a.bin", "/etc", null), destinos));
+        rechazada(() -> ArtefactoFiles.destino(artefacto("a.bin", "/etc/passwd", "out", null), destinos));
+        rechazada(() -> ArtefactoFiles.destino(artefacto("a.bin", "..", "out/x", null), destinos));
+        rechazada(() -> ArtefactoFiles.origen(artefacto("../../etc/passwd", null, "out", null), staging));
+        rechazada(() -> ArtefactoFiles.origen(artefacto("a.bin", null, "out", "/etc/passwd"), staging));
+        rechazada(() -> ArtefactoFiles.origen(artefacto("a.bin", null, "out", "../publicado/a.bin"), staging));
+        rechazada(() -> ArtefactoFiles.origen(artefacto("a.bin", null, "out", "file:///etc/passwd"), staging));
+        rechazada(() -> ArtefactoFiles.origen(artefacto("a.bin", null, "out",
+                staging.toAbsolutePath().toUri() + "../publicado/a.bin"), staging));
+
+        rechazada(() -> ArtefactoFiles.validarRutas("/srv/publicado", "a.bin", "a.bin", null));
+        rechazada(() -> ArtefactoFiles.validarRutas("out", "a.bin", "../a.bin", null));
+        rechazada(() -> ArtefactoFiles.validarRutas("out", "a.bin", "a.bin", "../../secreto"));
+        ArtefactoFiles.validarRutas("ACME/1.0", "a.bin", "final.bin", "file:///staging/a.bin");
+    }
+}
@@ -0,0 +1,51 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtefactoHashServiceTests {
+
+    @Test
+    void hashMatchesDigestOfWholeFile(@TempDir Path dir) throws Exception {
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(data);
+        Path file = Files.write(dir.resolve("firmware.bin"), data);
+
+        var result = ArtefactoHashService.hash(file, ByteBuffer.allocateDirect(1024 * 1024));
+
+        assertThat(result.sizeBytes()).isEqualTo(data.length);
+        assertThat(result.md5()).isEqualTo(ArtefactoFiles.hex(ArtefactoHashService.md5().digest(data)));
+    }
+
+    @Test
+    void reusedBufferSmallerThanTheFileGivesTheSameDigest(@TempDir Path dir) throws Exception {
+        // Cientos de lecturas por archivo y la última parcial; el buffer pasa de un archivo al siguiente
+        var buffer = ByteBuffer.allocateDirect(4096);
+        var random = new Random(7);
+        for (int size : new int[]{4096 * 300 + 1, 4096, 4095, 10}) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            Path file = Files.write(dir.resolve("a" + size + ".bin"), data);
+
+            var result = ArtefactoHashService.hash(file, buffer);
+
+            assertThat(result.sizeBytes()).isEqualTo(size);
+            assertThat(result.md5()).isEqualTo(ArtefactoFiles.hex(ArtefactoHashService.md5().digest(data)));
+        }
+    }
+
+    @Test
+    void hashOfEmptyFile(@TempDir Path dir) throws Exception {
+        var result = ArtefactoHashService.hash(Files.createFile(dir.resolve("vacio.pkg")), ByteBuffer.allocateDirect(4096));
+
+        assertThat(result.sizeBytes()).isZero();
+        assertThat(result.md5()).isEqualTo("d41d8cd98f00b204e9800998ecf8427e");
+    }
+}
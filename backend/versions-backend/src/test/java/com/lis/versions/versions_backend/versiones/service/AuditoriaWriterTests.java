@@ -0,0 +1,165 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.EventoAuditoriaEntity;
+import com.lis.versions.versions_backend.versiones.domain.Ids;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AuditoriaWriterTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("auditoria.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.auditoria.modo", () -> "ASYNC");
+        registry.add("versiones.auditoria.outbox-max", () -> "5");
+        // Sin volcados por tiempo: los tests drenan explícitamente
+        registry.add("versiones.auditoria.flush-interval-ms", () -> "600000");
+        registry.add("versiones.auditoria.max-intentos", () -> "3");
+    }
+
+    @Autowired
+    AuditoriaWriter writer;
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private static int numero;
+
+    @BeforeEach
+    void vaciarOutbox() {
+        writer.drenar();
+    }
+
+    private String nuevaVersion() {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = "1.0." + numero++;
+        r.buildYyyymmdd = "20250101";
+        r.responsable = "ci";
+        return service.registrar(r).getId();
+    }
+
+    private static EventoAuditoriaEntity evento(String id, String versionId) {
+        return new EventoAuditoriaEntity(id, versionId, "prueba", "ci", null, null, VersionService.now());
+    }
+
+    private long outbox() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM auditoria_outbox", Long.class);
+    }
+
+    private long eventos(String versionId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM evento_auditoria WHERE version_id = ?", Long.class, versionId);
+    }
+
+    @Test
+    void eventsCommitAndRollBackWithTheBusinessTransaction() {
+        String versionId = nuevaVersion();
+        assertThat(outbox()).isEqualTo(1);
+        assertThat(eventos(versionId)).isZero();
+
+        new TransactionTemplate(txManager).executeWithoutResult(s -> {
+            writer.registrar(evento(Ids.nuevo(), versionId));
+            s.setRollbackOnly();
+        });
+        assertThat(outbox()).isEqualTo(1);
+
+        assertThat(writer.drenar()).isEqualTo(1);
+        assertThat(outbox()).isZero();
+        assertThat(eventos(versionId)).isEqualTo(1);
+    }
+
+    @Test
+    void aBatchThatCannotBeWrittenStaysInTheOutbox() {
+        String versionId = nuevaVersion();
+        writer.drenar();
+        String existente = jdbc.queryForObject("SELECT id FROM evento_auditoria WHERE version_id = ?", String.class, versionId);
+
+        // Mismo id que un evento ya volcado: el INSERT en evento_auditoria falla por la PK
+        writer.registrar(evento(existente, versionId));
+        assertThat(writer.drenar()).isEqualTo(-1);
+        assertThat(writer.drenar()).isEqualTo(-1);
+        assertThat(outbox()).isEqualTo(1);
+
+        jdbc.update("DELETE FROM evento_auditoria WHERE id = ?", existente);
+        assertThat(writer.drenar()).isEqualTo(1);
+        assertThat(outbox()).isZero();
+        assertThat(eventos(versionId)).isEqualTo(1);
+    }
+
+    @Test
+    void aPoisonEventIsIsolatedAndMovedToTheDeadLetterTableAfterMaxAttempts() {
+        String versionId = nuevaVersion();
+        writer.drenar();
+        String existente = jdbc.queryForObject("SELECT id FROM evento_auditoria WHERE version_id = ?", String.class, versionId);
+
+        String haceUnaHora = LocalDateTime.now().minusHours(1).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        var envenenado = new EventoAuditoriaEntity(existente, versionId, "prueba", "ci", null, null, haceUnaHora);
+        writer.registrarTodos(List.of(evento(Ids.nuevo(), versionId), envenenado, evento(Ids.nuevo(), versionId)));
+        assertThat(meterRegistry.get("versiones.auditoria.outbox.antiguedad").gauge().value()).isZero();
+        assertThat(writer.drenar()).isEqualTo(-1);
+        // Los eventos válidos del lote no esperan al envenenado
+        assertThat(eventos(versionId)).isEqualTo(3);
+        assertThat(outbox()).isEqualTo(1);
+        assertThat(meterRegistry.get("versiones.auditoria.outbox.antiguedad").gauge().value()).isGreaterThanOrEqualTo(3600);
+
+        assertThat(writer.drenar()).isEqualTo(-1);
+        assertThat(writer.drenar()).isEqualTo(-1);
+        assertThat(outbox()).isZero();
+        assertThat(jdbc.queryForMap("SELECT id, intentos, error FROM auditoria_fallida"))
+                .containsEntry("id", existente)
+                .containsEntry("intentos", 3)
+                .satisfies(f -> assertThat(f.get("error")).isNotNull());
+        assertThat(writer.drenar()).isZero();
+        assertThat(meterRegistry.get("versiones.auditoria.outbox.antiguedad").gauge().value()).isZero();
+    }
+
+    @Test
+    void aFullOutboxMakesTheCallerWriteDirectly() {
+        String versionId = nuevaVersion();
+        var lote = new ArrayList<EventoAuditoriaEntity>();
+        for (int i = 0; i < 4; i++) lote.add(evento(Ids.nuevo(), versionId));
+        writer.registrarTodos(lote);
+        assertThat(outbox()).isEqualTo(5);
+        assertThat(eventos(versionId)).isZero();
+
+        writer.registrar(evento(Ids.nuevo(), versionId));
+        assertThat(outbox()).isEqualTo(5);
+        assertThat(eventos(versionId)).isEqualTo(1);
+
+        assertThat(writer.drenar()).isEqualTo(5);
+        assertThat(eventos(versionId)).isEqualTo(6);
+    }
+}
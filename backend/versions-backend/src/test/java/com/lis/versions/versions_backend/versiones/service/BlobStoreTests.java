@@ -0,0 +1,99 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BlobStoreTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("blobs.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.blobs.dir", () -> dataDir.resolve("blobs").toString());
+        registry.add("versiones.blobs.gracia-ms", () -> "0");
+        registry.add("versiones.copy.staging-dir", dataDir::toString);
+        registry.add("versiones.copy.destino-dir", () -> dataDir.resolve("publicado").toString());
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    ArtefactoCopyService copyService;
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private String version(String build, Path origen, String md5) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = "8.0.0";
+        r.buildYyyymmdd = build;
+        r.responsable = "ci";
+        String id = service.registrar(r).getId();
+        var a = new Dtos.AdjuntarArtefactoRequest();
+        a.tipo = "bin";
+        a.rama = "base";
+        a.nombreOriginal = "pos.bin";
+        a.nombreFinal = "pos.bin";
+        a.rutaDestino = build;
+        a.uploadedUrl = origen.toUri().toString();
+        a.md5 = md5;
+        service.adjuntarArtefacto(id, a, "ci");
+        return id;
+    }
+
+    @Test
+    void deduplicatesByContentAndCollectsUnreferencedBlobs() throws Exception {
+        byte[] data = new byte[3 * 1024 * 1024];
+        new Random(11).nextBytes(data);
+        Path origen = Files.write(dataDir.resolve("pos.bin"), data);
+        String md5 = ArtefactoFiles.hex(ArtefactoHashService.md5().digest(data));
+
+        var primera = copyService.copy(copyService.plan(version("20250801", origen, null)), n -> {});
+        var segunda = copyService.copy(copyService.plan(version("20250802", origen, md5)), n -> {});
+
+        assertThat(primera.get(0).reutilizado()).isFalse();
+        assertThat(segunda.get(0).reutilizado()).isTrue();
+        assertThat(segunda.get(0).blob()).isEqualTo(primera.get(0).blob());
+        assertThat(Files.readAllBytes(segunda.get(0).destino())).isEqualTo(data);
+        assertThat(Files.isSameFile(primera.get(0).destino(), segunda.get(0).destino())).isTrue();
+
+        var stats = blobStore.stats();
+        assertThat(stats.blobs()).isEqualTo(1);
+        assertThat(stats.referencias()).isEqualTo(2);
+        assertThat(stats.ahorroBytes()).isEqualTo(data.length);
+        assertThat(stats.ratio()).isEqualTo(2.0);
+
+        // Sin referencias, la GC (gracia 0) borra la fila y el archivo
+        Path blob = blobStore.ruta(primera.get(0).blob());
+        jdbc.update("DELETE FROM artefacto WHERE id = ?", primera.get(0).artefactoId());
+        assertThat(blobStore.recolectar()).isZero();
+        jdbc.update("DELETE FROM artefacto WHERE id = ?", segunda.get(0).artefactoId());
+        Thread.sleep(5);
+        assertThat(blobStore.stats().huerfanos()).isEqualTo(1);
+        assertThat(blobStore.recolectar()).isEqualTo(1);
+        assertThat(blob).doesNotExist();
+        assertThat(blobStore.stats().blobs()).isZero();
+    }
+}
@@ -0,0 +1,124 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EventosHubTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("eventos.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.outbox.dir", () -> dataDir.resolve("outbox").toString());
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    int port;
+
+    private String registrar(String cliente) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = cliente;
+        r.nombre = "POS";
+        r.numeroVersion = "7.0.0";
+        r.buildYyyymmdd = "20250601";
+        r.responsable = "ci";
+        return service.registrar(r).getId();
+    }
+
+    private void adjuntar(String versionId, String rama) {
+        var a = new Dtos.AdjuntarArtefactoRequest();
+        a.tipo = "bin";
+        a.rama = rama;
+        a.nombreOriginal = rama + ".bin";
+        a.nombreFinal = rama + ".bin";
+        a.rutaDestino = "out";
+        service.adjuntarArtefacto(versionId, a, "ci");
+    }
+
+    @Test
+    void streamsTransitionsAndJobsFilteredByCliente() throws Exception {
+        var lineas = new LinkedBlockingQueue<String>();
+        var response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/versiones/events?cliente=ACME")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                ct -> assertThat(ct).startsWith("text/event-stream"));
+        Thread.ofVirtual().start(() -> {
+            try {
+                response.body().forEach(lineas::add);
+            } catch (UncheckedIOException e) {
+                // la conexión se cierra al final del test
+            }
+        });
+        while (meterRegistry.get("versiones.eventos.suscriptores").gauge().value() < 1) Thread.sleep(10);
+
+        String otra = registrar("GLOBEX");
+        String id = registrar("ACME");
+        adjuntar(id, "base");
+        adjuntar(id, "aumento");
+        service.validar(id, "ci");
+        service.publicar(id, "ci");
+
+        var recibidas = new ArrayList<String>();
+        int jobsPendientes = 0;
+        boolean publicada = false;
+        while (!publicada || jobsPendientes < 4) {
+            String l = lineas.poll(10, TimeUnit.SECONDS);
+            assertThat(l).as("evento SSE").isNotNull();
+            recibidas.add(l);
+            if (l.startsWith("data:") && l.contains("\"hacia\":\"Published\"")) publicada = true;
+            if (l.startsWith("data:") && l.contains("\"status\":\"PENDING\"")) jobsPendientes++;
+        }
+        assertThat(recibidas).anyMatch(l -> l.equals("event:version")).anyMatch(l -> l.equals("event:job"))
+                .noneMatch(l -> l.contains(otra));
+        response.body().close();
+    }
+
+    @Test
+    void coalescesPerKeyAndDropsOldestWhenFull() {
+        var hub = new EventosHub(null, new SimpleMeterRegistry(), 2, 60_000, 10);
+        var s = hub.new Suscriptor(new SseEmitter(), null, null);
+        assertThat(s.ofrecer("version:a", evento(1, "a"), 2)).isFalse();
+        assertThat(s.ofrecer("version:b", evento(2, "b"), 2)).isFalse();
+        // mismo key: se reemplaza sin descartar
+        assertThat(s.ofrecer("version:a", evento(3, "a"), 2)).isFalse();
+        // key nuevo con el buffer lleno: se descarta el más antiguo ("b")
+        assertThat(s.ofrecer("version:c", evento(4, "c"), 2)).isTrue();
+        assertThat(s.pendientes()).extracting(EventosHub.Evento::id).containsExactly(3L, 4L);
+    }
+
+    private static EventosHub.Evento evento(long id, String versionId) {
+        return new EventosHub.Evento(id, "version", versionId, "ACME", versionId);
+    }
+}
@@ -0,0 +1,92 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EvidenciaPackagerTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("evidencia.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.outbox.dir", () -> dataDir.resolve("outbox").toString());
+        registry.add("versiones.evidencia.dir", () -> dataDir.resolve("evidencias").toString());
+        registry.add("versiones.copy.destino-dir", dataDir::toString);
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    EvidenciaPackager packager;
+
+    private static Dtos.AdjuntarArtefactoRequest artefacto(String tipo, String rama, String nombre) {
+        var r = new Dtos.AdjuntarArtefactoRequest();
+        r.tipo = tipo;
+        r.rama = rama;
+        r.nombreOriginal = nombre;
+        r.nombreFinal = nombre;
+        r.rutaDestino = "publicado";
+        return r;
+    }
+
+    @Test
+    void storesBinariesDeflatesTextAndIncludesAuditTrail() throws Exception {
+        var req = new Dtos.RegistrarVersionRequest();
+        req.cliente = "ACME";
+        req.nombre = "POS";
+        req.numeroVersion = "3.0.0";
+        req.buildYyyymmdd = "20250401";
+        req.responsable = "ci";
+        var v = service.registrar(req);
+
+        byte[] bin = new byte[3 * 1024 * 1024 + 11];
+        new Random(3).nextBytes(bin);
+        Files.createDirectories(dataDir.resolve("publicado"));
+        Files.write(dataDir.resolve("publicado/base.bin"), bin);
+        Files.writeString(dataDir.resolve("publicado/manual.txt"), "manual ".repeat(10_000));
+        service.adjuntarArtefacto(v.getId(), artefacto("bin", "base", "base.bin"), "ci");
+        service.adjuntarArtefacto(v.getId(), artefacto("doc", "base", "manual.txt"), "ci");
+        Files.createDirectories(dataDir.resolve("outbox"));
+        Files.writeString(dataDir.resolve("outbox/pub_" + v.getId() + ".eml"), "Subject: prueba\n\ncuerpo");
+
+        var plan = packager.plan(v.getId());
+        var progress = new AtomicLong();
+        var r = packager.empaquetar(plan, progress::addAndGet);
+
+        assertThat(progress).hasValue(plan.totalBytes());
+        assertThat(r.eventosAuditoria()).isEqualTo(3);
+        try (var zip = new ZipFile(r.zip().toFile())) {
+            ZipEntry binEntry = zip.getEntry("artefactos/base/base.bin");
+            assertThat(binEntry.getMethod()).isEqualTo(ZipEntry.STORED);
+            assertThat(zip.getInputStream(binEntry).readAllBytes()).isEqualTo(bin);
+            ZipEntry doc = zip.getEntry("artefactos/base/manual.txt");
+            assertThat(doc.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+            assertThat(doc.getCompressedSize()).isLessThan(doc.getSize());
+            assertThat(zip.getEntry("outbox/pub_" + v.getId() + ".eml")).isNotNull();
+            var auditoria = new String(zip.getInputStream(zip.getEntry("auditoria.ndjson")).readAllBytes());
+            assertThat(auditoria.lines()).hasSize(3).allMatch(l -> l.contains("\"versionId\":\"" + v.getId() + "\""));
+        }
+        try (var files = Files.list(r.zip().getParent())) {
+            assertThat(files).containsExactly(r.zip());
+        }
+    }
+}
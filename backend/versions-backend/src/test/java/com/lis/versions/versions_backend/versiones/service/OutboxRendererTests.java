@@ -0,0 +1,66 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboxRendererTests {
+
+    private static VersionEntity version(String cliente) {
+        return new VersionEntity("v-1", cliente, "POS", "5.1.0", "20250901", VersionEstado.Published, "ci",
+                "main", null, "2025-09-01T10:00:00", "2025-09-01T10:00:00");
+    }
+
+    @Test
+    void rendersDefaultTemplatesAndPerClienteOverrides(@TempDir Path dir) throws Exception {
+        Files.createDirectories(dir.resolve("Globex/outbox"));
+        Files.writeString(dir.resolve("Globex/outbox/asunto.tpl"), "[{{ cliente }}] {{nombre}} {{numeroVersion}}\n");
+        var renderer = new OutboxRenderer(new SimpleMeterRegistry(), dir.toString(), 10);
+
+        var acme = renderer.render("outbox", version("ACME"));
+        assertThat(acme.eml()).isEqualTo("Subject: SOLICITUD DE PUBLICACIÓN POS5.1.0 _ 20250901\n\n"
+                + "Publicación de versión POS5.1.0 (build 20250901)");
+        assertThat(acme.releaseNotes()).isEqualTo("# Release Notes\n\n- Cliente: ACME\n- Version: 5.1.0\n- Build: 20250901");
+
+        // el cliente solo redefine el asunto; canal sin plantillas propias usa las de outbox
+        var globex = renderer.render("teams", version("Globex"));
+        assertThat(globex.asunto()).isEqualTo("SOLICITUD DE PUBLICACIÓN POS5.1.0 _ 20250901");
+        assertThat(renderer.render("outbox", version("Globex")).asunto()).isEqualTo("[Globex] POS 5.1.0");
+        assertThat(renderer.render("outbox", version("../Globex")).asunto()).startsWith("SOLICITUD");
+
+        Files.writeString(dir.resolve("Globex/outbox/cuerpo.tpl"), "{{desconocida}}");
+        renderer.invalidar();
+        assertThatThrownBy(() -> renderer.render("outbox", version("Globex")))
+                .hasMessageContaining("{{desconocida}}");
+    }
+
+    @Test
+    void writesBatchAtomicallyFromTheWriterThread(@TempDir Path dir) throws Exception {
+        var writer = new OutboxWriter(new SimpleMeterRegistry(), 8);
+        writer.start();
+        try {
+            var archivos = new LinkedHashMap<Path, String>();
+            for (int i = 0; i < 20; i++) archivos.put(dir.resolve("outbox/pub_" + i + ".eml"), "Subject: ñ" + i);
+            long bytes = writer.escribir(archivos).get();
+
+            assertThat(bytes).isEqualTo(archivos.values().stream()
+                    .mapToLong(t -> t.getBytes(StandardCharsets.UTF_8).length).sum());
+            assertThat(Files.readString(dir.resolve("outbox/pub_7.eml"))).isEqualTo("Subject: ñ7");
+            try (var files = Files.list(dir.resolve("outbox"))) {
+                assertThat(files).hasSize(20).noneMatch(p -> p.getFileName().toString().endsWith(".tmp"));
+            }
+        } finally {
+            writer.stop();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SelloServiceTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("sellos.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.sellos.chunk-bytes", () -> "4096");
+        // Buffer menor que el chunk: cada hoja se hashea en varias lecturas
+        registry.add("versiones.buffers.bytes", () -> "1024");
+        registry.add("versiones.copy.destino-dir", dataDir::toString);
+    }
+
+    @Autowired
+    VersionService versionService;
+
+    @Autowired
+    SelloService selloService;
+
+    /** Versión publicada con un bin por rama de {@code bytes} bytes cada uno. */
+    private String publicada(String numero, int bytes) throws Exception {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = "20250101";
+        r.responsable = "ci";
+        String v = versionService.registrar(r).getId();
+        Path dir = Files.createDirectories(dataDir.resolve(numero));
+        var random = new Random(numero.hashCode());
+        for (String rama : new String[]{"base", "aumento"}) {
+            byte[] data = new byte[bytes];
+            random.nextBytes(data);
+            Files.write(dir.resolve(rama + ".bin"), data);
+            var a = new Dtos.AdjuntarArtefactoRequest();
+            a.tipo = "bin";
+            a.rama = rama;
+            a.nombreOriginal = rama + ".bin";
+            a.nombreFinal = rama + ".bin";
+            a.rutaDestino = numero;
+            versionService.adjuntarArtefacto(v, a, "ci");
+        }
+        versionService.validar(v, "ci");
+        versionService.publicar(v, "ci");
+        return v;
+    }
+
+    /** Invierte {@code n} bytes desde {@code pos} conservando el mtime. */
+    private static void alterar(Path archivo, long pos, int n) throws Exception {
+        FileTime mtime = Files.getLastModifiedTime(archivo);
+        try (var ch = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buf = ByteBuffer.allocate(n);
+            ch.read(buf, pos);
+            for (int i = 0; i < n; i++) buf.put(i, (byte) ~buf.get(i));
+            ch.write(buf.rewind(), pos);
+        }
+        Files.setLastModifiedTime(archivo, mtime);
+    }
+
+    @Test
+    void sealsAndIncrementalVerificationSkipsUntouchedFiles() throws Exception {
+        String v = publicada("3.0.0", 50_000);
+
+        var sellada = selloService.sellar(v, "auditor");
+        assertThat(sellada.getEstado()).isEqualTo(VersionEstado.Sealed);
+        var m = selloService.manifiesto(v);
+        assertThat(m.archivos()).hasSize(2).allSatisfy(a -> assertThat(a.chunks()).isEqualTo(13));
+        byte[] data = Files.readAllBytes(dataDir.resolve("3.0.0/base.bin"));
+        var sellado = m.archivos().stream().filter(a -> a.ruta().endsWith("base.bin")).findFirst().orElseThrow();
+        for (int i = 0; i < 13; i++) {
+            var chunk = ByteBuffer.wrap(data, i * 4096, Math.min(4096, data.length - i * 4096));
+            assertThat(Merkle.mismaHoja(sellado.hojas(), i, Merkle.hoja(chunk))).as("hoja %d", i).isTrue();
+        }
+
+        var r = selloService.verificar(v, SelloService.Modo.INCREMENTAL, false);
+        assertThat(r.ok()).isTrue();
+        assertThat(r.omitidos()).isEqualTo(2);
+        assertThat(r.bytesLeidos()).isZero();
+
+        // Tocado sin cambios: se lee una vez y queda registrado el mtime nuevo
+        Path base = dataDir.resolve("3.0.0/base.bin");
+        Files.setLastModifiedTime(base, FileTime.fromMillis(Files.getLastModifiedTime(base).toMillis() + 60_000));
+        assertThat(selloService.verificar(v, SelloService.Modo.INCREMENTAL, false).verificados()).isEqualTo(1);
+        assertThat(selloService.verificar(v, SelloService.Modo.INCREMENTAL, false).verificados()).isZero();
+
+        assertThatThrownBy(() -> selloService.sellar(v, "auditor"))
+                .isInstanceOfSatisfying(VersionService.ServiceException.class, e -> assertThat(e.code).isEqualTo("ESTADO_INVALIDO"));
+    }
+
+    @Test
+    void reportsChangedChunksAndCompleteModeCatchesPreservedMtime() throws Exception {
+        String v = publicada("3.1.0", 50_000);
+        selloService.sellar(v, "auditor");
+
+        Path aumento = dataDir.resolve("3.1.0/aumento.bin");
+        alterar(aumento, 3 * 4096 + 10, 3);
+        alterar(aumento, 9 * 4096, 1);
+
+        assertThat(selloService.verificar(v, SelloService.Modo.INCREMENTAL, false).ok()).isTrue();
+
+        var completa = selloService.verificar(v, SelloService.Modo.COMPLETA, false);
+        assertThat(completa.ok()).isFalse();
+        assertThat(completa.diferencias()).singleElement().satisfies(d -> {
+            assertThat(d.motivo()).isEqualTo("CONTENIDO");
+            assertThat(d.chunks()).containsExactly(3, 9);
+        });
+
+        var temprana = selloService.verificar(v, SelloService.Modo.COMPLETA, true);
+        assertThat(temprana.diferencias()).singleElement().satisfies(d -> assertThat(d.chunks()).containsExactly(3));
+        assertThat(selloService.manifiesto(v).sello().resultado()).isEqualTo("ALTERADO");
+    }
+}
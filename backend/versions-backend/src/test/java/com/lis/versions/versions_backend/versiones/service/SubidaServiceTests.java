@@ -0,0 +1,177 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SubidaServiceTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("subidas.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.copy.staging-dir", () -> dataDir.resolve("staging").toString());
+        registry.add("versiones.subidas.checkpoint-bytes", () -> "262144");
+    }
+
+    @Autowired
+    VersionService versionService;
+
+    @Autowired
+    SubidaService subidas;
+
+    @Autowired
+    ArtefactoRepository artefactoRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private String version(String numero) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = "20250101";
+        r.responsable = "ci";
+        return versionService.registrar(r).getId();
+    }
+
+    private static Dtos.AdjuntarArtefactoRequest artefacto(String nombre, long size, String md5) {
+        var r = new Dtos.AdjuntarArtefactoRequest();
+        r.tipo = "bin";
+        r.rama = "base";
+        r.nombreOriginal = nombre;
+        r.nombreFinal = nombre;
+        r.rutaDestino = "out";
+        r.sizeBytes = size;
+        r.md5 = md5;
+        return r;
+    }
+
+    /** Entrega {@code corte} bytes y luego falla, como una conexión cortada. */
+    private static InputStream cortado(byte[] data, int desde, int corte) {
+        var in = new ByteArrayInputStream(data, desde, corte);
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b < 0) throw new IOException("conexión cortada");
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = in.read(b, off, len);
+                if (n < 0) throw new IOException("conexión cortada");
+                return n;
+            }
+        };
+    }
+
+    @Test
+    void resumesAfterDroppedConnectionAndCreatesArtefactWithComputedMd5() throws Exception {
+        String v = version("1.0.0");
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(3).nextBytes(data);
+        String md5 = ArtefactoFiles.hex(ArtefactoHashService.md5().digest(data));
+        var s = subidas.crear(v, artefacto("pos.bin", data.length, md5), "ci");
+
+        int corte = 1024 * 1024 + 5;
+        assertThatThrownBy(() -> subidas.escribir(v, s.id(), 0, cortado(data, 0, corte)))
+                .isInstanceOf(IOException.class);
+        long confirmado = subidas.obtener(v, s.id()).offsetConfirmado();
+        assertThat(confirmado).isEqualTo(corte);
+
+        assertThatThrownBy(() -> subidas.escribir(v, s.id(), 0, new ByteArrayInputStream(data)))
+                .isInstanceOfSatisfying(VersionService.ServiceException.class, e -> assertThat(e.code).isEqualTo("OFFSET_INVALIDO"));
+
+        var fin = subidas.escribir(v, s.id(), confirmado,
+                new ByteArrayInputStream(data, (int) confirmado, data.length - (int) confirmado));
+
+        assertThat(fin.completa()).isTrue();
+        var a = artefactoRepository.findById(fin.artefactoId()).orElseThrow();
+        assertThat(a.getMd5()).isEqualTo(md5);
+        assertThat(a.getSizeBytes()).isEqualTo(data.length);
+        assertThat(Files.readAllBytes(dataDir.resolve("staging").resolve(v).resolve("pos.bin"))).isEqualTo(data);
+        assertThat(subidas.parcial(s.id())).doesNotExist();
+    }
+
+    @Test
+    void rebuildsDigestFromPartialAfterRestart() throws Exception {
+        String v = version("1.1.0");
+        byte[] data = new byte[900_000];
+        new Random(5).nextBytes(data);
+        var s = subidas.crear(v, artefacto("pos.bin", data.length, null), "ci");
+
+        subidas.escribir(v, s.id(), 0, new ByteArrayInputStream(data, 0, 400_000));
+        subidas.olvidar(s.id());
+        // Bytes escritos sin confirmar: se recortan al reanudar
+        Files.write(subidas.parcial(s.id()), Arrays.copyOfRange(data, 400_000, 450_000),
+                StandardOpenOption.APPEND);
+
+        var fin = subidas.escribir(v, s.id(), 400_000, new ByteArrayInputStream(data, 400_000, 500_000));
+
+        var a = artefactoRepository.findById(fin.artefactoId()).orElseThrow();
+        assertThat(a.getMd5()).isEqualTo(ArtefactoFiles.hex(ArtefactoHashService.md5().digest(data)));
+    }
+
+    @Test
+    void rejectsBodyLargerThanDeclaredSizeAndMd5Mismatch() throws Exception {
+        String v = version("1.2.0");
+        byte[] data = new byte[1000];
+        new Random(9).nextBytes(data);
+
+        var grande = subidas.crear(v, artefacto("a.bin", 10, null), "ci");
+        assertThatThrownBy(() -> subidas.escribir(v, grande.id(), 0, new ByteArrayInputStream(data)))
+                .isInstanceOfSatisfying(VersionService.ServiceException.class, e -> assertThat(e.code).isEqualTo("SUBIDA_EXCEDE_TAMANO"));
+
+        var md5Malo = subidas.crear(v, artefacto("b.bin", data.length, "00000000000000000000000000000000"), "ci");
+        assertThatThrownBy(() -> subidas.escribir(v, md5Malo.id(), 0, new ByteArrayInputStream(data)))
+                .isInstanceOfSatisfying(VersionService.ServiceException.class, e -> assertThat(e.code).isEqualTo("MD5_NO_COINCIDE"));
+        assertThat(subidas.obtener(v, md5Malo.id()).offsetConfirmado()).isZero();
+        assertThat(artefactoRepository.findByVersionId(v)).isEmpty();
+    }
+
+    @Test
+    void sweepDeletesAbandonedUploadsAndKeepsRecentOnes() throws Exception {
+        String v = version("1.3.0");
+        byte[] data = new byte[2000];
+        new Random(11).nextBytes(data);
+        var vieja = subidas.crear(v, artefacto("vieja.bin", data.length, null), "ci");
+        var reciente = subidas.crear(v, artefacto("reciente.bin", data.length, null), "ci");
+        subidas.escribir(v, vieja.id(), 0, new ByteArrayInputStream(data, 0, 500));
+        subidas.escribir(v, reciente.id(), 0, new ByteArrayInputStream(data, 0, 500));
+        jdbc.update("UPDATE subida SET actualizado_en = '2020-01-01T00:00:00' WHERE id = ?", vieja.id());
+
+        assertThat(subidas.expirar()).isEqualTo(1);
+
+        assertThat(subidas.parcial(vieja.id())).doesNotExist();
+        assertThatThrownBy(() -> subidas.escribir(v, vieja.id(), 500, new ByteArrayInputStream(data, 500, 1500)))
+                .isInstanceOfSatisfying(VersionService.ServiceException.class, e -> assertThat(e.code).isEqualTo("SUBIDA_NO_ENCONTRADA"));
+        assertThat(subidas.parcial(reciente.id())).exists();
+        var fin = subidas.escribir(v, reciente.id(), 500, new ByteArrayInputStream(data, 500, 1500));
+        assertThat(fin.completa()).isTrue();
+    }
+}
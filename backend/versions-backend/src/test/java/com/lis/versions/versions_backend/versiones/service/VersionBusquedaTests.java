@@ -0,0 +1,106 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.jobs.GenOutboxJobHandler;
+import com.lis.versions.versions_backend.versiones.repo.JobQueueRepository;
+import com.lis.versions.versions_backend.versiones.repo.ResultadoBusqueda;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VersionBusquedaTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("busqueda.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+        registry.add("versiones.outbox.dir", () -> dataDir.resolve("outbox").toString());
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    JobQueueRepository jobQueueRepository;
+
+    @Autowired
+    GenOutboxJobHandler genOutbox;
+
+    private String registrar(String cliente, String nombre, String branch) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = cliente;
+        r.nombre = nombre;
+        r.numeroVersion = "3.2.1";
+        r.buildYyyymmdd = "20250801";
+        r.responsable = "ci";
+        r.branch = branch;
+        return service.registrar(r).getId();
+    }
+
+    private void adjuntar(String versionId, String rama) {
+        var a = new Dtos.AdjuntarArtefactoRequest();
+        a.tipo = "bin";
+        a.rama = rama;
+        a.nombreOriginal = rama + ".bin";
+        a.nombreFinal = rama + ".bin";
+        a.rutaDestino = "out";
+        service.adjuntarArtefacto(versionId, a, "ci");
+    }
+
+    @Test
+    void ranksPrefixMatchesAcrossVersionsBorradoresAndReleaseNotes() throws Exception {
+        String farmacia = registrar("Farmacias Ñandú", "FarmaPOS", "feature/facturación");
+        String otra = registrar("Globex", "Inventario", "main");
+        adjuntar(farmacia, "base");
+        adjuntar(farmacia, "aumento");
+        service.validar(farmacia, "ci");
+        service.publicar(farmacia, "ci");
+        // las release notes las genera e indexa el job GEN_OUTBOX
+        for (var job : jobQueueRepository.findAll()) {
+            if ("GEN_OUTBOX".equals(job.getType())) genOutbox.handle(job);
+        }
+
+        // prefijo y sin acentos
+        assertThat(service.buscarTexto("farma nandu", null, null))
+                .extracting(ResultadoBusqueda::versionId).containsOnly(farmacia);
+        var porRama = service.buscarTexto("facturacion", null, null);
+        assertThat(porRama).hasSize(1);
+        assertThat(porRama.get(0).fragmento()).contains("<mark>facturación</mark>");
+
+        // texto del borrador y de las release notes generadas al publicar
+        assertThat(service.buscarTexto("solicitud publicación", null, null))
+                .extracting(ResultadoBusqueda::tipo).containsExactly("borrador");
+        assertThat(service.buscarTexto("release notes", null, null))
+                .extracting(ResultadoBusqueda::tipo).containsExactly("release_notes");
+
+        // el nombre de cliente pesa más que el texto libre
+        var inventario = service.buscarTexto("inv", null, 5);
+        assertThat(inventario).extracting(ResultadoBusqueda::versionId).containsExactly(otra);
+        assertThat(service.buscarTexto("inv", "Farmacias Ñandú", null)).isEmpty();
+
+        // sintaxis FTS5 en la entrada se trata como texto
+        assertThat(service.buscarTexto("NEAR(\"x\" OR", null, null)).isEmpty();
+        assertThatThrownBy(() -> service.buscarTexto(" *** ", null, null))
+                .isInstanceOf(VersionService.ServiceException.class);
+
+        jdbc.update("UPDATE version SET nombre = 'Ventas' WHERE id = ?", otra);
+        assertThat(service.buscarTexto("inventario", null, null)).isEmpty();
+        assertThat(service.buscarTexto("ventas", null, null)).hasSize(1);
+    }
+}
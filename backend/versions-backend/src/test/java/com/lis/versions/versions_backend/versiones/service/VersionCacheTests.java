@@ -0,0 +1,77 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VersionCacheTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("cache.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private static Dtos.AdjuntarArtefactoRequest artefacto(String rama) {
+        var r = new Dtos.AdjuntarArtefactoRequest();
+        r.tipo = "bin";
+        r.rama = rama;
+        r.nombreOriginal = rama + ".bin";
+        r.nombreFinal = rama + ".bin";
+        r.rutaDestino = "out";
+        return r;
+    }
+
+    private double gets(String cache, String result) {
+        var c = meterRegistry.find("cache.gets").tag("cache", cache).tag("result", result).functionCounter();
+        return c == null ? 0 : c.count();
+    }
+
+    @Test
+    void servesRepeatedReadsFromCacheAndSeesEveryTransition() {
+        var req = new Dtos.RegistrarVersionRequest();
+        req.cliente = "ACME";
+        req.nombre = "POS";
+        req.numeroVersion = "9.0.0";
+        req.buildYyyymmdd = "20250301";
+        req.responsable = "ci";
+        var v = service.registrar(req);
+
+        double hits = gets("versiones.version", "hit");
+        service.obtener(v.getId());
+        service.obtener(v.getId());
+        assertThat(gets("versiones.version", "hit")).isGreaterThan(hits);
+
+        assertThat(service.listarArtefactos(v.getId())).isEmpty();
+        service.adjuntarArtefacto(v.getId(), artefacto("base"), "ci");
+        service.adjuntarArtefacto(v.getId(), artefacto("aumento"), "ci");
+        assertThat(service.listarArtefactos(v.getId())).hasSize(2);
+
+        assertThat(service.validar(v.getId(), "ci").getEstado()).isEqualTo(VersionEstado.Ready);
+        assertThat(service.obtener(v.getId()).getEstado()).isEqualTo(VersionEstado.Ready);
+        assertThatThrownBy(() -> service.validar(v.getId(), "ci"))
+                .isInstanceOf(VersionService.ServiceException.class)
+                .hasMessageContaining("Draft");
+    }
+}
@@ -0,0 +1,100 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.domain.VersionEntity;
+import com.lis.versions.versions_backend.versiones.domain.VersionEstado;
+import com.lis.versions.versions_backend.versiones.domain.VersionResumen;
+import com.lis.versions.versions_backend.versiones.repo.VersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VersionListadoTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("listado.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    VersionRepository versionRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        versionRepository.deleteAll();
+        for (int i = 0; i < 45; i++) {
+            String cliente = i % 3 == 0 ? "ACME" : "GLOBEX";
+            VersionEstado estado = i % 2 == 0 ? VersionEstado.Draft : VersionEstado.Published;
+            // Timestamps repetidos de a pares para ejercitar el desempate por id.
+            String ts = String.format("2025-03-%02dT10:00:00", 1 + i / 2);
+            versionRepository.save(new VersionEntity("id-%03d".formatted(i), cliente, "POS", "1.0." + i, "20250301",
+                    estado, "ana", null, null, ts, ts));
+        }
+    }
+
+    @Test
+    void keysetPagesCoverEverythingOnceInOrder() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var page = service.listar("GLOBEX", null, null, null, null, null, 7, null, null, cursor);
+            page.content().stream().map(VersionResumen::id).forEach(seen::add);
+            assertThat(page.totalElements()).isNull();
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        var expected = versionRepository.findAll().stream()
+                .filter(v -> v.getCliente().equals("GLOBEX"))
+                .sorted((a, b) -> {
+                    int c = b.getCreadoEn().compareTo(a.getCreadoEn());
+                    return c != 0 ? c : b.getId().compareTo(a.getId());
+                })
+                .map(VersionEntity::getId).toList();
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo((expected.size() + 6) / 7);
+    }
+
+    @Test
+    void offsetPageReportsTotalsAndIsLimitedToSmallPages() {
+        var page = service.listar("ACME", "Draft", null, "2025-03-01", "2025-03-23", 0, 5, "creadoEn", "asc", null);
+        assertThat(page.totalElements()).isEqualTo(8);
+        assertThat(page.totalPages()).isEqualTo(2);
+        assertThat(page.content()).extracting(VersionResumen::id).startsWith("id-000", "id-006");
+
+        assertThatThrownBy(() -> service.listar(null, null, null, null, null, 0, 100, null, null, null))
+                .isInstanceOf(VersionService.ServiceException.class)
+                .hasMessageContaining("cursor");
+    }
+
+    @Test
+    void keysetQueryIsServedByIndex() {
+        var plan = jdbc.queryForList("EXPLAIN QUERY PLAN SELECT id FROM version WHERE cliente = ? AND estado = ? "
+                + "AND (creado_en, id) < (?, ?) ORDER BY creado_en DESC, id DESC LIMIT 20",
+                "ACME", "Draft", "2025-03-10T00:00:00", "id-100");
+        assertThat(plan.toString()).contains("idx_version_cliente_estado_creado").doesNotContain("TEMP B-TREE");
+    }
+}
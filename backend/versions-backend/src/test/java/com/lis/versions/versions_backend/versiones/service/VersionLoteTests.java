@@ -0,0 +1,85 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.repo.ArtefactoRepository;
+import com.lis.versions.versions_backend.versiones.repo.EventoAuditoriaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class VersionLoteTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("lote.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    ArtefactoRepository artefactoRepository;
+
+    @Autowired
+    EventoAuditoriaRepository eventoAuditoriaRepository;
+
+    private static Dtos.RegistrarVersionRequest version(String numero, String build) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = build;
+        r.responsable = "ci";
+        return r;
+    }
+
+    private static Dtos.AdjuntarArtefactoRequest artefacto(String tipo, String rama, String nombre) {
+        var r = new Dtos.AdjuntarArtefactoRequest();
+        r.tipo = tipo;
+        r.rama = rama;
+        r.nombreOriginal = nombre;
+        r.nombreFinal = nombre;
+        r.rutaDestino = "out";
+        return r;
+    }
+
+    @Test
+    void registersValidItemsAndReportsFailuresPerIndex() {
+        var previo = service.registrar(version("2.0.0", "20250101"));
+
+        var r = service.registrarLote(List.of(
+                version("2.1.0", "20250102"),
+                version("2.0.0", "20250101"),
+                version("2.1.0", "20250102"),
+                version("2.2.0", "2025-01"),
+                version("2.3.0", "20250103")));
+
+        assertThat(r.creados()).isEqualTo(2);
+        assertThat(r.items()).extracting(Dtos.LoteItem::code)
+                .containsExactly(null, "VERSION_DUPLICADA", "VERSION_DUPLICADA", "VALIDATION_ERROR", null);
+        assertThat(r.items().get(3).message()).startsWith("buildYyyymmdd");
+
+        var arts = service.adjuntarArtefactosLote(previo.getId(), List.of(
+                artefacto("bin", "base", "a.bin"),
+                artefacto("exe", "base", "b.exe"),
+                artefacto("bin", "aumento", "c.bin")), "ci");
+
+        assertThat(arts.creados()).isEqualTo(2);
+        assertThat(arts.items().get(1).code()).isEqualTo("TIPO_INVALIDO");
+        assertThat(artefactoRepository.findByVersionId(previo.getId())).hasSize(2);
+        assertThat(eventoAuditoriaRepository.findByVersionIdOrderByTimestampAsc(previo.getId())).hasSize(3);
+    }
+}
@@ -0,0 +1,97 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.api.Dtos;
+import com.lis.versions.versions_backend.versiones.domain.Semver;
+import com.lis.versions.versions_backend.versiones.repo.VersionSemver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VersionSemverTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("semver.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private String registrar(String numero, String build) {
+        var r = new Dtos.RegistrarVersionRequest();
+        r.cliente = "ACME";
+        r.nombre = "POS";
+        r.numeroVersion = numero;
+        r.buildYyyymmdd = build;
+        r.responsable = "ci";
+        return service.registrar(r).getId();
+    }
+
+    @Test
+    void keyFollowsSemverPrecedence() {
+        // Orden de precedencia del ejemplo de semver.org §11, más casos numéricos
+        var ordenadas = List.of("1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta",
+                "1.0.0-beta.2", "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.2", "v1.9.0", "1.10.0+build.5", "10.0.0");
+        var mezcladas = new ArrayList<>(ordenadas);
+        Collections.reverse(mezcladas);
+        mezcladas.sort(Comparator.comparing(Semver::clave));
+        assertThat(mezcladas).isEqualTo(ordenadas);
+        assertThat(Semver.clave("1.2.3.4")).isNull();
+        assertThat(Semver.clave("latest")).isNull();
+        assertThat(Semver.rango(">=1.4 <2.0")).isEqualTo(new Semver.Rango(Semver.clave("1.4.0"), true, Semver.clave("2.0.0"), false));
+        assertThat(Semver.rango(">=1.4 <dos")).isNull();
+    }
+
+    @Test
+    void answersLatestRangeAndPreviousPublishedFromTheIndex() {
+        registrar("1.9.0", "20250101");
+        String v110 = registrar("1.10.0", "20250201");
+        registrar("1.10.0", "20250202");
+        String v2rc = registrar("2.0.0-rc.1", "20250301");
+        String v2 = registrar("2.0.0", "20250401");
+        registrar("nightly", "20250402");
+        jdbc.update("UPDATE version SET estado = 'Published' WHERE id = ?", v110);
+
+        assertThat(service.ultimasVersiones("ACME", "POS", null, 3))
+                .extracting(VersionSemver::numeroVersion).containsExactly("2.0.0", "2.0.0-rc.1", "1.10.0");
+        assertThat(service.ultimasVersiones("ACME", "POS", "Published", null))
+                .extracting(VersionSemver::id).containsExactly(v110);
+        assertThat(service.rangoVersiones("ACME", "POS", ">=1.10 <2.0.0", null))
+                .extracting(VersionSemver::buildYyyymmdd).containsExactly("20250201", "20250202", "20250301");
+        assertThat(service.anteriorPublicada(v2).id()).isEqualTo(v110);
+        assertThat(service.anteriorPublicada(v2rc).id()).isEqualTo(v110);
+        assertThatThrownBy(() -> service.anteriorPublicada(v110))
+                .isInstanceOfSatisfying(VersionService.ServiceException.class, e -> assertThat(e.http).isEqualTo(404));
+
+        for (String sql : List.of(
+                "SELECT id, numero_version, build_yyyymmdd, estado FROM version WHERE cliente = 'ACME' AND nombre = 'POS' "
+                        + "AND semver_key IS NOT NULL ORDER BY semver_key DESC, build_yyyymmdd DESC LIMIT 10",
+                "SELECT id, numero_version, build_yyyymmdd, estado FROM version WHERE cliente = 'ACME' AND nombre = 'POS' "
+                        + "AND (semver_key, build_yyyymmdd) < ('x', 'y') AND estado IN ('Published', 'Sealed') "
+                        + "ORDER BY semver_key DESC, build_yyyymmdd DESC LIMIT 1")) {
+            var plan = jdbc.queryForList("EXPLAIN QUERY PLAN " + sql).toString();
+            assertThat(plan).contains("COVERING INDEX idx_version_semver").doesNotContain("TEMP B-TREE");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.lis.versions.versions_backend.versiones.service;
+
+import com.lis.versions.versions_backend.versiones.jobs.JobQueueMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class VersionServiceMetricsTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("metrics.db"));
+        registry.add("versiones.jobs.enabled", () -> "false");
+    }
+
+    @Autowired
+    VersionService service;
+
+    @Autowired
+    JobQueueMetrics jobQueueMetrics;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Test
+    void timesOperationsByOutcomeAndCodeAndExportsPrometheus() {
+        assertThatThrownBy(() -> service.validar("no-existe", "ci"))
+                .isInstanceOf(VersionService.ServiceException.class);
+
+        var timer = meterRegistry.find("versiones.service")
+                .tags("operation", "validar", "outcome", "error", "code", "VERSION_NO_ENCONTRADA").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+
+        jobQueueMetrics.refresh();
+        var body = rest.getForObject("/actuator/prometheus", String.class);
+        assertThat(body)
+                .contains("versiones_service_seconds_count{")
+                .contains("spring_data_repository_invocations_seconds_count{");
+    }
+}